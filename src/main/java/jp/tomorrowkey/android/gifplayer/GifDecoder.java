@@ -4,6 +4,7 @@ import android.graphics.Bitmap;
 import android.graphics.Bitmap.Config;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Vector;
 
 // From https://github.com/tomorrowkey/android-gifview/blob/master/src/jp/tomorrowkey/android/gifplayer/GifDecoder.java
@@ -65,6 +66,26 @@ public class GifDecoder {
 	protected byte[] pixels;
 	protected Vector<GifFrame> frames; // frames read from current file
 	protected int frameCount;
+	// Streaming mode: frames are handed to the sink rather than retained
+	protected FrameSink sink;
+	protected int[][] pixelHistory; // current, last, and before-last frame pixels
+	protected boolean sinkStopped;
+
+	/**
+	 * Receives frames as they are decoded when reading in streaming mode.
+	 */
+	public interface FrameSink {
+		/**
+		 * @return A mutable bitmap of the given size, into which the next frame will be drawn,
+		 *          or null if decoding should stop.
+		 */
+		Bitmap obtainFrameBitmap(int width, int height);
+
+		/**
+		 * @return false if decoding should stop.
+		 */
+		boolean onFrame(Bitmap frame, int delayMs);
+	}
 
 	private static class GifFrame {
 		public GifFrame(Bitmap im, int del) {
@@ -123,9 +144,15 @@ public class GifDecoder {
 	 */
 	protected void setPixels() {
 		// expose destination image's pixels as int array
-		int[] dest = new int[width * height];
+		int[] dest;
+		if (sink != null) {
+			dest = prepareStreamingPixels();
+		} else {
+			dest = new int[width * height];
+		}
 		// fill in starting image contents based on last image's dispose code
-		if (lastDispose > 0) {
+		// (in streaming mode, this is handled by prepareStreamingPixels())
+		if (sink == null && lastDispose > 0) {
 			if (lastDispose == 3) {
 				// use image before last
 				int n = frameCount - 2;
@@ -202,7 +229,54 @@ public class GifDecoder {
 				}
 			}
 		}
-		image = Bitmap.createBitmap(dest, width, height, Config.ARGB_4444);
+		if (sink != null) {
+			image = sink.obtainFrameBitmap(width, height);
+			if (image == null) {
+				sinkStopped = true;
+				return;
+			}
+			image.setPixels(dest, 0, width, 0, 0, width, height);
+		} else {
+			image = Bitmap.createBitmap(dest, width, height, Config.ARGB_4444);
+		}
+	}
+
+	/**
+	 * Rotates the reusable pixel buffers, and fills the new current buffer according to the last
+	 * image's dispose code.
+	 */
+	protected int[] prepareStreamingPixels() {
+		int[] dest = pixelHistory[2];
+		pixelHistory[2] = pixelHistory[1];
+		pixelHistory[1] = pixelHistory[0];
+		pixelHistory[0] = dest;
+		int[] source = null;
+		if (lastDispose > 0) {
+			source = lastDispose == 3 ? pixelHistory[2] : pixelHistory[1];
+			if (lastDispose == 3 && frameCount <= 2) {
+				source = null;
+			}
+		}
+		if (source == null) {
+			Arrays.fill(dest, 0);
+			return dest;
+		}
+		System.arraycopy(source, 0, dest, 0, dest.length);
+		if (lastDispose == 2) {
+			// fill last image rect area with background color
+			int c = 0;
+			if (!transparency) {
+				c = lastBgColor;
+			}
+			for (int i = 0; i < lrh; i++) {
+				int n1 = (lry + i) * width + lrx;
+				int n2 = n1 + lrw;
+				for (int k = n1; k < n2; k++) {
+					dest[k] = c;
+				}
+			}
+		}
+		return dest;
 	}
 
 	/**
@@ -225,6 +299,7 @@ public class GifDecoder {
 	 * @return read status code (0 = no errors)
 	 */
 	public int read(InputStream is) {
+		sink = null;
 		init();
 		if (is != null) {
 			in = is;
@@ -245,6 +320,35 @@ public class GifDecoder {
 		return status;
 	}
 
+	/**
+	 * Reads GIF image from stream, passing each frame to the sink as it is decoded. Only three
+	 * frames of pixel data are held in memory at once, regardless of the length of the animation.
+	 * The stream is not closed.
+	 *
+	 * @return read status code (0 = no errors)
+	 */
+	public int readStreaming(InputStream is, FrameSink frameSink) {
+		sink = frameSink;
+		sinkStopped = false;
+		init();
+		lastDispose = 0;
+		dispose = 0;
+		transparency = false;
+		delay = 0;
+		in = is;
+		readHeader();
+		if (!err()) {
+			if (pixelHistory == null || pixelHistory[0].length != width * height) {
+				pixelHistory = new int[3][width * height];
+			}
+			readContents();
+			if (frameCount < 0) {
+				status = STATUS_FORMAT_ERROR;
+			}
+		}
+		return status;
+	}
+
 	/**
 	 * Decodes LZW image data into pixel array. Adapted from John Cristy's BitmapMagick.
 	 */
@@ -466,7 +570,7 @@ public class GifDecoder {
 	protected void readContents() {
 		// read GIF file content blocks
 		boolean done = false;
-		while (!(done || err())) {
+		while (!(done || err() || sinkStopped)) {
 			int code = read();
 			switch (code) {
 				case 0x2C: // image separator
@@ -587,10 +691,19 @@ public class GifDecoder {
 		}
 		frameCount++;
 		// create new image to receive frame data
-		image = Bitmap.createBitmap(width, height, Config.ARGB_4444);
+		if (sink == null) {
+			image = Bitmap.createBitmap(width, height, Config.ARGB_4444);
+		}
 		setPixels(); // transfer pixel data to image
-		frames.addElement(new GifFrame(image, delay)); // add image to frame
-		// list
+		if (sink != null) {
+			if (!sinkStopped) {
+				sinkStopped = !sink.onFrame(image, delay);
+			}
+			image = null;
+		} else {
+			frames.addElement(new GifFrame(image, delay)); // add image to frame
+			// list
+		}
 		if (transparency) {
 			act[transIndex] = save;
 		}
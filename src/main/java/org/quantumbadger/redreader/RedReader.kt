@@ -22,8 +22,8 @@ import android.content.Context
 import android.os.Process
 import android.util.Log
 import org.quantumbadger.redreader.cache.CacheManager
-import org.quantumbadger.redreader.common.Alarms
 import org.quantumbadger.redreader.common.AndroidCommon
+import org.quantumbadger.redreader.common.BackgroundJobs
 import org.quantumbadger.redreader.common.Fonts
 import org.quantumbadger.redreader.common.GlobalConfig
 import org.quantumbadger.redreader.common.GlobalExceptionHandler
@@ -82,7 +82,7 @@ class RedReader : Application() {
             }
         }.start()
 
-		Alarms.onBoot(this)
+		BackgroundJobs.scheduleAll(this)
         AnnouncementDownloader.performDownload(this)
         NewMessageChecker.checkForNewMessages(this)
     }
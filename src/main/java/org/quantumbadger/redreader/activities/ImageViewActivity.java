@@ -21,10 +21,15 @@ import android.content.Intent;
 import android.content.res.Configuration;
 import android.graphics.BitmapFactory;
 import android.graphics.Color;
+import android.graphics.ImageDecoder;
 import android.graphics.Movie;
+import android.graphics.drawable.AnimatedImageDrawable;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.opengl.GLSurfaceView;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -43,6 +48,7 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.OptIn;
+import androidx.annotation.RequiresApi;
 import androidx.annotation.StringRes;
 import androidx.annotation.UiThread;
 import androidx.core.content.IntentCompat;
@@ -65,6 +71,7 @@ import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.GenericFactory;
 import org.quantumbadger.redreader.common.LinkHandler;
+import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
@@ -82,6 +89,7 @@ import org.quantumbadger.redreader.reddit.kthings.RedditPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditPreparedPost;
 import org.quantumbadger.redreader.reddit.url.PostCommentListingURL;
+import org.quantumbadger.redreader.views.AnimatedGifView;
 import org.quantumbadger.redreader.views.GIFView;
 import org.quantumbadger.redreader.views.HorizontalSwipeProgressOverlay;
 import org.quantumbadger.redreader.views.RedditPostView;
@@ -97,8 +105,10 @@ import org.quantumbadger.redreader.views.video.ExoPlayerSeekableInputStreamDataS
 import org.quantumbadger.redreader.views.video.ExoPlayerSeekableInputStreamDataSourceFactory;
 import org.quantumbadger.redreader.views.video.ExoPlayerWrapperView;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.UUID;
@@ -111,6 +121,14 @@ public class ImageViewActivity extends ViewsBaseActivity
 
 	private static final String TAG = "ImageViewActivity";
 
+	// GIFs larger than this are played back as video where possible, and are never decoded
+	// in full into memory
+	private static final long LARGE_GIF_THRESHOLD_BYTES = 4 * 1024 * 1024;
+
+	// How long to wait for a GIF to be written to the cache once it has downloaded, before
+	// decoding it from memory instead
+	private static final long GIF_CACHE_FILE_WAIT_MS = 5000;
+
 	private TextView mProgressText;
 
 	private GLSurfaceView surfaceView;
@@ -128,6 +146,12 @@ public class ImageViewActivity extends ViewsBaseActivity
 	@Nullable private CacheRequest mImageOrVideoRequest;
 	@Nullable private CacheRequest mAudioRequest;
 
+	// Set once a GIF has been downloaded and written to the cache
+	private final Object mGifCacheFileLock = new Object();
+	@Nullable private CacheManager.ReadableCacheFile mGifCacheFile;
+	private boolean mGifCacheFileFailed = false;
+	private long mGifDownloadCompleteTime = -1;
+
 	private boolean mHaveReverted = false;
 
 	private ImageViewDisplayListManager mImageViewDisplayerManager;
@@ -289,7 +313,7 @@ public class ImageViewActivity extends ViewsBaseActivity
 						final UriString audioUri = info.urlAudioStream == null
 								? null
 								: info.urlAudioStream;
-						openImage(progressBar, info.original.url, audioUri);
+						openImage(progressBar, chooseMediaUrl(info), audioUri);
 					}
 
 					@Override
@@ -532,7 +556,25 @@ public class ImageViewActivity extends ViewsBaseActivity
 				}
 
 				if(gifViewMode == PrefsUtility.GifViewMode.INTERNAL_MOVIE) {
-					playGIFWithMovie(videoStream);
+
+					// Both of these need the whole file anyway
+					if(!waitForGifDownload()) {
+						return;
+					}
+
+					final Optional<File> cacheFile = getGifCacheFile();
+
+					if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+						// ImageDecoder replaces the Movie API, and decodes frames on demand
+						playGIFWithImageDecoder(cacheFile, videoStream);
+
+					} else if(!isLargeGif(cacheFile, videoStream)) {
+						// The Movie API holds the entire file and decoded canvas in memory
+						playGIFWithMovie(videoStream);
+
+					} else {
+						playGIFWithLegacyDecoder(videoStream);
+					}
 
 				} else {
 					playGIFWithLegacyDecoder(videoStream);
@@ -804,6 +846,82 @@ public class ImageViewActivity extends ViewsBaseActivity
 		}
 	}
 
+	@NonNull
+	private static UriString chooseMediaUrl(@NonNull final ImageInfo info) {
+
+		if(info.mediaType == ImageInfo.MediaType.GIF
+				&& info.videoVariant != null
+				&& (info.original.sizeBytes == null
+						|| info.original.sizeBytes > LARGE_GIF_THRESHOLD_BYTES)) {
+
+			Log.i(TAG, "Using video rendition of GIF: " + info.videoVariant.url);
+			return info.videoVariant.url;
+		}
+
+		return info.original.url;
+	}
+
+	private static boolean isLargeGif(
+			@NonNull final Optional<File> cacheFile,
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory) {
+
+		if(cacheFile.isPresent()) {
+			return cacheFile.get().length() > LARGE_GIF_THRESHOLD_BYTES;
+		}
+
+		// The download is complete, so this is the whole file
+		try(SeekableInputStream is = streamFactory.create()) {
+			return is.available() > LARGE_GIF_THRESHOLD_BYTES;
+
+		} catch(final IOException e) {
+			// If the size is unknown, don't risk running out of memory
+			return true;
+		}
+	}
+
+	// Blocks until the GIF has been downloaded, and either written to the cache or given up
+	// on (the request may not be cached, or the write may be skipped). Returns false if the
+	// request failed, or the activity was destroyed while waiting.
+	private boolean waitForGifDownload() {
+
+		synchronized(mGifCacheFileLock) {
+
+			while(mGifCacheFile == null && !mGifCacheFileFailed && !mIsDestroyed) {
+
+				final long waitMs;
+
+				if(mGifDownloadCompleteTime < 0) {
+					waitMs = 1000;
+
+				} else {
+					waitMs = mGifDownloadCompleteTime + GIF_CACHE_FILE_WAIT_MS
+							- SystemClock.uptimeMillis();
+
+					if(waitMs <= 0) {
+						Log.i(TAG, "GIF was not written to the cache, decoding from memory");
+						break;
+					}
+				}
+
+				try {
+					mGifCacheFileLock.wait(waitMs);
+				} catch(final InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			return mGifCacheFile != null || (!mGifCacheFileFailed && !mIsDestroyed);
+		}
+	}
+
+	@NonNull
+	private Optional<File> getGifCacheFile() {
+
+		synchronized(mGifCacheFileLock) {
+			return mGifCacheFile == null ? Optional.empty() : mGifCacheFile.getFile();
+		}
+	}
+
 	private void openImage(
 			final DonutProgress progressBar,
 			final UriString uri,
@@ -914,6 +1032,11 @@ public class ImageViewActivity extends ViewsBaseActivity
 							@Override
 							public void onFailure(@NonNull final RRError error) {
 
+								synchronized(mGifCacheFileLock) {
+									mGifCacheFileFailed = true;
+									mGifCacheFileLock.notifyAll();
+								}
+
 								synchronized(resultLock) {
 
 									if(!failed.getAndSet(true)) {
@@ -986,6 +1109,35 @@ public class ImageViewActivity extends ViewsBaseActivity
 									}
 								}
 							}
+
+							@Override
+							public void onDataStreamComplete(
+									@NonNull final GenericFactory<SeekableInputStream, IOException>
+											streamFactory,
+									final TimestampUTC timestamp,
+									@NonNull final UUID session,
+									final boolean fromCache,
+									@Nullable final String mimetype) {
+
+								synchronized(mGifCacheFileLock) {
+									mGifDownloadCompleteTime = SystemClock.uptimeMillis();
+									mGifCacheFileLock.notifyAll();
+								}
+							}
+
+							@Override
+							public void onCacheFileWritten(
+									@NonNull final CacheManager.ReadableCacheFile cacheFile,
+									final TimestampUTC timestamp,
+									@NonNull final UUID session,
+									final boolean fromCache,
+									@Nullable final String mimetype) {
+
+								synchronized(mGifCacheFileLock) {
+									mGifCacheFile = cacheFile;
+									mGifCacheFileLock.notifyAll();
+								}
+							}
 						})
 						.build());
 
@@ -1261,13 +1413,79 @@ public class ImageViewActivity extends ViewsBaseActivity
 		}
 	}
 
+	@RequiresApi(Build.VERSION_CODES.P)
+	private void playGIFWithImageDecoder(
+			@NonNull final Optional<File> cacheFile,
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory) {
+
+		Log.i(TAG, "Playing GIF using ImageDecoder");
+
+		final Drawable drawable;
+		final long startTimeNanos = System.nanoTime();
+
+		try {
+			final ImageDecoder.Source source;
+
+			if(cacheFile.isPresent()) {
+				source = ImageDecoder.createSource(cacheFile.get());
+
+			} else {
+				// Not in the cache, but the download is complete, so decode it from memory
+				final AtomicReference<ByteBuffer> data = new AtomicReference<>();
+
+				try(SeekableInputStream is = streamFactory.create()) {
+					is.readRemainingAsBytes((buf, offset, length)
+							-> data.set(ByteBuffer.wrap(buf, offset, length)));
+				}
+
+				source = ImageDecoder.createSource(data.get());
+			}
+
+			drawable = ImageDecoder.decodeDrawable(source);
+
+			Log.i(TAG, "GIF ready after "
+					+ (System.nanoTime() - startTimeNanos) / 1_000_000 + " ms");
+
+		} catch(final OutOfMemoryError e) {
+			General.quickToast(this, R.string.imageview_oom);
+			revertToWeb();
+			return;
+
+		} catch(final Throwable e) {
+			General.quickToast(this, R.string.imageview_invalid_gif);
+			revertToWeb();
+			return;
+		}
+
+		AndroidCommon.UI_THREAD_HANDLER.post(() -> {
+
+			if(mIsDestroyed) {
+				return;
+			}
+
+			getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+
+			imageView = new ImageView(this);
+			imageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
+			imageView.setImageDrawable(drawable);
+			setMainView(imageView);
+
+			if(drawable instanceof AnimatedImageDrawable) {
+				((AnimatedImageDrawable)drawable).start();
+			}
+
+			//noinspection ClickableViewAccessibility
+			imageView.setOnTouchListener(new BasicGestureHandler(this));
+		});
+	}
+
 	private void playGIFWithLegacyDecoder(
 			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory) {
 
 		Log.i(TAG, "Playing GIF using legacy decoder");
 
 		// The GIF decoder thread will close this itself
-		@SuppressWarnings("PMD.CloseResource") final InputStream is;
+		@SuppressWarnings("PMD.CloseResource") final SeekableInputStream is;
 		try {
 			is = streamFactory.create();
 
@@ -1290,13 +1508,17 @@ public class ImageViewActivity extends ViewsBaseActivity
 								return;
 							}
 
-							imageView = new ImageView(ImageViewActivity.this);
-							imageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
-							setMainView(imageView);
-							gifThread.setView(imageView);
+							getWindow().addFlags(
+									WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+
+							final AnimatedGifView gifView = new AnimatedGifView(
+									ImageViewActivity.this,
+									gifThread.getBuffer());
+
+							setMainView(gifView);
 
 							//noinspection ClickableViewAccessibility
-							imageView.setOnTouchListener(new BasicGestureHandler(
+							gifView.setOnTouchListener(new BasicGestureHandler(
 									ImageViewActivity.this));
 						});
 					}
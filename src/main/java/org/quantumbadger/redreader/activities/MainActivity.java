@@ -242,6 +242,11 @@ public class MainActivity extends RefreshableActivity
 	protected void onDestroy() {
 		super.onDestroy();
 
+		// Don't carry on loading pages ahead of a listing which can no longer be seen
+		if(postListingFragment != null) {
+			postListingFragment.cancel();
+		}
+
 		final RedditSubredditSubscriptionManager.ListenerContext listenerContext
 				= mSubredditSubscriptionListenerContext.get();
 
@@ -167,6 +167,11 @@ public class PostListingActivity extends RefreshableActivity
 	protected void onDestroy() {
 		super.onDestroy();
 
+		// Don't carry on loading pages ahead of a listing which can no longer be seen
+		if(fragment != null) {
+			fragment.cancel();
+		}
+
 		final RedditSubredditSubscriptionManager.ListenerContext listenerContext
 				= mSubredditSubscriptionListenerContext.get();
 
@@ -17,8 +17,12 @@
 
 package org.quantumbadger.redreader.cache;
 
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 
+import org.quantumbadger.redreader.common.Constants;
+
 public enum CacheCompressionType {
 
 	NONE(0),
@@ -41,4 +45,32 @@ public enum CacheCompressionType {
 
 		throw new RuntimeException("Unknown compression type " + databaseId);
 	}
+
+	@NonNull
+	public static CacheCompressionType forFileType(final int fileType) {
+
+		switch(fileType) {
+			case Constants.FileType.CAPTCHA:
+			case Constants.FileType.IMAGE:
+			case Constants.FileType.INLINE_IMAGE_PREVIEW:
+			case Constants.FileType.NOCACHE:
+			case Constants.FileType.THUMBNAIL:
+				// Image saving/sharing relies the file on disk being "raw"
+				return NONE;
+
+			case Constants.FileType.COMMENT_LIST:
+			case Constants.FileType.IMAGE_INFO:
+			case Constants.FileType.INBOX_LIST:
+			case Constants.FileType.MULTIREDDIT_LIST:
+			case Constants.FileType.POST_LIST:
+			case Constants.FileType.SUBREDDIT_ABOUT:
+			case Constants.FileType.SUBREDDIT_LIST:
+			case Constants.FileType.USER_ABOUT:
+				return ZSTD;
+
+			default:
+				Log.e("CacheCompressionType", "Unhandled filetype: " + fileType);
+				return NONE;
+		}
+	}
 }
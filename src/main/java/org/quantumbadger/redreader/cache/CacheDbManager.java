@@ -22,6 +22,7 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -345,6 +346,97 @@ final class CacheDbManager extends SQLiteOpenHelper {
 		return filesToDelete;
 	}
 
+	/**
+	 * @return A map from entry ID to file type, for all complete entries stored without
+	 * compression.
+	 */
+	synchronized HashMap<Long, Integer> getUncompressedFiles() {
+
+		final SQLiteDatabase db = this.getReadableDatabase();
+
+		try(Cursor cursor = db.query(
+				TABLE,
+				new String[] {FIELD_ID, FIELD_TYPE},
+				String.format(
+						Locale.US,
+						"%s=%d AND %s=%d",
+						FIELD_STATUS,
+						STATUS_DONE,
+						FIELD_COMPRESSION_TYPE,
+						CacheCompressionType.NONE.databaseId),
+				null,
+				null,
+				null,
+				null)) {
+
+			final HashMap<Long, Integer> result = new HashMap<>(32);
+
+			while(cursor.moveToNext()) {
+				result.put(cursor.getLong(0), cursor.getInt(1));
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * Creates a new entry with the same URL, user, session, timestamp and file type as an
+	 * existing one, but with different file data. The existing entry is replaced.
+	 *
+	 * The new entry must be marked as done using setEntryDone() once the file is in place.
+	 *
+	 * @return The ID of the new entry, or -1 if the existing entry no longer exists.
+	 */
+	synchronized long replaceEntryData(
+			final long existingId,
+			@NonNull final CacheCompressionType compressionType,
+			final long lengthCompressed,
+			final long lengthUncompressed) {
+
+		final SQLiteDatabase db = this.getWritableDatabase();
+
+		final String columns = String.format(
+				"%s, %s, %s, %s, %s, %s",
+				FIELD_URL,
+				FIELD_USER,
+				FIELD_SESSION,
+				FIELD_TIMESTAMP,
+				FIELD_TYPE,
+				FIELD_MIMETYPE);
+
+		try(SQLiteStatement statement = db.compileStatement(String.format(
+				Locale.US,
+				"INSERT INTO %s (%s, %s, %s, %s, %s) SELECT %s, %d, ?, ?, ? FROM %s WHERE %s=?",
+				TABLE,
+				columns,
+				FIELD_STATUS,
+				FIELD_COMPRESSION_TYPE,
+				FIELD_LENGTH_COMPRESSED,
+				FIELD_LENGTH_UNCOMPRESSED,
+				columns,
+				STATUS_MOVING,
+				TABLE,
+				FIELD_ID))) {
+
+			statement.bindLong(1, compressionType.databaseId);
+			statement.bindLong(2, lengthCompressed);
+			statement.bindLong(3, lengthUncompressed);
+			statement.bindLong(4, existingId);
+
+			return statement.executeInsert();
+		}
+	}
+
+	/**
+	 * Rebuilds the database file to release free pages, and refreshes the query planner
+	 * statistics.
+	 */
+	synchronized void vacuum() {
+		final SQLiteDatabase db = this.getWritableDatabase();
+		db.execSQL("VACUUM");
+		db.execSQL("ANALYZE");
+	}
+
 	public synchronized void emptyTheWholeCache() {
 		final SQLiteDatabase db = this.getWritableDatabase();
 		db.execSQL(String.format(Locale.US, "DELETE FROM %s", TABLE));
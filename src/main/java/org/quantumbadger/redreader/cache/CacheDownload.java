@@ -23,7 +23,6 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.quantumbadger.redreader.activities.BugReportActivity;
-import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.PrioritisedCachedThreadPool;
@@ -215,14 +214,22 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 
 					int bytesRead;
 					long totalBytesRead = 0;
+					long bytesAtLastProgress = 0;
 
-					while((bytesRead = tryReadFully(is, buf)) > 0) {
+					// Each chunk is passed on as soon as it arrives, so that anything reading
+					// the stream from onDataStreamAvailable() can parse it during the download
+					while((bytesRead = is.read(buf)) > 0) {
 
 						totalBytesRead += bytesRead;
 
 						stream.writeBytes(buf, 0, bytesRead);
 
-						if(bodyBytes != null) {
+						if(bodyBytes != null
+								&& (totalBytesRead - bytesAtLastProgress >= buf.length
+										|| totalBytesRead >= bodyBytes)) {
+
+							bytesAtLastProgress = totalBytesRead;
+
 							mInitiator.notifyProgress(
 									false,
 									totalBytesRead,
@@ -271,33 +278,8 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 
 					@NonNull final CacheManager.WritableCacheFile writableCacheFile;
 
-					final CacheCompressionType cacheCompressionType;
-
-					switch(mInitiator.fileType) {
-						case Constants.FileType.CAPTCHA:
-						case Constants.FileType.IMAGE:
-						case Constants.FileType.INLINE_IMAGE_PREVIEW:
-						case Constants.FileType.NOCACHE:
-						case Constants.FileType.THUMBNAIL:
-							// Image saving/sharing relies the file on disk being "raw"
-							cacheCompressionType = CacheCompressionType.NONE;
-							break;
-
-						case Constants.FileType.COMMENT_LIST:
-						case Constants.FileType.IMAGE_INFO:
-						case Constants.FileType.INBOX_LIST:
-						case Constants.FileType.MULTIREDDIT_LIST:
-						case Constants.FileType.POST_LIST:
-						case Constants.FileType.SUBREDDIT_ABOUT:
-						case Constants.FileType.SUBREDDIT_LIST:
-						case Constants.FileType.USER_ABOUT:
-							cacheCompressionType = CacheCompressionType.ZSTD;
-							break;
-
-						default:
-							Log.e(TAG, "Unhandled filetype: " + mInitiator.fileType);
-							cacheCompressionType = CacheCompressionType.NONE;
-					}
+					final CacheCompressionType cacheCompressionType
+							= CacheCompressionType.forFileType(mInitiator.fileType);
 
 					try {
 						writableCacheFile = manager.openNewCacheFile(
@@ -365,32 +347,11 @@ public final class CacheDownload extends PrioritisedCachedThreadPool.Task {
 	@NonNull
 	@Override
 	public Priority getPriority() {
-		return mInitiator.priority;
+		return mInitiator.getPriority();
 	}
 
 	@Override
 	public void run() {
 		doDownload();
 	}
-
-	private static int tryReadFully(
-			final InputStream src,
-			final byte[] dst
-	) throws IOException {
-		int totalBytesRead = 0;
-
-		while(true) {
-			final int bytesRead = src.read(dst, totalBytesRead, dst.length - totalBytesRead);
-
-			if (bytesRead <= 0) {
-				return totalBytesRead;
-			}
-
-			totalBytesRead += bytesRead;
-
-			if (totalBytesRead >= dst.length) {
-				return totalBytesRead;
-			}
-		}
-	}
 }
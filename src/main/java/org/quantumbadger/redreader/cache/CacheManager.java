@@ -20,10 +20,14 @@ package org.quantumbadger.redreader.cache;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.net.Uri;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.StructStat;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
 import com.github.luben.zstd.Zstd;
 import com.github.luben.zstd.ZstdInputStream;
@@ -33,15 +37,20 @@ import org.quantumbadger.redreader.activities.BugReportActivity;
 import org.quantumbadger.redreader.common.FileUtils;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.GenericFactory;
+import org.quantumbadger.redreader.common.HexUtils;
 import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.PrefsUtility;
 import org.quantumbadger.redreader.common.PrioritisedCachedThreadPool;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.common.datastream.MemoryDataStream;
-import org.quantumbadger.redreader.common.datastream.SeekableFileInputStream;
 import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+import org.quantumbadger.redreader.common.datastream.SeekableMappedFileInputStream;
 import org.quantumbadger.redreader.common.time.TimeDuration;
+import org.quantumbadger.redreader.common.time.TimestampUTC;
+import org.quantumbadger.redreader.image.ImageInfoCache;
+import org.quantumbadger.redreader.image.ThumbnailDiskCache;
+import org.quantumbadger.redreader.reddit.PreparedCommentListingCache;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -50,11 +59,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.PriorityBlockingQueue;
@@ -67,6 +79,16 @@ public final class CacheManager {
 	private static final String ext = ".rr_cache_data";
 	private static final String tempExt = ".rr_cache_data_tmp";
 
+	private static final int ZSTD_LEVEL = 3;
+
+	// Younger temp files may belong to a download which is still in progress
+	private static final TimeDuration TEMP_FILE_MIN_AGE = TimeDuration.hours(1);
+
+	private static final long MAX_RECOMPRESS_LENGTH = 16 * 1024 * 1024;
+
+	// Smaller files occupy a single filesystem block, so there's nothing to gain by linking them
+	private static final long MIN_DEDUPLICATE_LENGTH = 4096;
+
 	private static final AtomicBoolean isAlreadyInitialized = new AtomicBoolean(false);
 	private final CacheDbManager dbManager;
 
@@ -147,21 +169,56 @@ public final class CacheManager {
 		}
 	}
 
-	private static void pruneTemp(final File dir) {
+	private void getCacheFiles(final File dir, final ArrayList<File> files) {
 
-		final String[] list = dir.list();
+		final File[] list = dir.listFiles();
 		if(list == null) {
 			return;
 		}
 
-		for(final String file : list) {
+		for(final File file : list) {
+
+			if(file.isDirectory()) {
+				getCacheFiles(file, files);
 
-			if(file.endsWith(tempExt)) {
-				new File(dir, file).delete();
+			} else if(isCacheFile(file) != null) {
+				files.add(file);
 			}
 		}
 	}
 
+	/**
+	 * @return The number of bytes freed
+	 */
+	private static long pruneTemp(final File dir, final long modifiedBeforeMs) {
+
+		final String[] list = dir.list();
+		if(list == null) {
+			return 0;
+		}
+
+		long bytesFreed = 0;
+
+		for(final String filename : list) {
+
+			if(filename.endsWith(tempExt)) {
+
+				final File file = new File(dir, filename);
+
+				if(file.lastModified() < modifiedBeforeMs) {
+
+					final long length = file.length();
+
+					if(file.delete()) {
+						bytesFreed += length;
+					}
+				}
+			}
+		}
+
+		return bytesFreed;
+	}
+
 	@NonNull
 	public static ArrayList<File> getCacheDirs(final Context context) {
 
@@ -181,12 +238,15 @@ public final class CacheManager {
 	public void pruneTemp() {
 		final List<File> dirs = getCacheDirs(context);
 		for(final File dir : dirs) {
-			pruneTemp(dir);
+			pruneTemp(dir, Long.MAX_VALUE);
 		}
 	}
 
-	public synchronized void pruneCache() {
-		pruneCache(PrefsUtility.pref_cache_maxage());
+	/**
+	 * @return The number of files deleted
+	 */
+	public synchronized int pruneCache() {
+		return pruneCache(PrefsUtility.pref_cache_maxage());
 	}
 
 	public synchronized void pruneCache(
@@ -203,6 +263,18 @@ public final class CacheManager {
 
 		*May not clear everything if system time shenanigans have occurred.*/
 
+		if(clearListings) {
+			PreparedCommentListingCache.getInstance(context).clear();
+		}
+
+		if(clearThumbnails) {
+			ThumbnailDiskCache.getInstance(context).clear();
+		}
+
+		if(clearImages) {
+			ImageInfoCache.getInstance(context).clear();
+		}
+
 		final TimeDuration clearEverything = TimeDuration.secs(0);
 		final TimeDuration clearNothing = TimeDuration.days(365 * 10);
 
@@ -213,39 +285,332 @@ public final class CacheManager {
 		));
 	}
 
-	public synchronized void pruneCache(final HashMap<Integer, TimeDuration> maxAge) {
+	public synchronized int pruneCache(final HashMap<Integer, TimeDuration> maxAge) {
 
 		try {
+			final CompactionResult result = new CompactionResult();
+			pruneCache(maxAge, result);
+			return result.mPrunedFiles;
 
-			final HashSet<Long> currentFiles = new HashSet<>(1024);
+		} catch(final Throwable t) {
+			BugReportActivity.handleGlobalError(context, t);
+			return 0;
+		}
+	}
 
-			final List<File> dirs = getCacheDirs(context);
-			for(final File dir : dirs) {
-				getCacheFileList(dir, currentFiles);
-			}
+	private void pruneCache(
+			final HashMap<Integer, TimeDuration> maxAge,
+			@NonNull final CompactionResult result) {
+
+		final HashSet<Long> currentFiles = new HashSet<>(1024);
+
+		final List<File> dirs = getCacheDirs(context);
+		for(final File dir : dirs) {
+			getCacheFileList(dir, currentFiles);
+		}
 
-			final ArrayList<Long> filesToDelete = dbManager.getFilesToPrune(
-					currentFiles,
-					maxAge,
-					TimeDuration.hours(72));
+		final ArrayList<Long> filesToDelete = dbManager.getFilesToPrune(
+				currentFiles,
+				maxAge,
+				TimeDuration.hours(72));
 
-			Log.i("CacheManager", "Pruning " + filesToDelete.size() + " files");
+		Log.i("CacheManager", "Pruning " + filesToDelete.size() + " files");
 
-			for(final long id : filesToDelete) {
-				final File file = getExistingCacheFile(id);
-				if(file != null) {
-					file.delete();
+		for(final long id : filesToDelete) {
+			final File file = getExistingCacheFile(id);
+			if(file != null) {
+				final long length = file.length();
+				if(file.delete()) {
+					result.mPrunedBytes += length;
 				}
 			}
+		}
+
+		result.mPrunedFiles += filesToDelete.size();
+	}
+
+	public static final class CompactionResult {
+
+		private long mTempBytes;
+		private int mPrunedFiles;
+		private long mPrunedBytes;
+		private int mRecompressedFiles;
+		private long mRecompressedBytes;
+		private int mLinkedFiles;
+		private long mLinkedBytes;
+		private long mDatabaseBytes;
+
+		public long getBytesReclaimed() {
+			return mTempBytes + mPrunedBytes + mRecompressedBytes + mLinkedBytes + mDatabaseBytes;
+		}
+
+		@NonNull
+		@Override
+		public String toString() {
+			return String.format(
+					Locale.US,
+					"reclaimed %d bytes (temp files %d, pruned %d files/%d bytes, "
+							+ "recompressed %d files/%d bytes, linked %d duplicates/%d bytes, "
+							+ "database %d bytes)",
+					getBytesReclaimed(),
+					mTempBytes,
+					mPrunedFiles,
+					mPrunedBytes,
+					mRecompressedFiles,
+					mRecompressedBytes,
+					mLinkedFiles,
+					mLinkedBytes,
+					mDatabaseBytes);
+		}
+	}
+
+	/**
+	 * Does everything pruneCache() does, and then shrinks what's left: old uncompressed
+	 * listings are recompressed, identical files are hard linked together, and the index is
+	 * vacuumed. This is slow, so should only be run while the device is idle.
+	 *
+	 * This is the only place duplicate content is collapsed. Writes are not hashed, and there
+	 * is no shared blob store, so a duplicate takes up space until the next compaction.
+	 *
+	 * Files are read, hashed and compressed without holding the manager's lock, which is only
+	 * taken to swap each entry, so requests carry on as normal during a compaction.
+	 */
+	@WorkerThread
+	@NonNull
+	public CompactionResult compact() {
+
+		final CompactionResult result = new CompactionResult();
+
+		try {
+			final long tempCutoff = TimestampUTC.now().subtract(TEMP_FILE_MIN_AGE).toUtcMs();
+
+			for(final File dir : getCacheDirs(context)) {
+				result.mTempBytes += pruneTemp(dir, tempCutoff);
+			}
+
+			synchronized(this) {
+				pruneCache(PrefsUtility.pref_cache_maxage(), result);
+			}
+
+			recompressEntries(result);
+
+			for(final File dir : getCacheDirs(context)) {
+				deduplicateFiles(dir, result);
+			}
+
+			final File dbFile = context.getDatabasePath(dbManager.getDatabaseName());
+			final long dbLengthBefore = dbFile.length();
+			dbManager.vacuum();
+			result.mDatabaseBytes = dbLengthBefore - dbFile.length();
 
 		} catch(final Throwable t) {
-			BugReportActivity.handleGlobalError(context, t);
+			Log.e(TAG, "Cache compaction failed", t);
 		}
 
+		return result;
+	}
+
+	// Entries written before compression was introduced are stored raw
+	private void recompressEntries(@NonNull final CompactionResult result) {
+
+		final HashMap<Long, Integer> uncompressed = dbManager.getUncompressedFiles();
+		final File location = getPreferredCacheLocation();
+
+		for(final Map.Entry<Long, Integer> entry : uncompressed.entrySet()) {
+
+			final long id = entry.getKey();
+
+			if(CacheCompressionType.forFileType(entry.getValue()) != CacheCompressionType.ZSTD) {
+				continue;
+			}
+
+			final File oldFile = getExistingCacheFile(id);
+
+			if(oldFile == null || oldFile.length() > MAX_RECOMPRESS_LENGTH) {
+				continue;
+			}
+
+			final File tmpFile = new File(location, UUID.randomUUID().toString() + tempExt);
+
+			try {
+				final byte[] data;
+
+				try(InputStream is = new FileInputStream(oldFile)) {
+					data = General.readWholeStream(is);
+				}
+
+				final byte[] compressed = Zstd.compress(data, ZSTD_LEVEL);
+
+				if(compressed.length >= data.length) {
+					continue;
+				}
+
+				try(OutputStream os = new FileOutputStream(tmpFile)) {
+					os.write(compressed);
+				}
+
+				final boolean deleted;
+
+				synchronized(this) {
+
+					// A new ID is used so that readers holding the old entry never see the
+					// new data
+					final long newId = dbManager.replaceEntryData(
+							id,
+							CacheCompressionType.ZSTD,
+							compressed.length,
+							data.length);
+
+					if(newId < 0) {
+						tmpFile.delete();
+						continue;
+					}
+
+					final File subdir = getSubdirForCacheFile(location, newId);
+					FileUtils.mkdirs(subdir);
+					FileUtils.moveFile(tmpFile, new File(subdir, newId + ext));
+
+					dbManager.setEntryDone(newId);
+
+					deleted = oldFile.delete();
+				}
+
+				if(deleted) {
+					result.mRecompressedFiles++;
+					result.mRecompressedBytes += data.length - compressed.length;
+				}
+
+			} catch(final IOException e) {
+				Log.e(TAG, "Failed to recompress cache file " + id, e);
+				tmpFile.delete();
+			}
+		}
+	}
+
+	// Identical files (such as the same image downloaded by two accounts) are replaced with
+	// hard links to a single copy. Deleting either entry later leaves the other intact.
+	private void deduplicateFiles(
+			@NonNull final File cacheRoot,
+			@NonNull final CompactionResult result) throws NoSuchAlgorithmException {
+
+		final ArrayList<File> files = new ArrayList<>(1024);
+		getCacheFiles(cacheRoot, files);
+
+		final HashMap<Long, ArrayList<File>> filesByLength = new HashMap<>();
+
+		for(final File file : files) {
+
+			final long length = file.length();
+
+			if(length < MIN_DEDUPLICATE_LENGTH) {
+				continue;
+			}
+
+			ArrayList<File> sameLength = filesByLength.get(length);
+
+			if(sameLength == null) {
+				sameLength = new ArrayList<>(1);
+				filesByLength.put(length, sameLength);
+			}
+
+			sameLength.add(file);
+		}
+
+		final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		final byte[] buf = new byte[64 * 1024];
+
+		for(final Map.Entry<Long, ArrayList<File>> group : filesByLength.entrySet()) {
+
+			if(group.getValue().size() < 2) {
+				continue;
+			}
+
+			final HashMap<String, File> filesByHash = new HashMap<>();
+
+			for(final File file : group.getValue()) {
+
+				final String hash;
+
+				try(InputStream is = new FileInputStream(file)) {
+
+					digest.reset();
+
+					int bytesRead;
+					while((bytesRead = is.read(buf)) > 0) {
+						digest.update(buf, 0, bytesRead);
+					}
+
+					hash = HexUtils.toHex(digest.digest());
+
+				} catch(final IOException e) {
+					Log.e(TAG, "Failed to hash cache file " + file, e);
+					continue;
+				}
+
+				final File original = filesByHash.get(hash);
+
+				if(original == null) {
+					filesByHash.put(hash, file);
+
+				} else {
+
+					try {
+						final boolean linked;
+
+						synchronized(this) {
+							linked = linkDuplicate(cacheRoot, original, file);
+						}
+
+						if(linked) {
+							result.mLinkedFiles++;
+							result.mLinkedBytes += group.getKey();
+						}
+
+					} catch(final ErrnoException e) {
+						// Not all filesystems support hard links
+						Log.e(TAG, "Failed to link duplicate cache file " + file, e);
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return True if the duplicate was replaced, and its storage freed
+	 */
+	private static boolean linkDuplicate(
+			@NonNull final File cacheRoot,
+			@NonNull final File original,
+			@NonNull final File duplicate) throws ErrnoException {
+
+		final StructStat originalStat = Os.stat(original.getPath());
+		final StructStat duplicateStat = Os.stat(duplicate.getPath());
+
+		if(originalStat.st_dev != duplicateStat.st_dev
+				|| originalStat.st_ino == duplicateStat.st_ino) {
+			return false;
+		}
+
+		final File tmpLink = new File(cacheRoot, UUID.randomUUID().toString() + tempExt);
+
+		try {
+			Os.link(original.getPath(), tmpLink.getPath());
+			Os.rename(tmpLink.getPath(), duplicate.getPath());
+
+		} catch(final ErrnoException e) {
+			tmpLink.delete();
+			throw e;
+		}
+
+		return duplicateStat.st_nlink == 1;
 	}
 
 	public synchronized void emptyTheWholeCache() {
 		dbManager.emptyTheWholeCache();
+		ThumbnailDiskCache.getInstance(context).clear();
+		PreparedCommentListingCache.getInstance(context).clear();
+		ImageInfoCache.getInstance(context).clear();
 	}
 
 	public synchronized HashMap<Integer, Long> getCacheDataUsages() {
@@ -281,9 +646,26 @@ public final class CacheManager {
 	}
 
 	public void makeRequest(@NonNull final CacheRequest request) {
+
+		// Precache requests for items which have already been scrolled past are not made
+		if(!request.register()) {
+			notifyCancelled(request);
+			return;
+		}
+
 		requests.put(request);
 	}
 
+	private void notifyCancelled(@NonNull final CacheRequest request) {
+		request.notifyFailure(General.getGeneralErrorForFailure(
+				context,
+				CacheRequest.RequestFailureType.CANCELLED,
+				null,
+				null,
+				request.url,
+				Optional.empty()));
+	}
+
 	public List<CacheEntry> getSessions(final UriString url, final RedditAccount user) {
 		return dbManager.select(url, user.username, null);
 	}
@@ -371,7 +753,7 @@ public final class CacheManager {
 						buf,
 						offset,
 						length,
-						3);
+						ZSTD_LEVEL);
 
 				mOutStream.write(dst, 0, size);
 
@@ -557,7 +939,7 @@ public final class CacheManager {
 		}
 
 		if(cacheCompressionType == CacheCompressionType.NONE) {
-			return new SeekableFileInputStream(cacheFile);
+			return SeekableMappedFileInputStream.open(cacheFile);
 
 		} else if(cacheCompressionType == CacheCompressionType.ZSTD) {
 
@@ -616,6 +998,11 @@ public final class CacheManager {
 				return;
 			}
 
+			if(request.isCancelled()) {
+				notifyCancelled(request);
+				return;
+			}
+
 			if(request.downloadStrategy.shouldDownloadWithoutCheckingCache()) {
 				queueDownload(request);
 
@@ -709,7 +1096,7 @@ public final class CacheManager {
 				@NonNull
 				@Override
 				public Priority getPriority() {
-					return request.priority;
+					return request.getPriority();
 				}
 
 				@Override
@@ -98,6 +98,22 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 
 	private final CacheRequestCallbacks mCallbacks;
 
+	@Nullable private final PrecacheScheduler mPrecacheScheduler;
+	private final int mPrecachePosition;
+
+	private static final class RankedPriority {
+
+		final int visibleRangeVersion;
+		@NonNull final Priority priority;
+
+		RankedPriority(final int visibleRangeVersion, @NonNull final Priority priority) {
+			this.visibleRangeVersion = visibleRangeVersion;
+			this.priority = priority;
+		}
+	}
+
+	@Nullable private volatile RankedPriority mRankedPriority;
+
 	// Called by CacheDownload
 	synchronized boolean setDownload(final CacheDownload download) {
 		if(cancelled) {
@@ -107,6 +123,10 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 		return true;
 	}
 
+	synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
 	// Can be called to cancel the request
 	public synchronized void cancel() {
 
@@ -132,6 +152,8 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 		this.requestMethod = builder.requestMethod;
 		this.requestBody = Optional.ofNullable(builder.requestBody);
 		this.cache = (builder.requestBody == null) && builder.cache;
+		this.mPrecacheScheduler = builder.precacheScheduler;
+		this.mPrecachePosition = builder.precachePosition;
 
 		if(url == null) {
 			notifyFailure(General.getGeneralErrorForFailure(
@@ -147,6 +169,44 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 
 	// Queue helpers
 
+	// Called by CacheManager when the request is made. Returns false if the request is a
+	// precache for an item which is no longer wanted.
+	boolean register() {
+		return mPrecacheScheduler == null
+				|| mPrecacheScheduler.register(this, mPrecachePosition);
+	}
+
+	// Precache requests are re-ranked as the listing scrolls, so this may differ from the
+	// priority the request was created with. Only queues which scan for the highest priority
+	// task when dequeuing (the download queues and the disk cache pool) may use this. The
+	// result is kept until the visible range changes, as they call it on every comparison.
+	@NonNull
+	public Priority getPriority() {
+
+		if(mPrecacheScheduler == null) {
+			return priority;
+		}
+
+		final int version = mPrecacheScheduler.getVisibleRangeVersion();
+		final RankedPriority ranked = mRankedPriority;
+
+		if(ranked != null && ranked.visibleRangeVersion == version) {
+			return ranked.priority;
+		}
+
+		final Priority result = mPrecacheScheduler.getPriority(priority, mPrecachePosition);
+		mRankedPriority = new RankedPriority(version, result);
+		return result;
+	}
+
+	private void onFinished() {
+		if(mPrecacheScheduler != null) {
+			mPrecacheScheduler.unregister(this);
+		}
+	}
+
+	// Used by CacheManager's request heap, so this must not change while the request is
+	// queued. It uses the priority the request was created with, not getPriority().
 	@Override
 	public int compareTo(final CacheRequest another) {
 		return priority.isHigherPriorityThan(another.priority)
@@ -183,6 +243,8 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 
 	public void notifyFailure(@NonNull final RRError error) {
 
+		onFinished();
+
 		try {
 			mCallbacks.onFailure(error);
 
@@ -208,6 +270,9 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 			final UUID session,
 			final boolean fromCache,
 			final String mimetype) {
+
+		onFinished();
+
 		try {
 			mCallbacks.onCacheFileWritten(cacheFile, timestamp, session, fromCache, mimetype);
 		} catch(final Throwable t) {
@@ -265,6 +330,8 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 		private boolean cache;
 		private Context context;
 		private CacheRequestCallbacks callbacks;
+		@Nullable private PrecacheScheduler precacheScheduler;
+		private int precachePosition;
 
 		public Builder setUrl(final UriString url) {
 			this.url = url;
@@ -326,6 +393,14 @@ public final class CacheRequest implements Comparable<CacheRequest> {
 			return this;
 		}
 
+		public Builder setPrecacheScheduler(
+				final @NonNull PrecacheScheduler precacheScheduler,
+				final int positionInList) {
+			this.precacheScheduler = precacheScheduler;
+			this.precachePosition = positionInList;
+			return this;
+		}
+
 		public CacheRequest build() {
 			validate();
 			return new CacheRequest(this);
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.cache;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import com.fasterxml.jackson.core.JsonParser;
+
+import org.quantumbadger.redreader.common.RRError;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.common.time.TimestampUTC;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Like {@link CacheRequestJSONParser}, but decodes the response with an endpoint-specific
+ * {@link JsonResponseDecoder}, rather than building a {@link JsonValue} tree.
+ */
+public final class CacheRequestJSONDecoder<E> extends JsonCacheRequestCallbacks<E> {
+
+	public interface Listener<E> {
+
+		void onDecoded(
+				@NonNull E result,
+				TimestampUTC timestamp,
+				@NonNull UUID session,
+				boolean fromCache);
+
+		void onFailure(@NonNull RRError error);
+	}
+
+	@NonNull private final JsonResponseDecoder<E> mDecoder;
+	@NonNull private final Listener<E> mListener;
+
+	/**
+	 * @param url The URL being requested, included in any parse error
+	 */
+	public CacheRequestJSONDecoder(
+			@NonNull final Context context,
+			@NonNull final UriString url,
+			@NonNull final JsonResponseDecoder<E> decoder,
+			@NonNull final Listener<E> listener) {
+		super(context, url);
+		mDecoder = decoder;
+		mListener = listener;
+	}
+
+	@NonNull
+	@Override
+	protected String getStatsEndpoint() {
+		return mDecoder.getEndpointName();
+	}
+
+	@NonNull
+	@Override
+	protected E parse(@NonNull final InputStream is) throws IOException {
+		try(JsonParser parser = JsonValue.createParser(is)) {
+			return mDecoder.decode(parser);
+		}
+	}
+
+	@Override
+	protected void onParsed(
+			@NonNull final E result,
+			final TimestampUTC timestamp,
+			@NonNull final UUID session,
+			final boolean fromCache) {
+		mListener.onDecoded(result, timestamp, session, fromCache);
+	}
+
+	@Override
+	protected void notifyFailure(@NonNull final RRError error) {
+		mListener.onFailure(error);
+	}
+}
@@ -20,28 +20,18 @@ package org.quantumbadger.redreader.cache;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 
-import org.quantumbadger.redreader.activities.BugReportActivity;
-import org.quantumbadger.redreader.common.CachedThreadPool;
-import org.quantumbadger.redreader.common.General;
-import org.quantumbadger.redreader.common.GenericFactory;
-import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.RRError;
-import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
-import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicBoolean;
 
-public final class CacheRequestJSONParser implements CacheRequestCallbacks {
+public final class CacheRequestJSONParser extends JsonCacheRequestCallbacks<JsonValue> {
 
-	private static final CachedThreadPool mThreadPool
-			= new CachedThreadPool(5, "JSONParser");
+	private static final String STATS_ENDPOINT = "tree";
 
 	public interface Listener {
 
@@ -58,72 +48,38 @@ public final class CacheRequestJSONParser implements CacheRequestCallbacks {
 		}
 	}
 
-	@NonNull private final Context mContext;
 	@NonNull private final Listener mListener;
 
-	private final AtomicBoolean mNotifiedFailure = new AtomicBoolean(false);
-
 	public CacheRequestJSONParser(
 			@NonNull final Context context,
 			@NonNull final Listener listener) {
-		mContext = context;
+		super(context, null);
 		mListener = listener;
 	}
 
+	@NonNull
 	@Override
-	public void onDataStreamAvailable(
-			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory,
+	protected String getStatsEndpoint() {
+		return STATS_ENDPOINT;
+	}
+
+	@NonNull
+	@Override
+	protected JsonValue parse(@NonNull final InputStream is) throws IOException {
+		return JsonValue.parse(is);
+	}
+
+	@Override
+	protected void onParsed(
+			@NonNull final JsonValue result,
 			final TimestampUTC timestamp,
 			@NonNull final UUID session,
-			final boolean fromCache,
-			@Nullable final String mimetype) {
-
-		try {
-			mThreadPool.add(() -> {
-				final JsonValue jsonValue;
-
-				try(InputStream is = streamFactory.create()) {
-					jsonValue = JsonValue.parse(is);
-
-				} catch(final IOException e) {
-					if(!mNotifiedFailure.getAndSet(true)) {
-						mListener.onFailure(General.getGeneralErrorForFailure(
-								mContext,
-								CacheRequest.RequestFailureType.PARSE,
-								e,
-								null,
-								null,
-								General.ignoreIOException(streamFactory)
-										.filter(FailedRequestBody::from)));
-					}
-					return;
-				}
-
-				try {
-					mListener.onJsonParsed(jsonValue, timestamp, session, fromCache);
-
-				} catch(final Exception e) {
-					BugReportActivity.handleGlobalError(mContext, e);
-				}
-			});
-
-		} catch(final Exception e) {
-			if(!mNotifiedFailure.getAndSet(true)) {
-				onFailure(General.getGeneralErrorForFailure(
-						mContext,
-						CacheRequest.RequestFailureType.STORAGE,
-						e,
-						null,
-						null,
-						Optional.empty()));
-			}
-		}
+			final boolean fromCache) {
+		mListener.onJsonParsed(result, timestamp, session, fromCache);
 	}
 
 	@Override
-	public void onFailure(@NonNull final RRError error) {
-		if(!mNotifiedFailure.getAndSet(true)) {
-			mListener.onFailure(error);
-		}
+	protected void notifyFailure(@NonNull final RRError error) {
+		mListener.onFailure(error);
 	}
 }
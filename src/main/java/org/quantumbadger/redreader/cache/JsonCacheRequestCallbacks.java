@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.cache;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.quantumbadger.redreader.activities.BugReportActivity;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.GenericFactory;
+import org.quantumbadger.redreader.common.Optional;
+import org.quantumbadger.redreader.common.RRError;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+import org.quantumbadger.redreader.common.time.TimestampUTC;
+import org.quantumbadger.redreader.http.FailedRequestBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parses a JSON response on a background thread, recording {@link JsonParseStats}, and
+ * reports the result or the first failure to the subclass.
+ */
+abstract class JsonCacheRequestCallbacks<E> implements CacheRequestCallbacks {
+
+	private static final CachedThreadPool mThreadPool
+			= new CachedThreadPool(5, "JSONParser");
+
+	@NonNull private final Context mContext;
+	@Nullable private final UriString mUrl;
+
+	private final AtomicBoolean mNotifiedFailure = new AtomicBoolean(false);
+
+	JsonCacheRequestCallbacks(
+			@NonNull final Context context,
+			@Nullable final UriString url) {
+		mContext = context;
+		mUrl = url;
+	}
+
+	@NonNull
+	protected abstract String getStatsEndpoint();
+
+	@NonNull
+	protected abstract E parse(@NonNull InputStream is) throws IOException;
+
+	protected abstract void onParsed(
+			@NonNull E result,
+			TimestampUTC timestamp,
+			@NonNull UUID session,
+			boolean fromCache);
+
+	protected abstract void notifyFailure(@NonNull RRError error);
+
+	@Override
+	public final void onDataStreamAvailable(
+			@NonNull final GenericFactory<SeekableInputStream, IOException> streamFactory,
+			final TimestampUTC timestamp,
+			@NonNull final UUID session,
+			final boolean fromCache,
+			@Nullable final String mimetype) {
+
+		try {
+			mThreadPool.add(() -> {
+
+				final E result;
+				final long startTime = System.nanoTime();
+
+				JsonParseStats.CountingInputStream countingStream = null;
+
+				try(InputStream is = streamFactory.create()) {
+					countingStream = new JsonParseStats.CountingInputStream(is);
+					result = parse(countingStream);
+
+				} catch(final IOException | RuntimeException e) {
+
+					JsonParseStats.getInstance().record(
+							getStatsEndpoint(),
+							countingStream == null ? 0 : countingStream.getBytesRead(),
+							(System.nanoTime() - startTime) / 1_000_000,
+							false);
+
+					onFailure(General.getGeneralErrorForFailure(
+							mContext,
+							CacheRequest.RequestFailureType.PARSE,
+							e,
+							null,
+							mUrl,
+							General.ignoreIOException(streamFactory)
+									.filter(FailedRequestBody::from)));
+					return;
+				}
+
+				JsonParseStats.getInstance().record(
+						getStatsEndpoint(),
+						countingStream.getBytesRead(),
+						(System.nanoTime() - startTime) / 1_000_000,
+						true);
+
+				try {
+					onParsed(result, timestamp, session, fromCache);
+
+				} catch(final Exception e) {
+					BugReportActivity.handleGlobalError(mContext, e);
+				}
+			});
+
+		} catch(final Exception e) {
+			onFailure(General.getGeneralErrorForFailure(
+					mContext,
+					CacheRequest.RequestFailureType.STORAGE,
+					e,
+					null,
+					mUrl,
+					Optional.empty()));
+		}
+	}
+
+	@Override
+	public final void onFailure(@NonNull final RRError error) {
+		if(!mNotifiedFailure.getAndSet(true)) {
+			notifyFailure(error);
+		}
+	}
+}
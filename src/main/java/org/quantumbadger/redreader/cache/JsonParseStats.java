@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.cache;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import org.quantumbadger.redreader.BuildConfig;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parse time and response size for each endpoint, recorded by {@link CacheRequestJSONParser}
+ * and {@link CacheRequestJSONDecoder}. In debug builds, a summary is logged periodically.
+ */
+public final class JsonParseStats {
+
+	private static final String TAG = "JsonParseStats";
+
+	private static final int LOG_INTERVAL = 50;
+
+	private static final JsonParseStats INSTANCE = new JsonParseStats();
+
+	private static final class EndpointStats {
+		int parses;
+		int failures;
+		long bytes;
+		long durationMs;
+	}
+
+	private final TreeMap<String, EndpointStats> mStats = new TreeMap<>();
+	private int mParsesSinceLog = 0;
+
+	@NonNull
+	public static JsonParseStats getInstance() {
+		return INSTANCE;
+	}
+
+	private JsonParseStats() {}
+
+	public void record(
+			@NonNull final String endpoint,
+			final long bytes,
+			final long durationMs,
+			final boolean success) {
+
+		final boolean log;
+
+		synchronized(mStats) {
+
+			EndpointStats stats = mStats.get(endpoint);
+
+			if(stats == null) {
+				stats = new EndpointStats();
+				mStats.put(endpoint, stats);
+			}
+
+			stats.parses++;
+			stats.bytes += bytes;
+			stats.durationMs += durationMs;
+
+			if(!success) {
+				stats.failures++;
+			}
+
+			mParsesSinceLog++;
+			log = mParsesSinceLog >= LOG_INTERVAL;
+
+			if(log) {
+				mParsesSinceLog = 0;
+			}
+		}
+
+		if(log && BuildConfig.DEBUG) {
+			Log.i(TAG, getSummary());
+		}
+	}
+
+	@NonNull
+	public String getSummary() {
+
+		final StringBuilder result = new StringBuilder();
+
+		synchronized(mStats) {
+			for(final Map.Entry<String, EndpointStats> entry : mStats.entrySet()) {
+
+				final EndpointStats stats = entry.getValue();
+
+				if(result.length() > 0) {
+					result.append("; ");
+				}
+
+				result.append(String.format(
+						Locale.US,
+						"%s: %d parses (%d failed), average %d bytes in %d ms",
+						entry.getKey(),
+						stats.parses,
+						stats.failures,
+						stats.bytes / stats.parses,
+						stats.durationMs / stats.parses));
+			}
+		}
+
+		return result.toString();
+	}
+
+	static final class CountingInputStream extends FilterInputStream {
+
+		private long mBytesRead = 0;
+
+		CountingInputStream(@NonNull final InputStream in) {
+			super(in);
+		}
+
+		public long getBytesRead() {
+			return mBytesRead;
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			final int result = super.read();
+
+			if(result >= 0) {
+				mBytesRead++;
+			}
+
+			return result;
+		}
+
+		@Override
+		public int read(@NonNull final byte[] b, final int off, final int len)
+				throws IOException {
+
+			final int result = super.read(b, off, len);
+
+			if(result > 0) {
+				mBytesRead += result;
+			}
+
+			return result;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final long result = super.skip(n);
+			mBytesRead += result;
+			return result;
+		}
+	}
+}
@@ -15,26 +15,26 @@
  * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
  ******************************************************************************/
 
-package org.quantumbadger.redreader.receivers;
+package org.quantumbadger.redreader.cache;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
-import android.content.Intent;
-import android.util.Log;
-import org.quantumbadger.redreader.common.Alarms;
+import androidx.annotation.NonNull;
+import com.fasterxml.jackson.core.JsonParser;
 
-public class BootReceiver extends BroadcastReceiver {
+import java.io.IOException;
 
-	@Override
-	public void onReceive(final Context context, final Intent intent) {
+/**
+ * Decodes the response from a particular endpoint straight into its final form, without
+ * building a {@link org.quantumbadger.redreader.jsonwrap.JsonValue} tree of the whole response.
+ *
+ * If the response doesn't have the expected shape, an IOException should be thrown, and the
+ * request fails with a parse error.
+ */
+public interface JsonResponseDecoder<E> {
 
-		if(intent == null || !Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
-			Log.e(
-					"BootReceiver",
-					"Got invalid intent: " + (intent == null ? "null" : intent.getAction()));
-			return;
-		}
+	// Identifies the endpoint in JsonParseStats
+	@NonNull
+	String getEndpointName();
 
-		Alarms.onBoot(context);
-	}
+	@NonNull
+	E decode(@NonNull JsonParser parser) throws IOException;
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.cache;
+
+import androidx.annotation.NonNull;
+import org.quantumbadger.redreader.common.Priority;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Ranks the precache requests made for a listing by how far each item is from the part of the
+ * listing currently on screen.
+ *
+ * Requests are queued as each page is parsed, long before they reach the front of the download
+ * queue, so ranking them by position alone means that after a fast scroll the queue still
+ * favours items the user has already passed. Instead, items just below the viewport come first,
+ * and requests for items scrolled well past are cancelled, including any download in progress.
+ */
+public final class PrecacheScheduler {
+
+	// Items just above the viewport are kept, in case the user scrolls back slightly.
+	// This also absorbs any header rows, as positions are compared with adapter positions.
+	private static final int MARGIN_BEHIND = 5;
+
+	// An item above the viewport is less likely to be opened than one the same distance below
+	private static final int WEIGHT_BEHIND = 4;
+
+	private final HashMap<CacheRequest, Integer> mPending = new HashMap<>();
+
+	private int mFirstVisible = 0;
+	private int mLastVisible = 0;
+	private boolean mCancelled = false;
+
+	// Incremented whenever the visible range changes, so that callers can cache priorities
+	private volatile int mVisibleRangeVersion = 0;
+
+	/**
+	 * @return False if the request is no longer worth making, in which case the caller
+	 * should drop it.
+	 */
+	synchronized boolean register(@NonNull final CacheRequest request, final int position) {
+
+		if(mCancelled || isScrolledPast(position)) {
+			return false;
+		}
+
+		mPending.put(request, position);
+		return true;
+	}
+
+	synchronized void unregister(@NonNull final CacheRequest request) {
+		mPending.remove(request);
+	}
+
+	/**
+	 * @return The base priority, with the secondary value replaced by the item's distance from
+	 * the visible range.
+	 */
+	@NonNull
+	public synchronized Priority getPriority(
+			@NonNull final Priority base,
+			final int position) {
+
+		final int distance;
+
+		if(position < mFirstVisible) {
+			distance = (mFirstVisible - position) * WEIGHT_BEHIND;
+		} else if(position > mLastVisible) {
+			distance = position - mLastVisible;
+		} else {
+			distance = 0;
+		}
+
+		return new Priority(base.primary, distance);
+	}
+
+	public int getVisibleRangeVersion() {
+		return mVisibleRangeVersion;
+	}
+
+	public synchronized boolean isScrolledPast(final int position) {
+		return position < mFirstVisible - MARGIN_BEHIND;
+	}
+
+	public void onVisibleRangeChanged(final int firstVisible, final int lastVisible) {
+
+		final ArrayList<CacheRequest> toCancel = new ArrayList<>();
+
+		synchronized(this) {
+
+			if(firstVisible == mFirstVisible && lastVisible == mLastVisible) {
+				return;
+			}
+
+			mFirstVisible = firstVisible;
+			mLastVisible = lastVisible;
+			mVisibleRangeVersion++;
+
+			final Iterator<Map.Entry<CacheRequest, Integer>> it
+					= mPending.entrySet().iterator();
+
+			while(it.hasNext()) {
+
+				final Map.Entry<CacheRequest, Integer> entry = it.next();
+
+				if(isScrolledPast(entry.getValue())) {
+					toCancel.add(entry.getKey());
+					it.remove();
+				}
+			}
+		}
+
+		for(final CacheRequest request : toCancel) {
+			request.cancel();
+		}
+	}
+
+	/**
+	 * Cancels all outstanding requests, and any made later. Called when the listing is closed.
+	 */
+	public void cancelAll() {
+
+		final ArrayList<CacheRequest> toCancel;
+
+		synchronized(this) {
+			mCancelled = true;
+			toCancel = new ArrayList<>(mPending.keySet());
+			mPending.clear();
+		}
+
+		for(final CacheRequest request : toCancel) {
+			request.cancel();
+		}
+	}
+}
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import android.annotation.SuppressLint;
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.quantumbadger.redreader.receivers.BackgroundJobService;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public final class BackgroundJobs {
+
+	private static final String TAG = "BackgroundJobs";
+
+	private static final String EXTRA_CONFIG = "config";
+
+	public static final String PREF_LAST_MAINTENANCE = "BackgroundJobsLastMaintenance";
+
+	// If the device is rarely idle and charging at the same time, cache maintenance is done
+	// alongside a message check instead, once it has been waiting this long
+	public static final long MAINTENANCE_OVERDUE_MS = TimeUnit.DAYS.toMillis(1);
+
+	private static final long INITIAL_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+
+	private static final int MAX_RUN_LOG_ENTRIES = 32;
+
+	private static final ArrayDeque<RunRecord> sRunLog = new ArrayDeque<>(MAX_RUN_LOG_ENTRIES);
+
+	private static final String[] LEGACY_ALARM_RECEIVERS = {
+			"org.quantumbadger.redreader.receivers.NewMessageChecker",
+			"org.quantumbadger.redreader.receivers.RegularCachePruner"
+	};
+
+	private BackgroundJobs() {}
+
+	/**
+	 * A periodic job which runs in BackgroundJobService. The ID must be unique and never
+	 * reused, as the system persists scheduled jobs across app updates.
+	 */
+	public enum Job {
+		MESSAGE_CHECK(
+				1,
+				TimeUnit.MINUTES.toMillis(30),
+				JobInfo.NETWORK_TYPE_ANY,
+				false,
+				false),
+
+		ANNOUNCEMENT_CHECK(
+				2,
+				TimeUnit.HOURS.toMillis(6),
+				JobInfo.NETWORK_TYPE_UNMETERED,
+				false,
+				false),
+
+		CACHE_MAINTENANCE(
+				3,
+				TimeUnit.HOURS.toMillis(1),
+				JobInfo.NETWORK_TYPE_NONE,
+				true,
+				true),
+
+		CACHE_COMPACTION(
+				4,
+				TimeUnit.DAYS.toMillis(1),
+				JobInfo.NETWORK_TYPE_NONE,
+				true,
+				true);
+
+		public final int id;
+		public final long intervalMs;
+		public final int networkType;
+		public final boolean requiresCharging;
+		public final boolean requiresIdle;
+
+		Job(
+				final int id,
+				final long intervalMs,
+				final int networkType,
+				final boolean requiresCharging,
+				final boolean requiresIdle) {
+
+			this.id = id;
+			this.intervalMs = intervalMs;
+			this.networkType = networkType;
+			this.requiresCharging = requiresCharging;
+			this.requiresIdle = requiresIdle;
+		}
+
+		@Nullable
+		public static Job fromId(final int id) {
+
+			for(final Job job : values()) {
+				if(job.id == id) {
+					return job;
+				}
+			}
+
+			return null;
+		}
+
+		@NonNull
+		private String getConfigSignature() {
+			return String.format(
+					Locale.US,
+					"%s/%d/%d/%b/%b",
+					name(),
+					intervalMs,
+					networkType,
+					requiresCharging,
+					requiresIdle);
+		}
+
+		@NonNull
+		public JobInfo buildJobInfo(@NonNull final Context context) {
+
+			final PersistableBundle extras = new PersistableBundle();
+			extras.putString(EXTRA_CONFIG, getConfigSignature());
+
+			final JobInfo.Builder builder = new JobInfo.Builder(
+					id,
+					new ComponentName(context, BackgroundJobService.class))
+					.setPeriodic(intervalMs)
+					.setRequiredNetworkType(networkType)
+					.setRequiresCharging(requiresCharging)
+					.setRequiresDeviceIdle(requiresIdle)
+					.setPersisted(true)
+					.setExtras(extras);
+
+			// The system rejects a backoff policy on idle jobs, which are simply retried at
+			// the next idle window
+			if(!requiresIdle) {
+				builder.setBackoffCriteria(
+						INITIAL_BACKOFF_MS,
+						JobInfo.BACKOFF_POLICY_EXPONENTIAL);
+			}
+
+			return builder.build();
+		}
+	}
+
+	public static final class RunRecord {
+
+		@NonNull public final Job job;
+		public final long startTimeMs;
+		public final long durationMs;
+		@NonNull public final String workDone;
+		public final boolean retryRequested;
+
+		public RunRecord(
+				@NonNull final Job job,
+				final long startTimeMs,
+				final long durationMs,
+				@NonNull final String workDone,
+				final boolean retryRequested) {
+
+			this.job = job;
+			this.startTimeMs = startTimeMs;
+			this.durationMs = durationMs;
+			this.workDone = workDone;
+			this.retryRequested = retryRequested;
+		}
+
+		@NonNull
+		@Override
+		public String toString() {
+			return String.format(
+					Locale.US,
+					"%s took %d ms: %s%s",
+					job.name(),
+					durationMs,
+					workDone,
+					retryRequested ? " (retrying)" : "");
+		}
+	}
+
+	/**
+	 * Schedules the specified job, unless it is already pending with the same configuration.
+	 *
+	 * @return true if the job was (re)scheduled
+	 */
+	public static boolean schedule(@NonNull final Context context, @NonNull final Job job) {
+
+		final JobScheduler scheduler
+				= (JobScheduler)context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+
+		final JobInfo jobInfo = job.buildJobInfo(context);
+
+		if(isPending(scheduler, jobInfo)) {
+			return false;
+		}
+
+		if(scheduler.schedule(jobInfo) != JobScheduler.RESULT_SUCCESS) {
+			Log.e(TAG, "Failed to schedule job " + job.name());
+			return false;
+		}
+
+		Log.i(TAG, "Scheduled job " + job.name());
+		return true;
+	}
+
+	private static boolean isPending(
+			@NonNull final JobScheduler scheduler,
+			@NonNull final JobInfo jobInfo) {
+
+		for(final JobInfo pending : scheduler.getAllPendingJobs()) {
+
+			if(pending.getId() == jobInfo.getId()) {
+				return pending.getService().equals(jobInfo.getService())
+						&& Objects.equals(
+								pending.getExtras().getString(EXTRA_CONFIG),
+								jobInfo.getExtras().getString(EXTRA_CONFIG));
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Ensures all jobs are scheduled. Scheduled jobs survive reboots, so this is cheap to call
+	 * on every app start.
+	 */
+	public static void scheduleAll(@NonNull final Context context) {
+
+		cancelLegacyAlarms(context);
+
+		for(final Job job : Job.values()) {
+			schedule(context, job);
+		}
+	}
+
+	// Older versions used repeating alarms, which otherwise keep firing until reboot
+	private static void cancelLegacyAlarms(@NonNull final Context context) {
+
+		final AlarmManager alarmManager
+				= (AlarmManager)context.getSystemService(Context.ALARM_SERVICE);
+
+		int flags = PendingIntent.FLAG_NO_CREATE;
+
+		if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+			flags |= PendingIntent.FLAG_IMMUTABLE;
+		}
+
+		for(final String receiver : LEGACY_ALARM_RECEIVERS) {
+
+			@SuppressLint("UnspecifiedImmutableFlag")
+			final PendingIntent pendingIntent = PendingIntent.getBroadcast(
+					context,
+					0,
+					new Intent().setClassName(context, receiver),
+					flags);
+
+			if(pendingIntent != null) {
+				Log.i(TAG, "Cancelling legacy alarm for " + receiver);
+				alarmManager.cancel(pendingIntent);
+				pendingIntent.cancel();
+			}
+		}
+	}
+
+	public static boolean isMaintenanceOverdue(final long lastMaintenanceMs, final long nowMs) {
+		// Also catches the clock going backwards
+		return nowMs < lastMaintenanceMs || nowMs - lastMaintenanceMs >= MAINTENANCE_OVERDUE_MS;
+	}
+
+	public static boolean isMaintenanceOverdue(@NonNull final Context context) {
+		return isMaintenanceOverdue(
+				General.getSharedPrefs(context).getLong(PREF_LAST_MAINTENANCE, 0),
+				System.currentTimeMillis());
+	}
+
+	public static void onMaintenanceComplete(@NonNull final Context context) {
+		General.getSharedPrefs(context).edit()
+				.putLong(PREF_LAST_MAINTENANCE, System.currentTimeMillis())
+				.apply();
+	}
+
+	public static void recordRun(@NonNull final RunRecord record) {
+
+		Log.i(TAG, record.toString());
+
+		synchronized(sRunLog) {
+			if(sRunLog.size() >= MAX_RUN_LOG_ENTRIES) {
+				sRunLog.removeFirst();
+			}
+
+			sRunLog.addLast(record);
+		}
+	}
+
+	/**
+	 * @return The most recent job runs in this process, oldest first
+	 */
+	@NonNull
+	public static List<RunRecord> getRecentRuns() {
+		synchronized(sRunLog) {
+			return new ArrayList<>(sRunLog);
+		}
+	}
+}
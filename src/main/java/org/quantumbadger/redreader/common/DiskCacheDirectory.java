@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A directory of cache files, each named after a hash of its key. Once it grows past the
+ * maximum size, the least recently written files are deleted.
+ *
+ * Files are written to a temporary file first, and then renamed into place with
+ * {@link #commit(File, File)}, so that a reader never sees a partly written file.
+ */
+public final class DiskCacheDirectory {
+
+	private static final String TAG = "DiskCacheDirectory";
+
+	@NonNull private final File mDir;
+	private final long mMaxTotalBytes;
+	private final int mWritesBetweenTrims;
+
+	@NonNull private final AtomicInteger mWritesSinceTrim = new AtomicInteger(0);
+
+	public DiskCacheDirectory(
+			@NonNull final File dir,
+			final long maxTotalBytes,
+			final int writesBetweenTrims) {
+
+		mDir = dir;
+		mMaxTotalBytes = maxTotalBytes;
+		mWritesBetweenTrims = writesBetweenTrims;
+	}
+
+	@NonNull
+	public File getFile(@NonNull final String key) {
+
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			final byte[] hash = digest.digest(key.getBytes(General.CHARSET_UTF8));
+
+			return new File(mDir, HexUtils.toHex(Arrays.copyOf(hash, 16)));
+
+		} catch(final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return A new, uniquely named file to write to before calling
+	 * {@link #commit(File, File)}, or null if it could not be created. Each writer gets its
+	 * own file, so concurrent writes of the same key can't interleave.
+	 */
+	@Nullable
+	public File getTempFile(@NonNull final File file) {
+
+		if(!mDir.isDirectory() && !mDir.mkdirs()) {
+			return null;
+		}
+
+		try {
+			return File.createTempFile(file.getName() + ".", ".tmp", mDir);
+
+		} catch(final IOException e) {
+			Log.e(TAG, "Could not create temp file in " + mDir, e);
+			return null;
+		}
+	}
+
+	public void commit(@NonNull final File tmpFile, @NonNull final File file) {
+
+		if(!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+		}
+
+		if(mWritesSinceTrim.incrementAndGet() >= mWritesBetweenTrims) {
+			mWritesSinceTrim.set(0);
+			trim();
+		}
+	}
+
+	private synchronized void trim() {
+
+		final File[] files = mDir.listFiles();
+
+		if(files == null) {
+			return;
+		}
+
+		long totalBytes = 0;
+
+		for(final File file : files) {
+			totalBytes += file.length();
+		}
+
+		if(totalBytes <= mMaxTotalBytes) {
+			return;
+		}
+
+		Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+		for(final File file : files) {
+
+			if(totalBytes <= mMaxTotalBytes * 3 / 4) {
+				break;
+			}
+
+			totalBytes -= file.length();
+			file.delete();
+		}
+	}
+
+	public synchronized void clear() {
+
+		final File[] files = mDir.listFiles();
+
+		if(files == null) {
+			return;
+		}
+
+		for(final File file : files) {
+			file.delete();
+		}
+	}
+}
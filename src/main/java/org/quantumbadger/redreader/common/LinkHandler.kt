@@ -54,6 +54,7 @@ import org.quantumbadger.redreader.image.GetImageInfoListener
 import org.quantumbadger.redreader.image.GfycatAPI
 import org.quantumbadger.redreader.image.ImageInfo
 import org.quantumbadger.redreader.image.ImageInfo.HasAudio
+import org.quantumbadger.redreader.image.ImageInfoCache
 import org.quantumbadger.redreader.image.ImageUrlInfo
 import org.quantumbadger.redreader.image.ImgurAPI
 import org.quantumbadger.redreader.image.ImgurAPIV3
@@ -544,6 +545,24 @@ object LinkHandler {
 	private val deviantartPattern: Pattern =
 		Pattern.compile("https://www\\.deviantart\\.com/([\\w\\-]+)/art/([\\w\\-]+)")
 	private val giphyPattern: Pattern = Pattern.compile(".*[^A-Za-z]giphy\\.com/gifs/(\\w+).*")
+	private val giphyMediaGifPattern: Pattern =
+		Pattern.compile(".*[^A-Za-z]giphy\\.com/media/(\\w+)/giphy\\.gif.*")
+
+	// Returns an MP4 rendition of a directly-linked GIF, for hosts which are known to provide one
+	private fun findGifVideoVariant(url: UriString): ImageUrlInfo? {
+
+		val matchGiphy = giphyMediaGifPattern.matcher(url.value)
+
+		if (matchGiphy.find()) {
+			return ImageUrlInfo(UriString(
+				"https://media.giphy.com/media/"
+						+ matchGiphy.group(1)
+						+ "/giphy.mp4"
+			))
+		}
+
+		return null
+	}
 
 	@JvmStatic
 	fun isRedGifsImage(url: UriString): Boolean {
@@ -848,13 +867,37 @@ object LinkHandler {
 			return
 		}
 
+		// Links which can be resolved from the URL alone are cheap, so only the results of
+		// API lookups are cached
+		val resolver = getApiResolver(context, url)
+
+		if (resolver == null) {
+			val imageUrlPatternMatch = getImageUrlPatternMatch(url)
+
+			if (imageUrlPatternMatch != null) {
+				listener.onSuccess(imageUrlPatternMatch)
+			} else {
+				listener.onNotAnImage()
+			}
+
+			return
+		}
+
+		ImageInfoCache.getInstance(context).get(url, priority, resolver, listener)
+	}
+
+	private fun getApiResolver(
+		context: Context,
+		url: UriString
+	): ImageInfoCache.Resolver? {
 		run {
 			val matchImgur = imgurPattern.matcher(url.value)
 			if (matchImgur.find()) {
 				matchImgur.group(2)?.let { imgId ->
 					if (imgId.length > 2 && !imgId.startsWith("gallery")) {
-						getImgurImageInfo(context, imgId, priority, true, listener)
-						return
+						return ImageInfoCache.Resolver { priority, listener ->
+							getImgurImageInfo(context, imgId, priority, true, listener)
+						}
 					}
 				}
 			}
@@ -865,8 +908,9 @@ object LinkHandler {
 			if (matchGfycat.find()) {
 				matchGfycat.group(1)?.let { imgId ->
 					if (imgId.length > 5) {
-						GfycatAPI.getImageInfo(context, imgId, priority, listener)
-						return
+						return ImageInfoCache.Resolver { priority, listener ->
+							GfycatAPI.getImageInfo(context, imgId, priority, listener)
+						}
 					}
 				}
 			}
@@ -877,44 +921,9 @@ object LinkHandler {
 			if (matchRedgifs.find()) {
 				matchRedgifs.group(1)?.let { imgId ->
 					if (imgId.length > 5) {
-						RedgifsAPIV2.getImageInfo(
-							context,
-							imgId,
-							priority,
-							object : ImageInfoRetryListener(listener) {
-								override fun onFailure(error: RRError) {
-									Log.e(
-										"getImageInfo",
-										"RedGifs V2 failed, trying V1 ($error)",
-										error.t
-									)
-
-									RedgifsAPI.getImageInfo(
-										context,
-										imgId,
-										priority,
-										object : ImageInfoRetryListener(listener) {
-											override fun onFailure(error: RRError) {
-												// Retry V2 so that the final error which is logged
-												// relates to the V2 API
-
-												Log.e(
-													"getImageInfo",
-													"RedGifs V1 also failed, retrying V2: $error",
-													error.t
-												)
-
-												RedgifsAPIV2.getImageInfo(
-													context,
-													imgId,
-													priority,
-													listener
-												)
-											}
-										})
-								}
-							})
-						return
+						return ImageInfoCache.Resolver { priority, listener ->
+							getRedgifsImageInfo(context, imgId, priority, listener)
+						}
 					}
 				}
 			}
@@ -925,13 +934,14 @@ object LinkHandler {
 			if (matchStreamable.find()) {
 				matchStreamable.group(1)?.let { imgId ->
 					if (imgId.length > 2) {
-						StreamableAPI.getImageInfo(
-							context,
-							imgId,
-							priority,
-							listener
-						)
-						return
+						return ImageInfoCache.Resolver { priority, listener ->
+							StreamableAPI.getImageInfo(
+								context,
+								imgId,
+								priority,
+								listener
+							)
+						}
 					}
 				}
 			}
@@ -940,13 +950,14 @@ object LinkHandler {
 			val matchDeviantart = deviantartPattern.matcher(url.value)
 			if (matchDeviantart.find()) {
 				if (url.value.length > 40) {
-					DeviantArtAPI.getImageInfo(
-						context,
-						url,
-						priority,
-						listener
-					)
-					return
+					return ImageInfoCache.Resolver { priority, listener ->
+						DeviantArtAPI.getImageInfo(
+							context,
+							url,
+							priority,
+							listener
+						)
+					}
 				}
 			}
 		}
@@ -955,25 +966,65 @@ object LinkHandler {
 			if (matchRedditVideos.find()) {
 				matchRedditVideos.group(1)?.let { imgId ->
 					if (imgId.length > 3) {
-						RedditVideosAPI.getImageInfo(
-							context,
-							imgId,
-							priority,
-							listener
-						)
-						return
+						return ImageInfoCache.Resolver { priority, listener ->
+							RedditVideosAPI.getImageInfo(
+								context,
+								imgId,
+								priority,
+								listener
+							)
+						}
 					}
 				}
 			}
 		}
 
-		val imageUrlPatternMatch = getImageUrlPatternMatch(url)
+		return null
+	}
 
-		if (imageUrlPatternMatch != null) {
-			listener.onSuccess(imageUrlPatternMatch)
-		} else {
-			listener.onNotAnImage()
-		}
+	private fun getRedgifsImageInfo(
+		context: Context,
+		imgId: String,
+		priority: Priority,
+		listener: GetImageInfoListener
+	) {
+		RedgifsAPIV2.getImageInfo(
+			context,
+			imgId,
+			priority,
+			object : ImageInfoRetryListener(listener) {
+				override fun onFailure(error: RRError) {
+					Log.e(
+						"getImageInfo",
+						"RedGifs V2 failed, trying V1 ($error)",
+						error.t
+					)
+
+					RedgifsAPI.getImageInfo(
+						context,
+						imgId,
+						priority,
+						object : ImageInfoRetryListener(listener) {
+							override fun onFailure(error: RRError) {
+								// Retry V2 so that the final error which is logged
+								// relates to the V2 API
+
+								Log.e(
+									"getImageInfo",
+									"RedGifs V1 also failed, retrying V2: $error",
+									error.t
+								)
+
+								RedgifsAPIV2.getImageInfo(
+									context,
+									imgId,
+									priority,
+									listener
+								)
+							}
+						})
+				}
+			})
 	}
 
 	private fun getImageUrlPatternMatch(url: UriString): ImageInfo? {
@@ -1084,6 +1135,7 @@ object LinkHandler {
 
 			return ImageInfo(
 				ImageUrlInfo(url),
+				videoVariant = findGifVideoVariant(url),
 				mediaType = ImageInfo.MediaType.GIF,
 				hasAudio = audio,
 				isAnimated = true
@@ -1124,6 +1176,7 @@ object LinkHandler {
 
 				return ImageInfo(
 					ImageUrlInfo(url),
+					videoVariant = findGifVideoVariant(url),
 					mediaType = ImageInfo.MediaType.GIF,
 					hasAudio = audio
 				)
@@ -35,6 +35,7 @@ import org.quantumbadger.redreader.common.time.TimeDuration;
 import org.quantumbadger.redreader.fragments.MainMenuFragment;
 import org.quantumbadger.redreader.io.WritableHashSet;
 import org.quantumbadger.redreader.reddit.PostCommentSort;
+import org.quantumbadger.redreader.reddit.PostFilter;
 import org.quantumbadger.redreader.reddit.PostSort;
 import org.quantumbadger.redreader.reddit.UserCommentSort;
 import org.quantumbadger.redreader.reddit.api.RedditAPICommentAction;
@@ -115,6 +116,7 @@ public final class PrefsUtility {
 				|| key.equals(context.getString(R.string.pref_behaviour_fling_post_left_key))
 				|| key.equals(context.getString(R.string.pref_behaviour_fling_post_right_key))
 				|| key.equals(context.getString(R.string.pref_behaviour_nsfw_key))
+				|| key.equals(context.getString(R.string.pref_behaviour_post_filters_key))
 				|| key.equals(context.getString(R.string.pref_behaviour_postcount_key))
 				|| key.equals(context.getString(R.string.pref_behaviour_comment_min_key))
 				|| key.equals(context.getString(R.string.pref_behaviour_pinned_subredditsort_key))
@@ -1167,6 +1169,13 @@ public final class PrefsUtility {
 				false);
 	}
 
+	@NonNull
+	public static String pref_behaviour_post_filters() {
+		return General.nullAlternative(
+				getString(R.string.pref_behaviour_post_filters_key, ""),
+				"");
+	}
+
 	public static boolean pref_behaviour_mark_posts_as_read() {
 		return getBoolean(
 				R.string.pref_behaviour_mark_posts_as_read_key,
@@ -1677,7 +1686,7 @@ public final class PrefsUtility {
 
 	public static boolean pref_blocked_subreddits_check(final SubredditCanonicalId subreddit) {
 
-		return pref_blocked_subreddits().contains(subreddit);
+		return PostFilter.get().isSubredditBlocked(subreddit);
 	}
 
 	///////////////////////////////
@@ -57,6 +57,10 @@ public final class StringUtils {
 	@NonNull
 	public static String asciiLowercase(@NonNull final String input) {
 
+		if(!containsAsciiUppercase(input)) {
+			return input;
+		}
+
 		final char[] chars = input.toCharArray();
 
 		for(int i = 0; i < chars.length; i++) {
@@ -69,6 +73,18 @@ public final class StringUtils {
 		return new String(chars);
 	}
 
+	private static boolean containsAsciiUppercase(@NonNull final String input) {
+
+		for(int i = 0; i < input.length(); i++) {
+			final char c = input.charAt(i);
+			if(c >= 'A' && c <= 'Z') {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	@NonNull
 	public static String join(
 			@NonNull final Collection<?> elements,
@@ -127,7 +127,7 @@ public final class MemoryDataStream {
 			}
 
 			if(mSize > position) {
-				return mData[position];
+				return mData[position] & 0xFF;
 			}
 
 			if(mComplete) {
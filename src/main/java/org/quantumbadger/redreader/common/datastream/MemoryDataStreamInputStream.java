@@ -84,7 +84,7 @@ public class MemoryDataStreamInputStream extends SeekableInputStream {
 
 	@Override
 	public int available() {
-		return mStream.size();
+		return Math.max(0, mStream.size() - mPosition);
 	}
 
 	@Override
@@ -27,9 +27,17 @@ import java.io.RandomAccessFile;
 
 public class SeekableFileInputStream extends SeekableInputStream {
 
+	private static final int BUFFER_SIZE = 16 * 1024;
+
 	@NonNull private final RandomAccessFile mFile;
 	private long mPosition;
 
+	// Bytes [mBufferPos, mBufferLength) of mBuffer correspond to the file contents
+	// starting at mPosition
+	@NonNull private final byte[] mBuffer = new byte[BUFFER_SIZE];
+	private int mBufferPos;
+	private int mBufferLength;
+
 	public SeekableFileInputStream(@NonNull final File file) throws FileNotFoundException {
 		mFile = new RandomAccessFile(file, "r");
 	}
@@ -41,7 +49,18 @@ public class SeekableFileInputStream extends SeekableInputStream {
 
 	@Override
 	public void seek(final long position) throws IOException {
-		mFile.seek(position);
+
+		final long bufferOffset = position - mPosition;
+
+		if(bufferOffset >= -mBufferPos && bufferOffset <= mBufferLength - mBufferPos) {
+			mBufferPos += (int)bufferOffset;
+
+		} else {
+			mFile.seek(position);
+			mBufferPos = 0;
+			mBufferLength = 0;
+		}
+
 		mPosition = position;
 	}
 
@@ -51,16 +70,29 @@ public class SeekableFileInputStream extends SeekableInputStream {
 		callback.onByteArray(result, 0, result.length);
 	}
 
+	private boolean fillBuffer() throws IOException {
+
+		if(mBufferPos < mBufferLength) {
+			return true;
+		}
+
+		final int result = mFile.read(mBuffer, 0, BUFFER_SIZE);
+
+		mBufferPos = 0;
+		mBufferLength = Math.max(result, 0);
+
+		return result > 0;
+	}
+
 	@Override
 	public int read() throws IOException {
 
-		final int result = mFile.read();
-
-		if(result >= 0) {
-			mPosition ++;
+		if(!fillBuffer()) {
+			return -1;
 		}
 
-		return result;
+		mPosition++;
+		return mBuffer[mBufferPos++] & 0xFF;
 	}
 
 	@Override
@@ -75,7 +107,25 @@ public class SeekableFileInputStream extends SeekableInputStream {
 			throw new IOException("Attempted to read zero bytes");
 		}
 
-		final int result = mFile.read(buf, off, len);
+		final int result;
+
+		if(mBufferPos < mBufferLength) {
+			result = Math.min(len, mBufferLength - mBufferPos);
+			System.arraycopy(mBuffer, mBufferPos, buf, off, result);
+			mBufferPos += result;
+
+		} else if(len >= BUFFER_SIZE) {
+			// Large reads bypass the buffer entirely
+			result = mFile.read(buf, off, len);
+			mBufferPos = 0;
+			mBufferLength = 0;
+
+		} else if(fillBuffer()) {
+			return read(buf, off, len);
+
+		} else {
+			return -1;
+		}
 
 		if(result > 0) {
 			mPosition += result;
@@ -87,7 +137,7 @@ public class SeekableFileInputStream extends SeekableInputStream {
 	@Override
 	public long skip(final long n) throws IOException {
 		final long bytesToSkip = Math.min(n, available());
-		seek((int)(mPosition + bytesToSkip));
+		seek(mPosition + bytesToSkip);
 		return bytesToSkip;
 	}
 
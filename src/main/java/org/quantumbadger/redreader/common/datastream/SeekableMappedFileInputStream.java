@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.common.datastream;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A seekable stream over a memory-mapped file. Reads are served directly from
+ * the mapping, so single-byte reads (as issued by BitmapFactory and ExoPlayer)
+ * do not each require a system call.
+ */
+public class SeekableMappedFileInputStream extends SeekableInputStream {
+
+	// Larger files fall back to a buffered RandomAccessFile, to avoid exhausting the address
+	// space. A 32-bit process has far less of it, so only small files are mapped there.
+	private static final long MAX_MAPPED_SIZE = 64L * 1024 * 1024;
+	private static final long MAX_MAPPED_SIZE_32_BIT = 4L * 1024 * 1024;
+
+	private static final boolean IS_64_BIT_PROCESS
+			= String.valueOf(System.getProperty("os.arch")).contains("64");
+
+	// Null once closed. The mapping itself is released when the buffer is garbage collected,
+	// so this stream must not keep it reachable after close().
+	@Nullable private MappedByteBuffer mBuffer;
+
+	@NonNull
+	public static SeekableInputStream open(@NonNull final File file) throws IOException {
+
+		final long length = file.length();
+		final long maxMappedSize = IS_64_BIT_PROCESS ? MAX_MAPPED_SIZE : MAX_MAPPED_SIZE_32_BIT;
+
+		if(length <= 0 || length > maxMappedSize) {
+			return new SeekableFileInputStream(file);
+		}
+
+		try(RandomAccessFile raf = new RandomAccessFile(file, "r");
+			FileChannel channel = raf.getChannel()) {
+
+			// The mapping remains valid after the channel is closed
+			return new SeekableMappedFileInputStream(
+					channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	private SeekableMappedFileInputStream(@NonNull final MappedByteBuffer buffer) {
+		mBuffer = buffer;
+	}
+
+	@NonNull
+	private MappedByteBuffer getBuffer() throws IOException {
+
+		final MappedByteBuffer buffer = mBuffer;
+
+		if(buffer == null) {
+			throw new IOException("Stream closed");
+		}
+
+		return buffer;
+	}
+
+	@Override
+	public long getPosition() {
+		final MappedByteBuffer buffer = mBuffer;
+		return buffer == null ? 0 : buffer.position();
+	}
+
+	@Override
+	public void seek(final long position) throws IOException {
+
+		if(position < 0) {
+			throw new IOException("Attempted to seek before zero");
+		}
+
+		final MappedByteBuffer buffer = getBuffer();
+		buffer.position((int)Math.min(position, buffer.limit()));
+	}
+
+	@Override
+	public void readRemainingAsBytes(@NonNull final ByteArrayCallback callback) throws IOException {
+		final MappedByteBuffer buffer = getBuffer();
+		final byte[] result = new byte[buffer.remaining()];
+		buffer.get(result);
+		callback.onByteArray(result, 0, result.length);
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		final MappedByteBuffer buffer = getBuffer();
+
+		if(!buffer.hasRemaining()) {
+			return -1;
+		}
+
+		return buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] buf) throws IOException {
+		return read(buf, 0, buf.length);
+	}
+
+	@Override
+	public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+		final MappedByteBuffer buffer = getBuffer();
+
+		if(len == 0) {
+			return 0;
+		}
+
+		final int remaining = buffer.remaining();
+
+		if(remaining == 0) {
+			return -1;
+		}
+
+		final int bytesToRead = Math.min(len, remaining);
+		buffer.get(buf, off, bytesToRead);
+		return bytesToRead;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+
+		final MappedByteBuffer buffer = getBuffer();
+
+		if(n <= 0) {
+			return 0;
+		}
+
+		final int bytesToSkip = (int)Math.min(n, buffer.remaining());
+		buffer.position(buffer.position() + bytesToSkip);
+		return bytesToSkip;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return getBuffer().remaining();
+	}
+
+	@Override
+	public void close() {
+		mBuffer = null;
+	}
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.compose.net
+
+import android.content.Context
+import android.net.ConnectivityManager
+import android.os.SystemClock
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.DisposableEffect
+import androidx.compose.runtime.remember
+import androidx.compose.ui.platform.LocalContext
+import androidx.core.net.ConnectivityManagerCompat
+import org.quantumbadger.redreader.account.RedditAccountId
+import org.quantumbadger.redreader.account.RedditAccountManager
+import org.quantumbadger.redreader.cache.CacheManager
+import org.quantumbadger.redreader.cache.CacheRequest
+import org.quantumbadger.redreader.cache.CacheRequestCallbacks
+import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfNotCached
+import org.quantumbadger.redreader.common.Constants
+import org.quantumbadger.redreader.common.FileUtils
+import org.quantumbadger.redreader.common.General
+import org.quantumbadger.redreader.common.PrefsUtility
+import org.quantumbadger.redreader.common.Priority
+import org.quantumbadger.redreader.common.RRError
+import org.quantumbadger.redreader.common.time.TimestampUTC
+import org.quantumbadger.redreader.compose.ctx.LocalRedditUser
+import org.quantumbadger.redreader.image.AlbumInfo
+import org.quantumbadger.redreader.image.AlbumPrefetcher
+import org.quantumbadger.redreader.image.ImageInfo
+import org.quantumbadger.redreader.image.ImageUrlInfo
+import org.quantumbadger.redreader.settings.types.AlbumViewMode
+import java.util.UUID
+
+private const val PREFETCH_DISTANCE = 8
+private const val PREFETCH_DISTANCE_METERED = 3
+
+/**
+ * The rendition of an album entry which is shown in the album list. Prefetching has to use
+ * the same one, otherwise it doesn't save anything.
+ */
+fun ImageInfo.albumDisplayImage(viewMode: AlbumViewMode): ImageUrlInfo? = when (viewMode) {
+	AlbumViewMode.Cards -> if (mediaType == ImageInfo.MediaType.IMAGE) {
+		preview ?: original
+	} else {
+		preview ?: bigSquare
+	}
+
+	AlbumViewMode.List -> bigSquare ?: preview
+	AlbumViewMode.Grid -> bigSquare ?: preview ?: original
+}
+
+/**
+ * Returns a prefetcher for the entries of this album, or null if image precaching is
+ * disabled. Outstanding prefetches are cancelled when the caller leaves the composition.
+ */
+@Composable
+fun rememberAlbumPrefetcher(
+	album: AlbumInfo,
+	viewMode: AlbumViewMode,
+	user: RedditAccountId = LocalRedditUser.current,
+): AlbumPrefetcher? {
+
+	val context = LocalContext.current.applicationContext
+
+	val prefetcher = remember(album, viewMode, user) {
+		createAlbumPrefetcher(context, album, viewMode, user)
+	}
+
+	DisposableEffect(prefetcher) {
+		onDispose {
+			prefetcher?.cancel()
+		}
+	}
+
+	return prefetcher
+}
+
+private fun createAlbumPrefetcher(
+	context: Context,
+	album: AlbumInfo,
+	viewMode: AlbumViewMode,
+	user: RedditAccountId,
+): AlbumPrefetcher? {
+
+	if (!PrefsUtility.cache_precache_images().isEnabled(General.isConnectionWifi(context))
+		|| FileUtils.isCacheDiskFull(context)
+	) {
+		return null
+	}
+
+	// Must match the account used by fetchImage(), as cache entries are per-user
+	val account = RedditAccountManager.getInstance(context).getAccount(user.canonicalUsername)
+		?: return null
+
+	val metered = ConnectivityManagerCompat.isActiveNetworkMetered(
+		context.getSystemService(Context.CONNECTIVITY_SERVICE) as ConnectivityManager
+	)
+
+	// On a metered connection, only prefetch entries which are shown as a preview or
+	// thumbnail, rather than at full size
+	val urls = album.images.map { image ->
+		image.albumDisplayImage(viewMode)
+			?.takeUnless { metered && it === image.original }
+			?.url
+	}
+
+	return AlbumPrefetcher(
+		urls,
+		if (metered) PREFETCH_DISTANCE_METERED else PREFETCH_DISTANCE,
+		AlbumPrefetcher.THROUGHPUT
+	) { url, index, listener ->
+
+		val request = CacheRequest.Builder()
+			.setUrl(url)
+			.setUser(account)
+			.setPriority(Priority(Constants.Priority.IMAGE_PRECACHE, index))
+			.setDownloadStrategy(DownloadStrategyIfNotCached.INSTANCE)
+			.setFileType(Constants.FileType.IMAGE)
+			.setQueueType(CacheRequest.DownloadQueueType.IMAGE_PRECACHE)
+			.setRequestMethod(CacheRequest.RequestMethod.GET)
+			.setCache(true)
+			.setContext(context)
+			.setCallbacks(object : CacheRequestCallbacks {
+
+				@Volatile
+				var downloadStartTime = SystemClock.elapsedRealtime()
+
+				@Volatile
+				var bytesDownloaded = 0L
+
+				override fun onDownloadStarted() {
+					downloadStartTime = SystemClock.elapsedRealtime()
+				}
+
+				override fun onProgress(
+					authorizationInProgress: Boolean,
+					bytesRead: Long,
+					totalBytes: Long
+				) {
+					bytesDownloaded = bytesRead
+				}
+
+				override fun onFailure(error: RRError) {
+					listener.onFailed()
+				}
+
+				override fun onCacheFileWritten(
+					cacheFile: CacheManager.ReadableCacheFile,
+					timestamp: TimestampUTC?,
+					session: UUID,
+					fromCache: Boolean,
+					mimetype: String?
+				) {
+					listener.onFetched(
+						bytesDownloaded,
+						SystemClock.elapsedRealtime() - downloadStartTime,
+						fromCache
+					)
+				}
+			})
+			.build()
+
+		CacheManager.getInstance(context).makeRequest(request)
+
+		AlbumPrefetcher.Request { request.cancel() }
+	}
+}
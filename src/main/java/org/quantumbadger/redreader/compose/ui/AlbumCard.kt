@@ -45,6 +45,7 @@ import androidx.compose.ui.unit.dp
 import org.quantumbadger.redreader.R
 import org.quantumbadger.redreader.common.UriString
 import org.quantumbadger.redreader.compose.ctx.RRComposeContextTest
+import org.quantumbadger.redreader.compose.net.albumDisplayImage
 import org.quantumbadger.redreader.compose.prefs.LocalComposePrefs
 import org.quantumbadger.redreader.compose.theme.LocalComposeTheme
 import org.quantumbadger.redreader.compose.theme.StyledText
@@ -52,6 +53,7 @@ import org.quantumbadger.redreader.compose.theme.combinedClickableWithHaptics
 import org.quantumbadger.redreader.image.ImageInfo
 import org.quantumbadger.redreader.image.ImageSize
 import org.quantumbadger.redreader.image.ImageUrlInfo
+import org.quantumbadger.redreader.settings.types.AlbumViewMode
 
 @Composable
 fun AlbumCard(
@@ -63,11 +65,7 @@ fun AlbumCard(
 	val prefs = LocalComposePrefs.current
 	val theme = LocalComposeTheme.current
 
-	val preview = if (image.mediaType == ImageInfo.MediaType.IMAGE) {
-		image.preview ?: image.original
-	} else {
-		image.preview ?: image.bigSquare
-	}
+	val preview = image.albumDisplayImage(AlbumViewMode.Cards)
 
 	val systemBarsHeight: Dp = WindowInsets.systemBars.let { insets ->
 		with(LocalDensity.current) {
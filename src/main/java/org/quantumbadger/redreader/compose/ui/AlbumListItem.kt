@@ -43,6 +43,7 @@ import org.quantumbadger.redreader.common.UriString
 import org.quantumbadger.redreader.compose.ctx.Dest
 import org.quantumbadger.redreader.compose.ctx.LocalLauncher
 import org.quantumbadger.redreader.compose.ctx.RRComposeContextTest
+import org.quantumbadger.redreader.compose.net.albumDisplayImage
 import org.quantumbadger.redreader.compose.prefs.LocalComposePrefs
 import org.quantumbadger.redreader.compose.theme.LocalComposeTheme
 import org.quantumbadger.redreader.compose.theme.StyledText
@@ -50,6 +51,7 @@ import org.quantumbadger.redreader.compose.theme.combinedClickableWithHaptics
 import org.quantumbadger.redreader.image.ImageInfo
 import org.quantumbadger.redreader.image.ImageSize
 import org.quantumbadger.redreader.image.ImageUrlInfo
+import org.quantumbadger.redreader.settings.types.AlbumViewMode
 import java.util.Locale
 
 @Composable
@@ -62,7 +64,7 @@ fun AlbumListItem(
 	val prefs = LocalComposePrefs.current
 	val theme = LocalComposeTheme.current
 
-	val thumbnailImage = image.bigSquare ?: image.preview
+	val thumbnailImage = image.albumDisplayImage(AlbumViewMode.List)
 
 	val thumbnailSize = prefs.albumListThumbnailSize.value.dp
 
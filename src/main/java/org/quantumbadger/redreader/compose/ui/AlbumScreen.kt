@@ -57,7 +57,9 @@ import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
 import androidx.compose.runtime.saveable.rememberSaveable
+import androidx.compose.runtime.rememberUpdatedState
 import androidx.compose.runtime.setValue
+import androidx.compose.runtime.snapshotFlow
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.draw.shadow
@@ -83,7 +85,9 @@ import org.quantumbadger.redreader.common.UriString
 import org.quantumbadger.redreader.compose.ctx.Dest
 import org.quantumbadger.redreader.compose.ctx.LocalLauncher
 import org.quantumbadger.redreader.compose.net.NetRequestStatus
+import org.quantumbadger.redreader.compose.net.albumDisplayImage
 import org.quantumbadger.redreader.compose.net.fetchAlbum
+import org.quantumbadger.redreader.compose.net.rememberAlbumPrefetcher
 import org.quantumbadger.redreader.compose.prefs.LocalComposePrefs
 import org.quantumbadger.redreader.compose.theme.LocalComposeTheme
 import org.quantumbadger.redreader.compose.theme.StyledText
@@ -168,6 +172,8 @@ fun AlbumScreen(
 	val accessibilityFocusRequester = remember { FocusRequester() }
 	val focusManager = LocalFocusManager.current
 
+	val prefetcher = rememberAlbumPrefetcher(album, prefs.albumViewMode.value)
+
 	// Workaround for potential Compose accessibility issue. Someone else reported this here:
 	// https://stackoverflow.com/questions/78705279/talkback-does-not-focus-at-the-top-of-the-screen-on-navigation-with-compose
 	// Without this code, the screenreader focus jumps to one of the "share" buttons halfway down
@@ -308,6 +314,8 @@ fun AlbumScreen(
 						get() = state.firstVisibleItemIndex
 					override val firstVisibleItemOffset: Int
 						get() = state.firstVisibleItemScrollOffset
+					override val lastVisibleItemIndex: Int
+						get() = state.layoutInfo.visibleItemsInfo.lastOrNull()?.index ?: 0
 				}
 			}
 
@@ -342,6 +350,8 @@ fun AlbumScreen(
 						get() = state.firstVisibleItemIndex
 					override val firstVisibleItemOffset: Int
 						get() = state.firstVisibleItemScrollOffset
+					override val lastVisibleItemIndex: Int
+						get() = state.layoutInfo.visibleItemsInfo.lastOrNull()?.index ?: 0
 				}
 			}
 
@@ -379,9 +389,7 @@ fun AlbumScreen(
                                     role = Role.Image
                                     contentDescription = description
                                 },
-							image = image.run {
-								bigSquare ?: preview ?: original
-							},
+							image = image.albumDisplayImage(AlbumViewMode.Grid) ?: image.original,
 							cropToAspect = 1f.takeIf { prefs.albumGridCropToSquare.value },
 							showVideoPlayOverlay = (image.mediaType == ImageInfo.MediaType.VIDEO
 									|| image.mediaType == ImageInfo.MediaType.GIF
@@ -395,6 +403,19 @@ fun AlbumScreen(
 						get() = state.firstVisibleItemIndex
 					override val firstVisibleItemOffset: Int
 						get() = state.firstVisibleItemScrollOffset
+					override val lastVisibleItemIndex: Int
+						get() = state.layoutInfo.visibleItemsInfo.lastOrNull()?.index ?: 0
+				}
+			}
+		}
+
+		val currentScrollState by rememberUpdatedState(scrollState)
+
+		LaunchedEffect(prefetcher) {
+			if (prefetcher != null) {
+				snapshotFlow { currentScrollState.lastVisibleItemIndex }.collect {
+					// The first item in the list is the header
+					prefetcher.onLastVisibleIndexChanged(it - 1)
 				}
 			}
 		}
@@ -611,4 +632,5 @@ fun PaddingValues.override(
 interface TopBarScrollObservable {
 	val firstVisibleItemIndex: Int
 	val firstVisibleItemOffset: Int
+	val lastVisibleItemIndex: Int
 }
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.fragments;
+
+/**
+ * Decides when a listing should request its next page.
+ *
+ * A fixed threshold of remaining items is fine for slow scrolling, but when scrolling quickly
+ * the user reaches the end of the list before the next page arrives, as each request waits for
+ * the Reddit API queue delay as well as the download. The threshold therefore grows with the
+ * recent scroll speed and the time recent pages took to load, up to a limit on how many pages
+ * may be loaded ahead of the user.
+ */
+public final class ListingPrefetchPolicy {
+
+	// Scrolling pauses longer than this mean the user has stopped
+	private static final long VELOCITY_EXPIRY_MS = 1000;
+
+	// Shorter intervals between scroll events give very noisy velocity samples
+	private static final long MIN_SAMPLE_INTERVAL_MS = 50;
+
+	// Until a page has been loaded: the API queue delay, plus the download and parsing
+	private static final long DEFAULT_PAGE_LOAD_MS = 2500;
+
+	// Margin for variation in scroll speed and page load time
+	private static final double LOOKAHEAD_FACTOR = 1.5;
+
+	private final int mPageSize;
+	private final int mMinItemsRemaining;
+	private final int mMaxPagesAhead;
+
+	private double mItemsPerSecond = 0;
+	private long mPageLoadMs = DEFAULT_PAGE_LOAD_MS;
+
+	private int mSamplePosition = -1;
+	private long mSampleTimeMs = -1;
+	private long mLastScrollTimeMs = -1;
+
+	/**
+	 * @param pageSize The number of items in each page.
+	 * @param minItemsRemaining The next page is always requested when fewer items than this
+	 *                          remain after the last visible item.
+	 * @param maxPagesAhead The next page is never requested while this many pages' worth of
+	 *                      items remain.
+	 */
+	public ListingPrefetchPolicy(
+			final int pageSize,
+			final int minItemsRemaining,
+			final int maxPagesAhead) {
+
+		mPageSize = pageSize;
+		mMinItemsRemaining = minItemsRemaining;
+		mMaxPagesAhead = maxPagesAhead;
+	}
+
+	public synchronized void onScrolled(final int lastVisiblePosition, final long nowMs) {
+
+		mLastScrollTimeMs = nowMs;
+
+		if(mSampleTimeMs < 0) {
+			mSamplePosition = lastVisiblePosition;
+			mSampleTimeMs = nowMs;
+			return;
+		}
+
+		final long intervalMs = nowMs - mSampleTimeMs;
+
+		if(intervalMs < MIN_SAMPLE_INTERVAL_MS) {
+			return;
+		}
+
+		// Scrolling back up doesn't bring the end of the listing any closer
+		final double sample = Math.max(0, lastVisiblePosition - mSamplePosition)
+				* 1000.0 / intervalMs;
+
+		if(intervalMs > VELOCITY_EXPIRY_MS) {
+			mItemsPerSecond = sample;
+		} else {
+			mItemsPerSecond = (mItemsPerSecond + sample) / 2;
+		}
+
+		mSamplePosition = lastVisiblePosition;
+		mSampleTimeMs = nowMs;
+	}
+
+	public synchronized void onPageLoaded(final long durationMs) {
+		mPageLoadMs = (mPageLoadMs + durationMs) / 2;
+	}
+
+	public synchronized double getItemsPerSecond(final long nowMs) {
+
+		if(mLastScrollTimeMs < 0 || nowMs - mLastScrollTimeMs > VELOCITY_EXPIRY_MS) {
+			return 0;
+		}
+
+		return mItemsPerSecond;
+	}
+
+	public synchronized boolean shouldLoadNextPage(final int itemsRemaining, final long nowMs) {
+
+		if(itemsRemaining < mMinItemsRemaining) {
+			return true;
+		}
+
+		if(itemsRemaining >= mPageSize * mMaxPagesAhead) {
+			return false;
+		}
+
+		// The number of items the user will scroll past while the next page loads
+		final double itemsNeeded = getItemsPerSecond(nowMs) * mPageLoadMs / 1000.0;
+
+		return itemsRemaining < itemsNeeded * LOOKAHEAD_FACTOR;
+	}
+}
@@ -27,11 +27,16 @@ import androidx.annotation.NonNull;
 import org.quantumbadger.redreader.R;
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.reddit.prepared.markdown.IncrementalMarkdownParser;
 import org.quantumbadger.redreader.reddit.prepared.markdown.MarkdownParagraphGroup;
-import org.quantumbadger.redreader.reddit.prepared.markdown.MarkdownParser;
 
 public class MarkdownPreviewDialog extends PropertiesDialog {
 
+	// Successive previews are usually of the same text with small edits, so paragraphs
+	// which haven't changed since the last preview are reused rather than parsed again.
+	// Only accessed from the UI thread.
+	private static final IncrementalMarkdownParser PARSER = new IncrementalMarkdownParser();
+
 	public static MarkdownPreviewDialog newInstance(final String markdown) {
 
 		final MarkdownPreviewDialog dialog = new MarkdownPreviewDialog();
@@ -54,7 +59,7 @@ public class MarkdownPreviewDialog extends PropertiesDialog {
 			@NonNull final LinearLayout items) {
 
 		final MarkdownParagraphGroup parsedGen
-				= MarkdownParser.parse(getArguments().getString("markdown")
+				= PARSER.parse(getArguments().getString("markdown")
 				.toCharArray());
 
 		final ViewGroup parsed = parsedGen.buildView(activity, null, 14f, false);
@@ -21,6 +21,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -47,12 +48,14 @@ import org.quantumbadger.redreader.adapters.PostListingManager;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
 import org.quantumbadger.redreader.cache.CacheRequestCallbacks;
+import org.quantumbadger.redreader.cache.PrecacheScheduler;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategy;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyAlways;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfNotCached;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfTimestampOutsideBounds;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyNever;
 import org.quantumbadger.redreader.common.AndroidCommon;
+import org.quantumbadger.redreader.common.CachedThreadPool;
 import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.FileUtils;
 import org.quantumbadger.redreader.common.General;
@@ -71,6 +74,7 @@ import org.quantumbadger.redreader.image.GetImageInfoListener;
 import org.quantumbadger.redreader.image.ImageInfo;
 import org.quantumbadger.redreader.io.RequestResponseHandler;
 import org.quantumbadger.redreader.listingcontrollers.CommentListingController;
+import org.quantumbadger.redreader.reddit.PostFilter;
 import org.quantumbadger.redreader.reddit.PostSort;
 import org.quantumbadger.redreader.reddit.RedditPostListItem;
 import org.quantumbadger.redreader.reddit.RedditSubredditManager;
@@ -99,13 +103,16 @@ import org.quantumbadger.redreader.views.ScrollbarRecyclerViewManager;
 import org.quantumbadger.redreader.views.SearchListingHeader;
 import org.quantumbadger.redreader.views.liststatus.ErrorView;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PostListingFragment extends RRFragment
@@ -113,6 +120,9 @@ public class PostListingFragment extends RRFragment
 
 	private static final String TAG = "PostListingFragment";
 
+	private static final CachedThreadPool LISTING_PARSE_THREAD_POOL
+			= new CachedThreadPool(2, "Post listing parsing");
+
 	private static final String SAVEDSTATE_FIRST_VISIBLE_POS = "firstVisiblePosition";
 
 	@NonNull private PostListingURL mPostListingURL;
@@ -132,6 +142,7 @@ public class PostListingFragment extends RRFragment
 	private RedditIdAndType mLastAfter = null;
 	private CacheRequest mRequest;
 	private boolean mReadyToDownloadMore = false;
+	private volatile boolean mCancelled = false;
 	private TimestampUTC mTimestamp;
 
 	private int mPostCount = 0;
@@ -140,6 +151,11 @@ public class PostListingFragment extends RRFragment
 
 	private final HashSet<String> mPostIds = new HashSet<>(200);
 
+	// Pages of 25 (the Reddit default), loading at most two pages ahead of the user
+	private final ListingPrefetchPolicy mPrefetchPolicy = new ListingPrefetchPolicy(25, 20, 2);
+	private final PrecacheScheduler mPrecacheScheduler = new PrecacheScheduler();
+	private long mPageRequestTimeMs;
+
 	private Integer mPreviousFirstVisibleItemPosition;
 
 	// Session may be null
@@ -235,6 +251,18 @@ public class PostListingFragment extends RRFragment
 					@NonNull final RecyclerView recyclerView,
 					final int dx,
 					final int dy) {
+
+				final LinearLayoutManager layoutManager
+						= (LinearLayoutManager)recyclerView.getLayoutManager();
+
+				final int lastVisiblePosition = layoutManager.findLastVisibleItemPosition();
+
+				mPrefetchPolicy.onScrolled(lastVisiblePosition, SystemClock.uptimeMillis());
+
+				mPrecacheScheduler.onVisibleRangeChanged(
+						layoutManager.findFirstVisibleItemPosition(),
+						lastVisiblePosition);
+
 				onLoadMoreItemsCheck();
 			}
 		});
@@ -421,9 +449,14 @@ public class PostListingFragment extends RRFragment
 	}
 
 	public void cancel() {
+
+		mCancelled = true;
+
 		if(mRequest != null) {
 			mRequest.cancel();
 		}
+
+		mPrecacheScheduler.cancelAll();
 	}
 
 	public synchronized void restackRefreshCount() {
@@ -566,13 +599,19 @@ public class PostListingFragment extends RRFragment
 
 		General.checkThisIsUIThread();
 
+		if(mCancelled) {
+			return;
+		}
+
 		if(mReadyToDownloadMore && mAfter != null && !mAfter.equals(mLastAfter)) {
 
 			final LinearLayoutManager layoutManager
 					= (LinearLayoutManager)mRecyclerView.getLayoutManager();
 
-			if((layoutManager.getItemCount() - layoutManager.findLastVisibleItemPosition()
-					< 20
+			final int itemsRemaining
+					= layoutManager.getItemCount() - layoutManager.findLastVisibleItemPosition();
+
+			if((mPrefetchPolicy.shouldLoadNextPage(itemsRemaining, SystemClock.uptimeMillis())
 					&& (mPostCountLimit <= 0 || mPostRefreshCount.get() > 0)
 					|| (mPreviousFirstVisibleItemPosition != null
 					&& layoutManager.getItemCount()
@@ -597,6 +636,7 @@ public class PostListingFragment extends RRFragment
 						strategy,
 						false);
 				mPostListingManager.setLoadingVisible(true);
+				mPageRequestTimeMs = SystemClock.uptimeMillis();
 				CacheManager.getInstance(getActivity()).makeRequest(mRequest);
 
 			} else if(mPostCountLimit > 0 && mPostRefreshCount.get() <= 0) {
@@ -710,7 +750,7 @@ public class PostListingFragment extends RRFragment
 				.setCache(true)
 				.setCallbacks(new CacheRequestCallbacks() {
 					@Override
-					public void onDataStreamComplete(
+					public void onDataStreamAvailable(
 							@NonNull final GenericFactory<SeekableInputStream, IOException>
 									streamFactory,
 							final TimestampUTC timestamp,
@@ -718,6 +758,22 @@ public class PostListingFragment extends RRFragment
 							final boolean fromCache,
 							@Nullable final String mimetype) {
 
+						// The listing is parsed as it downloads. This is called on the download
+						// thread, which needs to keep filling the stream, so parse elsewhere.
+						LISTING_PARSE_THREAD_POOL.add(() -> onListingStreamAvailable(
+								streamFactory,
+								timestamp,
+								session,
+								fromCache));
+					}
+
+					private void onListingStreamAvailable(
+							@NonNull final GenericFactory<SeekableInputStream, IOException>
+									streamFactory,
+							final TimestampUTC timestamp,
+							@NonNull final UUID session,
+							final boolean fromCache) {
+
 						final BaseActivity activity = (BaseActivity)getActivity();
 
 						// One hour (matches default refresh value)
@@ -752,10 +808,14 @@ public class PostListingFragment extends RRFragment
 
 						// TODO {"error": 403} is received for unauthorized subreddits
 
+						final AtomicBoolean streamFailed = new AtomicBoolean(false);
+
 						try {
 
 							final RedditThing thing = JsonUtils.INSTANCE
-									.decodeRedditThingFromStream(streamFactory.create());
+									.decodeRedditThingFromStream(new FailureTrackingInputStream(
+											streamFactory.create(),
+											streamFailed));
 
 							if(!(thing instanceof RedditThing.Listing)) {
 								throw new RuntimeException("Expected listing, got "
@@ -767,8 +827,6 @@ public class PostListingFragment extends RRFragment
 							final ArrayList<MaybeParseError<RedditThing>> posts
 									= listing.getChildren();
 
-							final boolean isNsfwAllowed = PrefsUtility.pref_behaviour_nsfw();
-
 							final boolean hideReadPosts
 									= PrefsUtility.pref_behaviour_hide_read_posts()
 									&& mPostListingURL.pathType()
@@ -833,9 +891,7 @@ public class PostListingFragment extends RRFragment
 											|| mPostListingURL.asSubredditPostListURL().type
 											== SubredditPostListURL.Type.FRONTPAGE);
 
-							// Grab this so we don't have to pull from the prefs every post
-							final HashSet<SubredditCanonicalId> blockedSubreddits
-									= new HashSet<>(PrefsUtility.pref_blocked_subreddits());
+							final PostFilter postFilter = PostFilter.get();
 
 							Log.i(TAG, "Inline previews: "
 									+ (inlinePreviews ? "ON" : "OFF"));
@@ -876,12 +932,7 @@ public class PostListingFragment extends RRFragment
 
 								mAfter = post.getName();
 
-								final boolean isPostBlocked = subredditFilteringEnabled
-										&& blockedSubreddits.contains(
-										new SubredditCanonicalId(post.getSubreddit().getDecoded()));
-
-								if(!isPostBlocked
-										&& (!post.getOver_18() || isNsfwAllowed)
+								if(!postFilter.isPostHidden(post, subredditFilteringEnabled)
 										&& mPostIds.add(post.getIdAlone())) {
 
 									final boolean downloadThisThumbnail = downloadThumbnails
@@ -1007,12 +1058,25 @@ public class PostListingFragment extends RRFragment
 
 								onPostsAdded();
 
+								if(!firstDownload) {
+									mPrefetchPolicy.onPageLoaded(
+											SystemClock.uptimeMillis() - mPageRequestTimeMs);
+								}
+
 								mRequest = null;
 								mReadyToDownloadMore = true;
 								onLoadMoreItemsCheck();
 							});
 
 						} catch(final Throwable t) {
+
+							if(!fromCache && streamFailed.get()) {
+								// The download failed or was cancelled part way through.
+								// CacheDownload reports the actual cause, or nothing if the
+								// request was cancelled.
+								return;
+							}
+
 							onFailure(General.getGeneralErrorForFailure(
 									activity,
 									CacheRequest.RequestFailureType.PARSE,
@@ -1039,6 +1103,42 @@ public class PostListingFragment extends RRFragment
 				.build();
 	}
 
+	// Records whether the underlying stream threw, so that a failed download can be told apart
+	// from a listing which failed to parse
+	private static final class FailureTrackingInputStream extends FilterInputStream {
+
+		@NonNull private final AtomicBoolean mFailed;
+
+		FailureTrackingInputStream(
+				@NonNull final InputStream in,
+				@NonNull final AtomicBoolean failed) {
+
+			super(in);
+			mFailed = failed;
+		}
+
+		@Override
+		public int read() throws IOException {
+			try {
+				return super.read();
+			} catch(final IOException e) {
+				mFailed.set(true);
+				throw e;
+			}
+		}
+
+		@Override
+		public int read(@NonNull final byte[] buf, final int off, final int len)
+				throws IOException {
+			try {
+				return super.read(buf, off, len);
+			} catch(final IOException e) {
+				mFailed.set(true);
+				throw e;
+			}
+		}
+	}
+
 	private void precacheComments(
 			final Activity activity,
 			@NonNull final RedditPreparedPost preparedPost,
@@ -1053,6 +1153,7 @@ public class PostListingFragment extends RRFragment
 				.setUrl(url)
 				.setUser(RedditAccountManager.getInstance(activity).getDefaultAccount())
 				.setPriority(new Priority(Constants.Priority.COMMENT_PRECACHE, positionInList))
+				.setPrecacheScheduler(mPrecacheScheduler, positionInList)
 				.setDownloadStrategy(new DownloadStrategyIfTimestampOutsideBounds(
 						TimestampBound.notOlderThan(TimeDuration.minutes(15))))
 				.setFileType(Constants.FileType.COMMENT_LIST)
@@ -1168,6 +1269,7 @@ public class PostListingFragment extends RRFragment
 				.setUrl(url)
 				.setUser(RedditAccountManager.getAnon())
 				.setPriority(new Priority(Constants.Priority.IMAGE_PRECACHE, positionInList))
+				.setPrecacheScheduler(mPrecacheScheduler, positionInList)
 				.setDownloadStrategy(DownloadStrategyIfNotCached.INSTANCE)
 				.setFileType(Constants.FileType.IMAGE)
 				.setQueueType(CacheRequest.DownloadQueueType.IMAGE_PRECACHE)
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A rolling estimate of download bandwidth, measured from HTTP response bodies.
+ */
+public final class BandwidthEstimator {
+
+	// Smaller responses mostly measure latency rather than bandwidth
+	private static final long MIN_SAMPLE_BYTES = 32 * 1024;
+
+	// After this long without a sample the connection may have changed, so the old
+	// estimate is discarded
+	private static final long MAX_ESTIMATE_AGE_MS = 10 * 60 * 1000;
+
+	private static final BandwidthEstimator INSTANCE = new BandwidthEstimator();
+
+	private long mBytesPerSecond = -1;
+	private long mLastSampleTimeMs;
+
+	@NonNull
+	public static BandwidthEstimator getInstance() {
+		return INSTANCE;
+	}
+
+	public void addSample(final long bytes, final long durationMs) {
+		addSample(bytes, durationMs, nowMs());
+	}
+
+	public synchronized void addSample(final long bytes, final long durationMs, final long nowMs) {
+
+		if(bytes < MIN_SAMPLE_BYTES || durationMs <= 0) {
+			return;
+		}
+
+		final long sample = bytes * 1000 / durationMs;
+
+		if(mBytesPerSecond < 0 || nowMs - mLastSampleTimeMs > MAX_ESTIMATE_AGE_MS) {
+			mBytesPerSecond = sample;
+		} else {
+			mBytesPerSecond = (mBytesPerSecond * 3 + sample) / 4;
+		}
+
+		mLastSampleTimeMs = nowMs;
+	}
+
+	/**
+	 * @return The estimated bandwidth in bytes per second, or -1 if there's no recent estimate.
+	 */
+	public long getBytesPerSecond() {
+		return getBytesPerSecond(nowMs());
+	}
+
+	public synchronized long getBytesPerSecond(final long nowMs) {
+
+		if(mBytesPerSecond >= 0 && nowMs - mLastSampleTimeMs > MAX_ESTIMATE_AGE_MS) {
+			mBytesPerSecond = -1;
+		}
+
+		return mBytesPerSecond;
+	}
+
+	private static long nowMs() {
+		return System.nanoTime() / 1_000_000;
+	}
+
+	/**
+	 * Wraps a response body, and adds a sample once it has been read to the end or closed.
+	 * Timing starts when the stream is created, i.e. once the response headers have arrived.
+	 */
+	@NonNull
+	public InputStream measure(@NonNull final InputStream body) {
+		return new MeasuringInputStream(body);
+	}
+
+	private final class MeasuringInputStream extends FilterInputStream {
+
+		private final long mStartTimeMs = nowMs();
+		private long mBytesRead = 0;
+		private boolean mReported = false;
+
+		MeasuringInputStream(@NonNull final InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			final int result = super.read();
+
+			if(result < 0) {
+				report();
+			} else {
+				mBytesRead++;
+			}
+
+			return result;
+		}
+
+		@Override
+		public int read(@NonNull final byte[] b, final int off, final int len)
+				throws IOException {
+
+			final int result = super.read(b, off, len);
+
+			if(result < 0) {
+				report();
+			} else {
+				mBytesRead += result;
+			}
+
+			return result;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final long result = super.skip(n);
+			mBytesRead += result;
+			return result;
+		}
+
+		@Override
+		public void close() throws IOException {
+			report();
+			super.close();
+		}
+
+		private void report() {
+
+			if(!mReported) {
+				mReported = true;
+				addSample(mBytesRead, nowMs() - mStartTimeMs);
+			}
+		}
+	}
+}
@@ -41,6 +41,7 @@ import org.quantumbadger.redreader.common.RRError
 import org.quantumbadger.redreader.common.Result
 import org.quantumbadger.redreader.common.TorCommon
 import org.quantumbadger.redreader.common.UriString
+import org.quantumbadger.redreader.http.BandwidthEstimator
 import org.quantumbadger.redreader.http.FailedRequestBody
 import org.quantumbadger.redreader.http.HTTPBackend
 import org.quantumbadger.redreader.http.body.HTTPRequestBody
@@ -224,7 +225,7 @@ class OKHTTPBackend private constructor() : HTTPBackend() {
 						val bodyLength: Long?
 
 						if (body != null) {
-							bodyStream = body.byteStream()
+							bodyStream = BandwidthEstimator.getInstance().measure(body.byteStream())
 							bodyLength = body.contentLength().takeUnless { it < 0 }
 						} else {
 							bodyStream = null
@@ -20,6 +20,7 @@ package org.quantumbadger.redreader.image
 import androidx.compose.runtime.Immutable
 import org.apache.commons.text.StringEscapeUtils
 import org.quantumbadger.redreader.common.UriString
+import org.quantumbadger.redreader.jsonwrap.JsonArray
 import org.quantumbadger.redreader.jsonwrap.JsonObject
 import org.quantumbadger.redreader.reddit.kthings.ImageMetadata
 import org.quantumbadger.redreader.reddit.kthings.MaybeParseError
@@ -68,25 +69,33 @@ class AlbumInfo(
 			url: UriString,
 			obj: JsonObject
 		): AlbumInfo {
-			var title = obj.getString("title")
-			var description = obj.getString("description")
-
-			if (title != null) {
-				title = StringEscapeUtils.unescapeHtml4(title)
-			}
-
-			if (description != null) {
-				description = StringEscapeUtils.unescapeHtml4(description)
-			}
+			return parseImgurV3(
+				url,
+				obj.getString("title"),
+				obj.getString("description"),
+				obj.getArray("images")!!
+			)
+		}
 
-			val imagesJson = obj.getArray("images")
+		@JvmStatic
+		fun parseImgurV3(
+			url: UriString,
+			title: String?,
+			description: String?,
+			imagesJson: JsonArray
+		): AlbumInfo {
 			val images = ArrayList<ImageInfo>()
 
-			for (imageJson in imagesJson!!) {
+			for (imageJson in imagesJson) {
 				images.add(ImageInfo.parseImgurV3(imageJson.asObject()))
 			}
 
-			return AlbumInfo(url, title, description, images)
+			return AlbumInfo(
+				url,
+				title?.let { StringEscapeUtils.unescapeHtml4(it) },
+				description?.let { StringEscapeUtils.unescapeHtml4(it) },
+				images
+			)
 		}
 
 		private fun stringToMediaType(mediaTypeString: String?): ImageInfo.MediaType {
@@ -178,10 +187,20 @@ class AlbumInfo(
 						preview = getPreview(minSizePx = 1400, images = images)
 					}
 
+					val videoVariant = standardImage.mp4?.takeIf {
+						mediaType == ImageInfo.MediaType.GIF
+					}?.let {
+						ImageUrlInfo(
+							url = UriString(it.decoded),
+							size = ImageSize.from(standardImage.x, standardImage.y)
+						)
+					}
+
 					ImageInfo(
 						original = original,
 						preview = preview,
 						bigSquare = bigSquare,
+						videoVariant = videoVariant,
 						title = item.caption?.decoded,
 						outboundUrl = UriString.fromNullable(
 							item.outbound_url?.decoded?.trim()?.takeUnless { it.isEmpty() }),
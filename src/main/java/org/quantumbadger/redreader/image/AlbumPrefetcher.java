@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.UriString;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Fetches album entries ahead of the last visible one, so that they are already in the cache
+ * when scrolled to.
+ *
+ * The number of fetches in flight follows the measured download throughput. On a slow
+ * connection, parallel downloads only split the bandwidth and delay the entry which is
+ * needed next. On a fast connection, each download is dominated by latency, so running
+ * several at once helps.
+ */
+public final class AlbumPrefetcher {
+
+	private static final String TAG = "AlbumPrefetcher";
+
+	public interface Fetcher {
+		@NonNull
+		Request fetch(@NonNull UriString url, int index, @NonNull FetchListener listener);
+	}
+
+	public interface Request {
+		void cancel();
+	}
+
+	public interface FetchListener {
+		void onFetched(long bytes, long durationMs, boolean fromCache);
+
+		void onFailed();
+	}
+
+	public static final class Throughput {
+
+		// Smaller downloads mostly measure latency rather than bandwidth
+		private static final long MIN_SAMPLE_BYTES = 16 * 1024;
+
+		private long mBytesPerSecond = -1;
+
+		public synchronized void addSample(final long bytes, final long durationMs) {
+
+			if(bytes < MIN_SAMPLE_BYTES || durationMs <= 0) {
+				return;
+			}
+
+			final long sample = bytes * 1000 / durationMs;
+
+			if(mBytesPerSecond < 0) {
+				mBytesPerSecond = sample;
+			} else {
+				mBytesPerSecond = (mBytesPerSecond * 7 + sample * 3) / 10;
+			}
+		}
+
+		public synchronized long getBytesPerSecond() {
+			return mBytesPerSecond;
+		}
+
+		public synchronized int getRecommendedConcurrency() {
+
+			if(mBytesPerSecond < 0) {
+				return 2;
+			} else if(mBytesPerSecond < 256 * 1024) {
+				return 1;
+			} else if(mBytesPerSecond < 1024 * 1024) {
+				return 2;
+			} else if(mBytesPerSecond < 4 * 1024 * 1024) {
+				return 3;
+			} else {
+				return 4;
+			}
+		}
+	}
+
+	// Shared between albums, so a new album starts with the last known throughput
+	public static final Throughput THROUGHPUT = new Throughput();
+
+	private final class Slot implements FetchListener {
+
+		final int index;
+		@Nullable Request request;
+
+		Slot(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void onFetched(final long bytes, final long durationMs, final boolean fromCache) {
+
+			if(!fromCache) {
+				mThroughput.addSample(bytes, durationMs);
+			}
+
+			onSlotFinished(this);
+		}
+
+		@Override
+		public void onFailed() {
+			onSlotFinished(this);
+		}
+	}
+
+	@NonNull private final List<UriString> mUrls;
+	private final int mDistance;
+	@NonNull private final Throughput mThroughput;
+	@NonNull private final Fetcher mFetcher;
+
+	// Entries which have been fetched, or are being fetched
+	@NonNull private final boolean[] mStarted;
+	@NonNull private final HashMap<Integer, Slot> mInFlight = new HashMap<>();
+
+	private int mWindowStart = 0;
+	private int mWindowEnd = -1;
+	private boolean mCancelled = false;
+
+	/**
+	 * @param urls The URL displayed for each album entry, or null if there is nothing to
+	 *             prefetch for that entry.
+	 * @param distance How many entries past the last visible one to prefetch.
+	 */
+	public AlbumPrefetcher(
+			@NonNull final List<UriString> urls,
+			final int distance,
+			@NonNull final Throughput throughput,
+			@NonNull final Fetcher fetcher) {
+
+		mUrls = new ArrayList<>(urls);
+		mDistance = distance;
+		mThroughput = throughput;
+		mFetcher = fetcher;
+		mStarted = new boolean[mUrls.size()];
+	}
+
+	public void onLastVisibleIndexChanged(final int lastVisibleIndex) {
+
+		synchronized(this) {
+			mWindowStart = Math.max(0, lastVisibleIndex + 1);
+			mWindowEnd = Math.min(mUrls.size() - 1, lastVisibleIndex + mDistance);
+		}
+
+		startFetches();
+	}
+
+	public void cancel() {
+
+		final ArrayList<Slot> slots;
+
+		synchronized(this) {
+			mCancelled = true;
+			slots = new ArrayList<>(mInFlight.values());
+			mInFlight.clear();
+		}
+
+		for(final Slot slot : slots) {
+			if(slot.request != null) {
+				slot.request.cancel();
+			}
+		}
+	}
+
+	public synchronized int getInFlightCount() {
+		return mInFlight.size();
+	}
+
+	private void onSlotFinished(@NonNull final Slot slot) {
+
+		synchronized(this) {
+			if(mInFlight.get(slot.index) != slot) {
+				return;
+			}
+
+			mInFlight.remove(slot.index);
+		}
+
+		startFetches();
+	}
+
+	private void startFetches() {
+
+		final ArrayList<Slot> toStart = new ArrayList<>();
+
+		synchronized(this) {
+
+			if(mCancelled) {
+				return;
+			}
+
+			final int concurrency = mThroughput.getRecommendedConcurrency();
+
+			for(int i = mWindowStart;
+					i <= mWindowEnd && mInFlight.size() < concurrency;
+					i++) {
+
+				if(mStarted[i] || mUrls.get(i) == null) {
+					continue;
+				}
+
+				final Slot slot = new Slot(i);
+				mStarted[i] = true;
+				mInFlight.put(i, slot);
+				toStart.add(slot);
+			}
+		}
+
+		// The fetcher may call back synchronously, so it's called without the lock held
+		for(final Slot slot : toStart) {
+
+			if(General.isSensitiveDebugLoggingEnabled()) {
+				Log.i(TAG, "Prefetching album entry " + slot.index);
+			}
+
+			final Request request = mFetcher.fetch(mUrls.get(slot.index), slot.index, slot);
+
+			final boolean cancelled;
+
+			synchronized(this) {
+				slot.request = request;
+				cancelled = mCancelled;
+			}
+
+			if(cancelled) {
+				request.cancel();
+			}
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A bounded pool of mutable bitmaps, bucketed by allocation size, for reuse as
+ * {@link android.graphics.BitmapFactory.Options#inBitmap} targets.
+ */
+public final class BitmapPool {
+
+	// Don't hand out a bitmap which is much larger than required
+	private static final int MAX_OVERSIZE_FACTOR = 4;
+
+	private final long mMaxBytes;
+	private long mPooledBytes = 0;
+
+	@NonNull private final TreeMap<Integer, ArrayDeque<Bitmap>> mBuckets = new TreeMap<>();
+
+	public BitmapPool(final long maxBytes) {
+		mMaxBytes = maxBytes;
+	}
+
+	/**
+	 * @return A mutable bitmap with an allocation of at least the specified size, or null if
+	 *          there is none in the pool.
+	 */
+	@Nullable
+	public synchronized Bitmap obtain(final int minBytes) {
+
+		Map.Entry<Integer, ArrayDeque<Bitmap>> entry = mBuckets.ceilingEntry(minBytes);
+
+		while(entry != null && entry.getKey() <= (long)minBytes * MAX_OVERSIZE_FACTOR) {
+
+			final Bitmap result = entry.getValue().pollFirst();
+
+			if(entry.getValue().isEmpty()) {
+				mBuckets.remove(entry.getKey());
+			}
+
+			if(result != null) {
+				mPooledBytes -= entry.getKey();
+
+				if(!result.isRecycled()) {
+					return result;
+				}
+			}
+
+			entry = mBuckets.ceilingEntry(minBytes);
+		}
+
+		return null;
+	}
+
+	public synchronized void release(@Nullable final Bitmap bitmap) {
+
+		if(bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+			return;
+		}
+
+		final int bytes = bitmap.getAllocationByteCount();
+
+		if(bytes > mMaxBytes) {
+			return;
+		}
+
+		// Evict the largest bitmaps first
+		while(mPooledBytes + bytes > mMaxBytes && !mBuckets.isEmpty()) {
+
+			final Map.Entry<Integer, ArrayDeque<Bitmap>> largest = mBuckets.lastEntry();
+			largest.getValue().pollFirst();
+			mPooledBytes -= largest.getKey();
+
+			if(largest.getValue().isEmpty()) {
+				mBuckets.remove(largest.getKey());
+			}
+		}
+
+		ArrayDeque<Bitmap> bucket = mBuckets.get(bytes);
+
+		if(bucket == null) {
+			bucket = new ArrayDeque<>();
+			mBuckets.put(bytes, bucket);
+		}
+
+		bucket.addLast(bitmap);
+		mPooledBytes += bytes;
+	}
+}
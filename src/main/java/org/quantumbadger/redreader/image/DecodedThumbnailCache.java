@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.UriString;
+
+/**
+ * In-memory cache of scaled thumbnails, so that posts scrolled back into view (or shown
+ * again after a refresh) don't need to be decoded a second time.
+ */
+public final class DecodedThumbnailCache {
+
+	private static final int MAX_BYTES = (int)Math.min(
+			Runtime.getRuntime().maxMemory() / 16,
+			32 * 1024 * 1024);
+
+	@NonNull private static final LruCache<String, Bitmap> CACHE
+			= new LruCache<String, Bitmap>(MAX_BYTES) {
+				@Override
+				protected int sizeOf(final String key, final Bitmap value) {
+					return value.getAllocationByteCount();
+				}
+			};
+
+	private DecodedThumbnailCache() {}
+
+	@NonNull
+	private static String key(@NonNull final UriString url, final int widthPx) {
+		return widthPx + ":" + url;
+	}
+
+	@Nullable
+	public static Bitmap get(@NonNull final UriString url, final int widthPx) {
+		return CACHE.get(key(url, widthPx));
+	}
+
+	public static void put(
+			@NonNull final UriString url,
+			final int widthPx,
+			@NonNull final Bitmap thumbnail) {
+
+		CACHE.put(key(url, widthPx), thumbnail);
+	}
+}
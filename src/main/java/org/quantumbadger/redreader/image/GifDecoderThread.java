@@ -18,29 +18,32 @@
 package org.quantumbadger.redreader.image;
 
 import android.graphics.Bitmap;
-import android.os.Handler;
-import android.os.Looper;
-import android.os.Message;
 import android.util.Log;
-import android.widget.ImageView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import jp.tomorrowkey.android.gifplayer.GifDecoder;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 
-import java.io.InputStream;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Locale;
 
+/**
+ * Decodes a GIF into a {@link GifFrameRingBuffer}, restarting from the beginning of the stream
+ * each time the animation loops. Only a bounded number of frames are held in memory.
+ */
 public class GifDecoderThread extends Thread {
 
 	@NonNull private static final String TAG = "GifDecoderThread";
 
+	private static final int BUFFERED_FRAMES = 4;
+
 	private volatile boolean playing = true;
-	private final InputStream is;
-	private ImageView view;
-	private final OnGifLoadedListener listener;
+	@NonNull private final SeekableInputStream is;
+	@NonNull private final GifFrameRingBuffer buffer = new GifFrameRingBuffer(BUFFERED_FRAMES);
+	@NonNull private final OnGifLoadedListener listener;
 
-	public void setView(final ImageView view) {
-		this.view = view;
-	}
+	private int framesInPass;
+	private boolean loaded = false;
+	private long startTimeNanos;
 
 	public interface OnGifLoadedListener {
 		void onGifLoaded();
@@ -50,102 +53,115 @@ public class GifDecoderThread extends Thread {
 		void onGifInvalid();
 	}
 
-	private final Handler handler = new Handler(Looper.getMainLooper()) {
+	private final GifDecoder.FrameSink sink = new GifDecoder.FrameSink() {
+
+		@Nullable
+		@Override
+		public Bitmap obtainFrameBitmap(final int width, final int height) {
+			try {
+				return buffer.obtainBitmap(width, height);
+			} catch(final InterruptedException e) {
+				return null;
+			}
+		}
+
 		@Override
-		public void handleMessage(@NonNull final Message msg) {
-			if(playing && view != null) {
-				view.setImageBitmap((Bitmap)msg.obj);
+		public boolean onFrame(final Bitmap frame, final int delayMs) {
+
+			try {
+				if(!buffer.publishFrame(frame, Math.max(32, delayMs))) {
+					return false;
+				}
+			} catch(final InterruptedException e) {
+				return false;
+			}
+
+			framesInPass++;
+
+			if(!loaded) {
+				loaded = true;
+
+				Log.i(TAG, String.format(
+						Locale.US,
+						"First frame (%dx%d) ready after %d ms",
+						frame.getWidth(),
+						frame.getHeight(),
+						(System.nanoTime() - startTimeNanos) / 1_000_000));
+
+				listener.onGifLoaded();
 			}
+
+			return playing;
 		}
 	};
 
-	public GifDecoderThread(final InputStream is, final OnGifLoadedListener listener) {
-		super("GIF playing thread");
+	public GifDecoderThread(
+			@NonNull final SeekableInputStream is,
+			@NonNull final OnGifLoadedListener listener) {
+
+		super("GIF decoding thread");
 		this.is = is;
 		this.listener = listener;
 	}
 
+	@NonNull
+	public GifFrameRingBuffer getBuffer() {
+		return buffer;
+	}
+
 	public void stopPlaying() {
 		playing = false;
+		buffer.close();
 		interrupt();
-
-		try {
-			is.close();
-		} catch(final Throwable t) {
-			Log.e(TAG, "Exception while stopping", t);
-		}
 	}
 
 	@Override
 	public void run() {
 
-		final AtomicBoolean loaded = new AtomicBoolean(false);
-		final AtomicBoolean failed = new AtomicBoolean(false);
-
 		final GifDecoder decoder = new GifDecoder();
-
-		new Thread("GIF decoding thread") {
-			@Override
-			public void run() {
-				try {
-					decoder.read(is);
-					loaded.set(true);
-				} catch(final Throwable t) {
-					Log.i(TAG, "Got exception", t);
-					failed.set(true);
-				}
-			}
-		}.start();
+		startTimeNanos = System.nanoTime();
 
 		try {
 
-			if(!playing) {
-				return;
-			}
-
-			listener.onGifLoaded();
-
-			int frame = 0;
-
 			while(playing) {
 
-				while(decoder.getFrameCount() <= frame + 1
-						&& !loaded.get()
-						&& !failed.get()) {
-					try {
-						sleep(100);
-					} catch(final InterruptedException e) {
-						return;
-					}
-				}
-
-				frame = frame % decoder.getFrameCount();
-
-				final Bitmap img = decoder.getFrame(frame);
+				framesInPass = 0;
+				is.seek(0);
 
-				final Message msg = Message.obtain();
-				msg.obj = img;
-				handler.sendMessage(msg);
+				final int status = decoder.readStreaming(is, sink);
 
-				try {
-					sleep(Math.max(32, decoder.getDelay(frame)));
-				} catch(final InterruptedException e) {
+				if(!playing) {
 					return;
 				}
 
-				if(failed.get()) {
+				if(framesInPass == 0) {
+					Log.i(TAG, "No frames decoded, status " + status);
 					listener.onGifInvalid();
 					return;
 				}
 
-				frame++;
+				if(decoder.getFrameCount() <= 1) {
+					// Nothing to animate: leave the single frame on screen
+					return;
+				}
 			}
 
 		} catch(final OutOfMemoryError e) {
 			listener.onOutOfMemory();
 
 		} catch(final Throwable t) {
-			listener.onGifInvalid();
+			Log.i(TAG, "Got exception", t);
+
+			if(playing) {
+				listener.onGifInvalid();
+			}
+
+		} finally {
+			try {
+				is.close();
+			} catch(final Throwable t) {
+				Log.e(TAG, "Exception while closing stream", t);
+			}
 		}
 	}
 }
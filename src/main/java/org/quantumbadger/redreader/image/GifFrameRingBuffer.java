@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+
+/**
+ * A bounded queue of decoded animation frames, shared between a decoding thread and the UI
+ * thread. Bitmaps are recycled between frames, so once the buffer is full, decoding an
+ * animation of any length allocates no further bitmaps.
+ */
+public final class GifFrameRingBuffer {
+
+	private final int mCapacity;
+
+	@NonNull private final Bitmap[] mFrames;
+	@NonNull private final int[] mDelaysMs;
+	private int mReadIndex = 0;
+	private int mQueuedCount = 0;
+
+	@NonNull private final ArrayDeque<Bitmap> mFreeBitmaps = new ArrayDeque<>();
+	private int mAllocatedCount = 0;
+
+	@Nullable private Bitmap mCurrentFrame;
+	private int mCurrentDelayMs;
+
+	private boolean mClosed = false;
+
+	public GifFrameRingBuffer(final int capacity) {
+		mCapacity = capacity;
+		mFrames = new Bitmap[capacity];
+		mDelaysMs = new int[capacity];
+	}
+
+	/**
+	 * Called from the decoding thread. Blocks until a bitmap is free.
+	 *
+	 * @return A bitmap of the requested size, or null if the buffer has been closed.
+	 */
+	@Nullable
+	public synchronized Bitmap obtainBitmap(
+			final int width,
+			final int height) throws InterruptedException {
+
+		// One extra bitmap is needed for the frame currently on screen
+		while(!mClosed && mFreeBitmaps.isEmpty() && mAllocatedCount > mCapacity) {
+			wait();
+		}
+
+		if(mClosed) {
+			return null;
+		}
+
+		while(!mFreeBitmaps.isEmpty()) {
+
+			final Bitmap bitmap = mFreeBitmaps.removeFirst();
+
+			if(bitmap.getWidth() == width && bitmap.getHeight() == height) {
+				return bitmap;
+			}
+
+			mAllocatedCount--;
+		}
+
+		mAllocatedCount++;
+		return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+	}
+
+	/**
+	 * Called from the decoding thread. Blocks until there is space in the queue.
+	 *
+	 * @return false if the buffer has been closed.
+	 */
+	public synchronized boolean publishFrame(
+			@NonNull final Bitmap frame,
+			final int delayMs) throws InterruptedException {
+
+		while(!mClosed && mQueuedCount >= mCapacity) {
+			wait();
+		}
+
+		if(mClosed) {
+			return false;
+		}
+
+		final int writeIndex = (mReadIndex + mQueuedCount) % mCapacity;
+		mFrames[writeIndex] = frame;
+		mDelaysMs[writeIndex] = delayMs;
+		mQueuedCount++;
+
+		return true;
+	}
+
+	/**
+	 * Called from the UI thread. Makes the next queued frame current, and returns the previous
+	 * current frame to the pool.
+	 *
+	 * @return false if no frame was queued.
+	 */
+	public synchronized boolean advance() {
+
+		if(mQueuedCount == 0) {
+			return false;
+		}
+
+		if(mCurrentFrame != null) {
+			mFreeBitmaps.addLast(mCurrentFrame);
+		}
+
+		mCurrentFrame = mFrames[mReadIndex];
+		mCurrentDelayMs = mDelaysMs[mReadIndex];
+
+		mFrames[mReadIndex] = null;
+		mReadIndex = (mReadIndex + 1) % mCapacity;
+		mQueuedCount--;
+
+		notifyAll();
+		return true;
+	}
+
+	@Nullable
+	public synchronized Bitmap getCurrentFrame() {
+		return mCurrentFrame;
+	}
+
+	public synchronized int getCurrentFrameDelayMs() {
+		return mCurrentDelayMs;
+	}
+
+	public synchronized void close() {
+		mClosed = true;
+		notifyAll();
+	}
+}
@@ -74,6 +74,9 @@ data class ImageInfo(
 	@JvmField val bigSquare: ImageUrlInfo? = null,
 	@JvmField val preview: ImageUrlInfo? = null,
 
+	// For animated GIFs, an equivalent MP4/WebM rendition, if the host provides one
+	@JvmField val videoVariant: ImageUrlInfo? = null,
+
 	@JvmField val urlAudioStream: UriString? = null,
 
 	@JvmField val title: String? = null,
@@ -0,0 +1,634 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.AndroidCommon;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.common.Priority;
+import org.quantumbadger.redreader.common.RRError;
+import org.quantumbadger.redreader.common.SerializeUtils;
+import org.quantumbadger.redreader.common.StringUtils;
+import org.quantumbadger.redreader.common.UriString;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the result of resolving a link to an image, so that a link which has already
+ * been looked up (by listing precache, the image viewer, or a save) doesn't repeat the
+ * host's API requests. Concurrent lookups for the same link share a single resolution.
+ *
+ * Only lookups which need the host's API go through this cache. Links which can be
+ * resolved from the URL alone are cheap to resolve again, and would otherwise push the
+ * API results out of the cache.
+ *
+ * Successful and "not an image" results are kept on disk until they expire. Failures are
+ * never stored, so that a retry always goes back to the network.
+ *
+ * File format (big-endian):
+ *   int magic, int version, int entry count, then for each entry: the key, long expiry
+ *   time (ms), int kind, and for images the fields of the ImageInfo in constructor order.
+ *   Strings, sizes and flags are written with {@link SerializeUtils}, so may be null.
+ */
+public final class ImageInfoCache {
+
+	private static final String TAG = "ImageInfoCache";
+
+	private static final int MAGIC = 0x52524949; // "RRII"
+	private static final int VERSION = 2;
+
+	private static final int MAX_ENTRIES = 2048;
+
+	public static final long SUCCESS_TTL_MS = 24L * 60 * 60 * 1000;
+	public static final long SHORT_LIVED_SUCCESS_TTL_MS = 60L * 60 * 1000;
+	public static final long NOT_AN_IMAGE_TTL_MS = 7L * 24 * 60 * 60 * 1000;
+
+	private static final long WRITE_DELAY_MS = 10_000;
+
+	// Hosts which return signed media URLs that stop working after a few hours
+	private static final String[] SHORT_LIVED_HOSTS = {"redgifs.com", "streamable.com"};
+
+	private static final int KIND_IMAGE = 0;
+	private static final int KIND_NOT_AN_IMAGE = 1;
+
+	private static final CachedThreadPool DISK_THREAD
+			= new CachedThreadPool(1, "ImageInfoCache");
+
+	private static ImageInfoCache singleton;
+
+	public interface Resolver {
+		void resolve(@NonNull Priority priority, @NonNull GetImageInfoListener listener);
+	}
+
+	private static final class Pending {
+
+		@NonNull final ArrayList<GetImageInfoListener> listeners = new ArrayList<>(2);
+		@NonNull Priority priority;
+		int attempt = 0;
+
+		Pending(@NonNull final Priority priority) {
+			this.priority = priority;
+		}
+	}
+
+	private static final class Entry {
+
+		final int kind;
+		@Nullable final ImageInfo info;
+		final long expiresAtMs;
+
+		Entry(final int kind, @Nullable final ImageInfo info, final long expiresAtMs) {
+			this.kind = kind;
+			this.info = info;
+			this.expiresAtMs = expiresAtMs;
+		}
+	}
+
+	@NonNull private final File mFile;
+
+	private final LinkedHashMap<String, Entry> mEntries
+			= new LinkedHashMap<String, Entry>(256, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+					return size() > MAX_ENTRIES;
+				}
+			};
+
+	private final HashMap<String, Pending> mPending = new HashMap<>();
+
+	private boolean mWriteScheduled = false;
+
+	@NonNull private final AtomicInteger mHits = new AtomicInteger(0);
+	@NonNull private final AtomicInteger mCollapsed = new AtomicInteger(0);
+	@NonNull private final AtomicInteger mResolutions = new AtomicInteger(0);
+	@NonNull private final AtomicLong mResolutionTimeMs = new AtomicLong(0);
+
+	public static synchronized ImageInfoCache getInstance(@NonNull final Context context) {
+
+		if(singleton == null) {
+			singleton = new ImageInfoCache(new File(
+					context.getApplicationContext().getCacheDir(),
+					"rr_image_info"));
+
+			DISK_THREAD.add(singleton::load);
+		}
+
+		return singleton;
+	}
+
+	private ImageInfoCache(@NonNull final File file) {
+		mFile = file;
+	}
+
+	/**
+	 * Delivers the cached result for the URL if there is one, otherwise runs the resolver.
+	 * Cached results are delivered synchronously on the calling thread.
+	 *
+	 * A lookup for a URL which is already being resolved waits for that result, unless it
+	 * has a higher priority, in which case the resolver is run again at the new priority
+	 * and the first result from either is used.
+	 */
+	public void get(
+			@NonNull final UriString url,
+			@NonNull final Priority priority,
+			@NonNull final Resolver resolver,
+			@NonNull final GetImageInfoListener listener) {
+
+		final String key = normaliseKey(url.value);
+		final Entry cached;
+		final int attempt;
+
+		synchronized(this) {
+
+			final Entry entry = mEntries.get(key);
+
+			if(entry != null && entry.expiresAtMs > System.currentTimeMillis()) {
+				cached = entry;
+				attempt = 0;
+
+			} else {
+
+				if(entry != null) {
+					mEntries.remove(key);
+				}
+
+				cached = null;
+
+				Pending pending = mPending.get(key);
+
+				if(pending == null) {
+					pending = new Pending(priority);
+					mPending.put(key, pending);
+
+				} else if(priority.isHigherPriorityThan(pending.priority)) {
+					pending.priority = priority;
+					pending.attempt++;
+
+				} else {
+					pending.listeners.add(listener);
+					mCollapsed.incrementAndGet();
+					return;
+				}
+
+				pending.listeners.add(listener);
+				attempt = pending.attempt;
+			}
+		}
+
+		if(cached != null) {
+			mHits.incrementAndGet();
+			deliver(cached, listener);
+			return;
+		}
+
+		final long startTime = System.nanoTime();
+
+		try {
+			resolver.resolve(priority, new GetImageInfoListener() {
+
+				@Override
+				public void onFailure(@NonNull final RRError error) {
+
+					final ArrayList<GetImageInfoListener> listeners;
+
+					synchronized(ImageInfoCache.this) {
+
+						final Pending pending = mPending.get(key);
+
+						// If a higher priority attempt was started, let that one report
+						if(pending == null || pending.attempt != attempt) {
+							return;
+						}
+
+						mPending.remove(key);
+						listeners = pending.listeners;
+					}
+
+					for(final GetImageInfoListener pendingListener : listeners) {
+						pendingListener.onFailure(error);
+					}
+				}
+
+				@Override
+				public void onSuccess(final ImageInfo info) {
+					onResolved(key, startTime, new Entry(
+							KIND_IMAGE,
+							info,
+							System.currentTimeMillis() + getSuccessTtlMs(key)));
+				}
+
+				@Override
+				public void onNotAnImage() {
+					onResolved(key, startTime, new Entry(
+							KIND_NOT_AN_IMAGE,
+							null,
+							System.currentTimeMillis() + NOT_AN_IMAGE_TTL_MS));
+				}
+			});
+
+		} catch(final RuntimeException e) {
+
+			synchronized(this) {
+				mPending.remove(key);
+			}
+
+			throw e;
+		}
+	}
+
+	private void onResolved(
+			@NonNull final String key,
+			final long startTime,
+			@NonNull final Entry entry) {
+
+		mResolutions.incrementAndGet();
+		mResolutionTimeMs.addAndGet((System.nanoTime() - startTime) / 1_000_000);
+
+		final Pending pending;
+
+		synchronized(this) {
+
+			pending = mPending.remove(key);
+
+			if(pending == null) {
+				// Another attempt for this URL has already reported its result
+				return;
+			}
+
+			mEntries.put(key, entry);
+			scheduleWrite();
+		}
+
+		for(final GetImageInfoListener listener : pending.listeners) {
+			deliver(entry, listener);
+		}
+	}
+
+	private static void deliver(
+			@NonNull final Entry entry,
+			@NonNull final GetImageInfoListener listener) {
+
+		if(entry.kind == KIND_IMAGE) {
+			listener.onSuccess(entry.info);
+		} else {
+			listener.onNotAnImage();
+		}
+	}
+
+	public synchronized void clear() {
+		mEntries.clear();
+		mFile.delete();
+	}
+
+	@NonNull
+	public String getStatsSummary() {
+
+		final int resolutions = mResolutions.get();
+
+		return String.format(
+				Locale.US,
+				"%d lookups served from cache, %d joined an in-flight lookup, "
+						+ "%d resolved (average %d ms)",
+				mHits.get(),
+				mCollapsed.get(),
+				resolutions,
+				resolutions == 0 ? 0 : mResolutionTimeMs.get() / resolutions);
+	}
+
+	private void scheduleWrite() {
+
+		// Called with the lock held
+		if(!mWriteScheduled) {
+			mWriteScheduled = true;
+			AndroidCommon.UI_THREAD_HANDLER.postDelayed(
+					() -> DISK_THREAD.add(this::write),
+					WRITE_DELAY_MS);
+		}
+	}
+
+	// Runs on DISK_THREAD before any write, so a write never replaces entries which
+	// haven't been loaded yet
+	private void load() {
+
+		if(!mFile.isFile()) {
+			return;
+		}
+
+		try(DataInputStream dis = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(mFile)))) {
+
+			if(dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+				mFile.delete();
+				return;
+			}
+
+			final long now = System.currentTimeMillis();
+			final int count = dis.readInt();
+
+			for(int i = 0; i < count; i++) {
+
+				final String key = readString(dis);
+				final long expiresAtMs = dis.readLong();
+				final int kind = dis.readInt();
+
+				final ImageInfo info = kind == KIND_IMAGE ? readImageInfo(dis) : null;
+
+				if(key == null || expiresAtMs <= now) {
+					continue;
+				}
+
+				synchronized(this) {
+					if(!mEntries.containsKey(key)) {
+						mEntries.put(key, new Entry(kind, info, expiresAtMs));
+					}
+				}
+			}
+
+		} catch(final EOFException
+				| SerializeUtils.UnhandledTypeException
+				| IllegalArgumentException
+				| NullPointerException
+				| ClassCastException e) {
+
+			Log.e(TAG, "Invalid image info cache file", e);
+			mFile.delete();
+
+		} catch(final IOException e) {
+			Log.e(TAG, "Failed to read image info cache", e);
+		}
+	}
+
+	private void write() {
+
+		final ArrayList<Map.Entry<String, Entry>> entries;
+		final long now = System.currentTimeMillis();
+
+		synchronized(this) {
+
+			mWriteScheduled = false;
+			entries = new ArrayList<>(mEntries.size());
+
+			for(final Map.Entry<String, Entry> entry : mEntries.entrySet()) {
+
+				final Entry value = entry.getValue();
+
+				if(value.expiresAtMs > now && (value.kind != KIND_IMAGE || value.info != null)) {
+					entries.add(entry);
+				}
+			}
+		}
+
+		final File tmpFile = new File(mFile.getParentFile(), mFile.getName() + ".tmp");
+
+		try(DataOutputStream dos = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(entries.size());
+
+			for(final Map.Entry<String, Entry> entry : entries) {
+
+				SerializeUtils.serialize(dos, entry.getKey());
+				dos.writeLong(entry.getValue().expiresAtMs);
+				dos.writeInt(entry.getValue().kind);
+
+				if(entry.getValue().kind == KIND_IMAGE) {
+					writeImageInfo(dos, entry.getValue().info);
+				}
+			}
+
+		} catch(final IOException | SerializeUtils.UnhandledTypeException e) {
+			Log.e(TAG, "Failed to write image info cache", e);
+			tmpFile.delete();
+			return;
+		}
+
+		if(!tmpFile.renameTo(mFile)) {
+			tmpFile.delete();
+		}
+
+		Log.i(TAG, "Wrote " + entries.size() + " entries: " + getStatsSummary());
+	}
+
+	private static void writeImageInfo(
+			@NonNull final DataOutputStream dos,
+			@NonNull final ImageInfo info)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		writeImageUrlInfo(dos, info.original);
+		writeImageUrlInfo(dos, info.bigSquare);
+		writeImageUrlInfo(dos, info.preview);
+		writeImageUrlInfo(dos, info.videoVariant);
+		writeUriString(dos, info.urlAudioStream);
+		SerializeUtils.serialize(dos, info.title);
+		SerializeUtils.serialize(dos, info.caption);
+		writeUriString(dos, info.outboundUrl);
+		SerializeUtils.serialize(dos, info.type);
+		SerializeUtils.serialize(dos, info.isAnimated());
+		SerializeUtils.serialize(dos, info.mediaType == null ? null : info.mediaType.name());
+		SerializeUtils.serialize(dos, info.hasAudio.name());
+	}
+
+	@NonNull
+	private static ImageInfo readImageInfo(@NonNull final DataInputStream dis)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		final ImageUrlInfo original = readImageUrlInfo(dis);
+
+		if(original == null) {
+			throw new IllegalArgumentException("Missing original URL");
+		}
+
+		final ImageUrlInfo bigSquare = readImageUrlInfo(dis);
+		final ImageUrlInfo preview = readImageUrlInfo(dis);
+		final ImageUrlInfo videoVariant = readImageUrlInfo(dis);
+		final UriString urlAudioStream = readUriString(dis);
+		final String title = readString(dis);
+		final String caption = readString(dis);
+		final UriString outboundUrl = readUriString(dis);
+		final String type = readString(dis);
+		final Boolean isAnimated = (Boolean)SerializeUtils.deserialize(dis);
+		final String mediaType = readString(dis);
+		final String hasAudio = readString(dis);
+
+		return new ImageInfo(
+				original,
+				bigSquare,
+				preview,
+				videoVariant,
+				urlAudioStream,
+				title,
+				caption,
+				outboundUrl,
+				type,
+				isAnimated,
+				mediaType == null ? null : ImageInfo.MediaType.valueOf(mediaType),
+				ImageInfo.HasAudio.valueOf(hasAudio));
+	}
+
+	private static void writeImageUrlInfo(
+			@NonNull final DataOutputStream dos,
+			@Nullable final ImageUrlInfo info)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		if(info == null) {
+			SerializeUtils.serialize(dos, null);
+			return;
+		}
+
+		SerializeUtils.serialize(dos, info.url.value);
+		SerializeUtils.serialize(dos, info.size == null ? null : info.size.getWidth());
+		SerializeUtils.serialize(dos, info.size == null ? null : info.size.getHeight());
+		SerializeUtils.serialize(dos, info.sizeBytes);
+	}
+
+	@Nullable
+	private static ImageUrlInfo readImageUrlInfo(@NonNull final DataInputStream dis)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		final String url = readString(dis);
+
+		if(url == null) {
+			return null;
+		}
+
+		final Integer width = (Integer)SerializeUtils.deserialize(dis);
+		final Integer height = (Integer)SerializeUtils.deserialize(dis);
+		final Long sizeBytes = (Long)SerializeUtils.deserialize(dis);
+
+		return new ImageUrlInfo(
+				new UriString(url),
+				width == null || height == null ? null : new ImageSize(width, height),
+				sizeBytes);
+	}
+
+	private static void writeUriString(
+			@NonNull final DataOutputStream dos,
+			@Nullable final UriString value)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		SerializeUtils.serialize(dos, value == null ? null : value.value);
+	}
+
+	@Nullable
+	private static UriString readUriString(@NonNull final DataInputStream dis)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		return UriString.fromNullable(readString(dis));
+	}
+
+	@Nullable
+	private static String readString(@NonNull final DataInputStream dis)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		return (String)SerializeUtils.deserialize(dis);
+	}
+
+	/**
+	 * Returns the form of the URL used as the cache key. The scheme and host are lowercased,
+	 * http is treated as https, and any "www." prefix, fragment and trailing slash are
+	 * removed.
+	 */
+	@NonNull
+	public static String normaliseKey(@NonNull final String url) {
+
+		String result = url.trim();
+
+		final int fragmentStart = result.indexOf('#');
+
+		if(fragmentStart >= 0) {
+			result = result.substring(0, fragmentStart);
+		}
+
+		if(result.endsWith("/")) {
+			result = result.substring(0, result.length() - 1);
+		}
+
+		final int schemeEnd = result.indexOf("://");
+
+		if(schemeEnd < 0) {
+			return result;
+		}
+
+		final int hostStart = schemeEnd + 3;
+		final int hostEnd = findHostEnd(result, hostStart);
+
+		String scheme = StringUtils.asciiLowercase(result.substring(0, schemeEnd));
+		String host = StringUtils.asciiLowercase(result.substring(hostStart, hostEnd));
+
+		if(scheme.equals("http")) {
+			scheme = "https";
+		}
+
+		if(host.startsWith("www.")) {
+			host = host.substring(4);
+		}
+
+		return scheme + "://" + host + result.substring(hostEnd);
+	}
+
+	public static long getSuccessTtlMs(@NonNull final String key) {
+
+		final int schemeEnd = key.indexOf("://");
+
+		if(schemeEnd < 0) {
+			return SUCCESS_TTL_MS;
+		}
+
+		final String host = key.substring(schemeEnd + 3, findHostEnd(key, schemeEnd + 3));
+
+		for(final String shortLivedHost : SHORT_LIVED_HOSTS) {
+			if(host.equals(shortLivedHost) || host.endsWith("." + shortLivedHost)) {
+				return SHORT_LIVED_SUCCESS_TTL_MS;
+			}
+		}
+
+		return SUCCESS_TTL_MS;
+	}
+
+	private static int findHostEnd(@NonNull final String url, final int hostStart) {
+
+		for(int i = hostStart; i < url.length(); i++) {
+			final char c = url.charAt(i);
+			if(c == '/' || c == '?') {
+				return i;
+			}
+		}
+
+		return url.length();
+	}
+}
@@ -20,11 +20,14 @@ package org.quantumbadger.redreader.image;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import com.fasterxml.jackson.core.JsonParser;
 
 import org.quantumbadger.redreader.account.RedditAccountManager;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
+import org.quantumbadger.redreader.cache.CacheRequestJSONDecoder;
 import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
+import org.quantumbadger.redreader.cache.JsonResponseDecoder;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfNotCached;
 import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.General;
@@ -34,13 +37,63 @@ import org.quantumbadger.redreader.common.RRError;
 import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
 import org.quantumbadger.redreader.http.FailedRequestBody;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonBinding;
 import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 
+import java.io.IOException;
 import java.util.UUID;
 
 public final class ImgurAPIV3 {
 
+	public static final class AlbumData implements JsonObject.JsonDeserializable {
+		public String title;
+		public String description;
+		public JsonArray images;
+	}
+
+	public static final class AlbumResponse implements JsonObject.JsonDeserializable {
+		public AlbumData data;
+		public Long status;
+	}
+
+	@NonNull
+	public static JsonResponseDecoder<AlbumInfo> albumDecoder(@NonNull final UriString albumUrl) {
+
+		return new JsonResponseDecoder<AlbumInfo>() {
+
+			@NonNull
+			@Override
+			public String getEndpointName() {
+				return "imgur_album";
+			}
+
+			@NonNull
+			@Override
+			public AlbumInfo decode(@NonNull final JsonParser parser) throws IOException {
+
+				final AlbumResponse response;
+
+				try {
+					response = JsonBinding.forClass(AlbumResponse.class).read(parser);
+				} catch(final ReflectiveOperationException e) {
+					throw new RuntimeException(e);
+				}
+
+				if(response.data == null || response.data.images == null) {
+					throw new IOException("Album data missing (status " + response.status + ")");
+				}
+
+				return AlbumInfo.parseImgurV3(
+						albumUrl,
+						response.data.title,
+						response.data.description,
+						response.data.images);
+			}
+		};
+	}
+
 	public static void getAlbumInfo(
 			@NonNull final Context context,
 			final UriString albumUrl,
@@ -63,29 +116,19 @@ public final class ImgurAPIV3 {
 				.setRequestMethod(CacheRequest.RequestMethod.GET)
 				.setContext(context)
 				.setCache(true)
-				.setCallbacks(
-						new CacheRequestJSONParser(context, new CacheRequestJSONParser.Listener() {
+				.setCallbacks(new CacheRequestJSONDecoder<>(
+						context,
+						apiUrl,
+						albumDecoder(albumUrl),
+						new CacheRequestJSONDecoder.Listener<AlbumInfo>() {
 							@Override
-							public void onJsonParsed(
-									@NonNull final JsonValue result,
+							public void onDecoded(
+									@NonNull final AlbumInfo result,
 									final TimestampUTC timestamp,
 									@NonNull final UUID session,
 									final boolean fromCache) {
 
-								try {
-									final JsonObject outer = result.asObject().getObject("data");
-									final AlbumInfo album = AlbumInfo.parseImgurV3(albumUrl, outer);
-									listener.onSuccess(album);
-
-								} catch(final Throwable t) {
-									listener.onFailure(General.getGeneralErrorForFailure(
-											context,
-											CacheRequest.RequestFailureType.PARSE,
-											t,
-											null,
-											apiUrl,
-											Optional.of(new FailedRequestBody(result))));
-								}
+								listener.onSuccess(result);
 							}
 
 							@Override
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+
+import java.io.IOException;
+
+/**
+ * Decodes a thumbnail directly to its final size, with the same cropping rules as
+ * {@link ThumbnailScaler#scale(Bitmap, int)}. The subsampled intermediate bitmap is taken
+ * from, and returned to, a shared pool, so only the final thumbnail is newly allocated.
+ */
+public final class ThumbnailDecoder {
+
+	private static final String TAG = "ThumbnailDecoder";
+
+	private static final float MAX_HEIGHT_WIDTH_RATIO = 3.0f;
+
+	@NonNull private static final BitmapPool POOL = new BitmapPool(8 * 1024 * 1024);
+
+	@NonNull private static final Paint FILTER_PAINT = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+	private ThumbnailDecoder() {}
+
+	@Nullable
+	private static Bitmap decodeSampled(
+			@NonNull final SeekableInputStream is,
+			@NonNull final BitmapFactory.Options options) throws IOException {
+
+		try {
+			is.seek(0);
+			return BitmapFactory.decodeStream(is, null, options);
+
+		} catch(final IllegalArgumentException e) {
+
+			// The pooled bitmap wasn't suitable for this image
+			Log.i(TAG, "Could not reuse bitmap", e);
+			POOL.release(options.inBitmap);
+			options.inBitmap = null;
+
+			is.seek(0);
+			return BitmapFactory.decodeStream(is, null, options);
+		}
+	}
+
+	@Nullable
+	public static Bitmap decode(
+			@NonNull final SeekableInputStream is,
+			final int widthPx) throws IOException {
+
+		final BitmapFactory.Options bounds = new BitmapFactory.Options();
+		bounds.inJustDecodeBounds = true;
+		BitmapFactory.decodeStream(is, null, bounds);
+
+		final int srcWidth = bounds.outWidth;
+		final int srcHeight = bounds.outHeight;
+
+		if(srcWidth <= 0 || srcHeight <= 0) {
+			return null;
+		}
+
+		final float heightWidthRatio = (float)srcHeight / (float)srcWidth;
+
+		final int cropWidth;
+		final int cropHeight;
+
+		if(heightWidthRatio < 1.0f) {
+			// Wide image. Crop horizontally.
+			cropWidth = srcHeight;
+			cropHeight = srcHeight;
+
+		} else if(heightWidthRatio <= MAX_HEIGHT_WIDTH_RATIO) {
+			cropWidth = srcWidth;
+			cropHeight = srcHeight;
+
+		} else {
+			// Tall image. Crop vertically.
+			cropWidth = srcWidth;
+			cropHeight = Math.round(srcWidth * MAX_HEIGHT_WIDTH_RATIO);
+		}
+
+		final int outWidth = widthPx;
+		final int outHeight = Math.max(1, Math.round((float)cropHeight * widthPx / cropWidth));
+
+		int sampleSize = 1;
+
+		while(cropWidth / (sampleSize * 2) >= outWidth
+				&& cropHeight / (sampleSize * 2) >= outHeight) {
+			sampleSize *= 2;
+		}
+
+		final int sampledBytes = ((srcWidth + sampleSize - 1) / sampleSize)
+				* ((srcHeight + sampleSize - 1) / sampleSize)
+				* 4;
+
+		final BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inSampleSize = sampleSize;
+		options.inMutable = true;
+		options.inBitmap = POOL.obtain(sampledBytes);
+
+		final Bitmap sampled = decodeSampled(is, options);
+
+		if(sampled == null) {
+			POOL.release(options.inBitmap);
+			return null;
+		}
+
+		final Bitmap result = Bitmap.createBitmap(outWidth, outHeight, Bitmap.Config.ARGB_8888);
+
+		new Canvas(result).drawBitmap(
+				sampled,
+				new Rect(
+						0,
+						0,
+						Math.min(sampled.getWidth(), cropWidth / sampleSize),
+						Math.min(sampled.getHeight(), cropHeight / sampleSize)),
+				new Rect(0, 0, outWidth, outHeight),
+				FILTER_PAINT);
+
+		POOL.release(sampled);
+
+		return result;
+	}
+}
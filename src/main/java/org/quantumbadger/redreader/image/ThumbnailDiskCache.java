@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.common.DiskCacheDirectory;
+import org.quantumbadger.redreader.common.UriString;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Persistent cache of scaled thumbnails, stored as raw pixel data so that they can be loaded
+ * with a single read and no image decode.
+ *
+ * File format (big-endian):
+ *   int magic, byte version, byte config (0 = RGB_565, 1 = ARGB_8888),
+ *   int width, int height, followed by the raw pixels.
+ */
+public final class ThumbnailDiskCache {
+
+	private static final String TAG = "ThumbnailDiskCache";
+
+	private static final int MAGIC = 0x52525448; // "RRTH"
+	private static final byte VERSION = 1;
+	private static final int HEADER_BYTES = 14;
+
+	private static final byte CONFIG_RGB_565 = 0;
+	private static final byte CONFIG_ARGB_8888 = 1;
+
+	private static final long MAX_TOTAL_BYTES = 24L * 1024 * 1024;
+	private static final int WRITES_BETWEEN_TRIMS = 64;
+
+	private static ThumbnailDiskCache singleton;
+
+	@NonNull private final DiskCacheDirectory mDir;
+
+	public static synchronized ThumbnailDiskCache getInstance(@NonNull final Context context) {
+		if(singleton == null) {
+			singleton = new ThumbnailDiskCache(
+					new File(context.getApplicationContext().getCacheDir(), "rr_thumbnails"));
+		}
+		return singleton;
+	}
+
+	private ThumbnailDiskCache(@NonNull final File dir) {
+		mDir = new DiskCacheDirectory(dir, MAX_TOTAL_BYTES, WRITES_BETWEEN_TRIMS);
+	}
+
+	@NonNull
+	private File getFile(@NonNull final UriString url, final int widthPx) {
+		return mDir.getFile(widthPx + ":" + url);
+	}
+
+	@Nullable
+	public Bitmap read(@NonNull final UriString url, final int widthPx) {
+
+		final File file = getFile(url, widthPx);
+		final long length = file.length();
+
+		if(length <= HEADER_BYTES || length > Integer.MAX_VALUE) {
+			return null;
+		}
+
+		final byte[] data = new byte[(int)length];
+
+		try(FileInputStream fis = new FileInputStream(file)) {
+
+			int offset = 0;
+
+			while(offset < data.length) {
+
+				final int bytesRead = fis.read(data, offset, data.length - offset);
+
+				if(bytesRead < 0) {
+					return null;
+				}
+
+				offset += bytesRead;
+			}
+
+		} catch(final IOException e) {
+			return null;
+		}
+
+		final ByteBuffer buf = ByteBuffer.wrap(data);
+
+		if(buf.getInt() != MAGIC || buf.get() != VERSION) {
+			Log.e(TAG, "Invalid thumbnail file: " + file);
+			file.delete();
+			return null;
+		}
+
+		final byte configId = buf.get();
+		final int width = buf.getInt();
+		final int height = buf.getInt();
+
+		final Bitmap.Config config;
+		final int bytesPerPixel;
+
+		if(configId == CONFIG_RGB_565) {
+			config = Bitmap.Config.RGB_565;
+			bytesPerPixel = 2;
+
+		} else if(configId == CONFIG_ARGB_8888) {
+			config = Bitmap.Config.ARGB_8888;
+			bytesPerPixel = 4;
+
+		} else {
+			file.delete();
+			return null;
+		}
+
+		if(width <= 0 || height <= 0
+				|| (long)width * height * bytesPerPixel != length - HEADER_BYTES) {
+			Log.e(TAG, "Truncated thumbnail file: " + file);
+			file.delete();
+			return null;
+		}
+
+		final Bitmap result = Bitmap.createBitmap(width, height, config);
+		result.copyPixelsFromBuffer(buf);
+		return result;
+	}
+
+	public void write(
+			@NonNull final UriString url,
+			final int widthPx,
+			@NonNull final Bitmap thumbnail) {
+
+		// Most thumbnails are JPEGs, for which 16 bits per pixel is plenty
+		final Bitmap toWrite;
+		final byte configId;
+
+		if(!thumbnail.hasAlpha() && thumbnail.getConfig() != Bitmap.Config.RGB_565) {
+			toWrite = thumbnail.copy(Bitmap.Config.RGB_565, false);
+			configId = CONFIG_RGB_565;
+
+		} else if(thumbnail.getConfig() == Bitmap.Config.RGB_565) {
+			toWrite = thumbnail;
+			configId = CONFIG_RGB_565;
+
+		} else if(thumbnail.getConfig() == Bitmap.Config.ARGB_8888) {
+			toWrite = thumbnail;
+			configId = CONFIG_ARGB_8888;
+
+		} else {
+			return;
+		}
+
+		if(toWrite == null) {
+			return;
+		}
+
+		final ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + toWrite.getByteCount());
+		buf.putInt(MAGIC);
+		buf.put(VERSION);
+		buf.put(configId);
+		buf.putInt(toWrite.getWidth());
+		buf.putInt(toWrite.getHeight());
+		toWrite.copyPixelsToBuffer(buf);
+
+		if(toWrite != thumbnail) {
+			toWrite.recycle();
+		}
+
+		final File file = getFile(url, widthPx);
+		final File tmpFile = mDir.getTempFile(file);
+
+		if(tmpFile == null) {
+			Log.e(TAG, "Could not create thumbnail temp file");
+			return;
+		}
+
+		try(FileOutputStream fos = new FileOutputStream(tmpFile)) {
+			fos.write(buf.array(), 0, buf.position());
+
+		} catch(final IOException e) {
+			Log.e(TAG, "Failed to write thumbnail", e);
+			tmpFile.delete();
+			return;
+		}
+
+		mDir.commit(tmpFile, file);
+	}
+
+	public void clear() {
+		mDir.clear();
+	}
+}
@@ -0,0 +1,560 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.jsonwrap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds JSON objects to the public fields of a class, as described in
+ * {@link JsonObject#populateObject(Object)}.
+ *
+ * The fields of each class are looked up once and cached, rather than reflected over for every
+ * object. Objects can be populated from an existing {@link JsonObject}, or read directly from a
+ * {@link JsonParser} without building the {@link JsonValue} tree first.
+ */
+public final class JsonBinding<E> {
+
+	private static final String JSON_FIELD_PREFIX = "_json_";
+
+	private static final ConcurrentHashMap<Class<?>, JsonBinding<?>> BINDINGS
+			= new ConcurrentHashMap<>();
+
+	private enum FieldType {
+		LONG, DOUBLE, INTEGER, FLOAT, BOOLEAN, STRING, ARRAY, OBJECT, VALUE, DESERIALIZABLE,
+		UNSUPPORTED
+	}
+
+	private static final class FieldBinding {
+
+		@NonNull final Field field;
+		@NonNull final String name;
+		@NonNull final String jsonName;
+		@NonNull final FieldType type;
+		final boolean primitive;
+
+		FieldBinding(@NonNull final Field field) {
+
+			this.field = field;
+
+			name = field.getName();
+
+			jsonName = name.startsWith(JSON_FIELD_PREFIX)
+					? name.substring(JSON_FIELD_PREFIX.length())
+					: name;
+
+			final Class<?> fieldType = field.getType();
+
+			primitive = fieldType.isPrimitive();
+
+			if(fieldType == Long.class || fieldType == Long.TYPE) {
+				type = FieldType.LONG;
+
+			} else if(fieldType == Double.class || fieldType == Double.TYPE) {
+				type = FieldType.DOUBLE;
+
+			} else if(fieldType == Integer.class || fieldType == Integer.TYPE) {
+				type = FieldType.INTEGER;
+
+			} else if(fieldType == Float.class || fieldType == Float.TYPE) {
+				type = FieldType.FLOAT;
+
+			} else if(fieldType == Boolean.class || fieldType == Boolean.TYPE) {
+				type = FieldType.BOOLEAN;
+
+			} else if(fieldType == String.class) {
+				type = FieldType.STRING;
+
+			} else if(fieldType == JsonArray.class) {
+				type = FieldType.ARRAY;
+
+			} else if(fieldType == JsonObject.class) {
+				type = FieldType.OBJECT;
+
+			} else if(fieldType == JsonValue.class) {
+				type = FieldType.VALUE;
+
+			} else if(JsonObject.JsonDeserializable.class.isAssignableFrom(fieldType)) {
+				type = FieldType.DESERIALIZABLE;
+
+			} else {
+				// Only an error if the JSON actually contains this field
+				type = FieldType.UNSUPPORTED;
+			}
+		}
+	}
+
+	@NonNull private final Class<E> mClass;
+	@Nullable private final Constructor<E> mConstructor;
+
+	@NonNull private final FieldBinding[] mFields;
+	@NonNull private final HashMap<String, FieldBinding> mFieldsByJsonName;
+
+	private JsonBinding(@NonNull final Class<E> clazz) {
+
+		mClass = clazz;
+
+		mConstructor = findConstructor(clazz);
+
+		final ArrayList<FieldBinding> fields = new ArrayList<>();
+
+		for(final Field field : clazz.getFields()) {
+
+			if((field.getModifiers() & Modifier.TRANSIENT) != 0) {
+				continue;
+			}
+
+			field.setAccessible(true);
+			fields.add(new FieldBinding(field));
+		}
+
+		mFields = fields.toArray(new FieldBinding[0]);
+		mFieldsByJsonName = new HashMap<>(mFields.length * 2);
+
+		// Where both names are present, the actual field name takes priority
+		for(final FieldBinding field : mFields) {
+			mFieldsByJsonName.put(field.jsonName, field);
+		}
+
+		for(final FieldBinding field : mFields) {
+			mFieldsByJsonName.put(field.name, field);
+		}
+	}
+
+	@Nullable
+	private static <E> Constructor<E> findConstructor(@NonNull final Class<E> clazz) {
+
+		try {
+			return clazz.getConstructor();
+		} catch(final NoSuchMethodException e) {
+			// Objects of this class can still be populated, but not created
+			return null;
+		}
+	}
+
+	@NonNull
+	public static <E> JsonBinding<E> forClass(@NonNull final Class<E> clazz) {
+
+		@SuppressWarnings("unchecked")
+		final JsonBinding<E> existing = (JsonBinding<E>)BINDINGS.get(clazz);
+
+		if(existing != null) {
+			return existing;
+		}
+
+		final JsonBinding<E> binding = new JsonBinding<>(clazz);
+
+		@SuppressWarnings("unchecked")
+		final JsonBinding<E> raced = (JsonBinding<E>)BINDINGS.putIfAbsent(clazz, binding);
+
+		return raced != null ? raced : binding;
+	}
+
+	/**
+	 * Reads a single JSON object from the stream, without building the {@link JsonValue} tree
+	 * for any fields other than those of type {@link JsonValue}, {@link JsonObject} or
+	 * {@link JsonArray}.
+	 */
+	@NonNull
+	public static <E extends JsonObject.JsonDeserializable> E read(
+			@NonNull final InputStream source,
+			@NonNull final Class<E> clazz) throws
+					IOException,
+					InstantiationException,
+					IllegalAccessException,
+					NoSuchMethodException,
+					InvocationTargetException {
+
+		try(JsonParser parser = JsonValue.JSON_FACTORY.createParser(source)) {
+			return forClass(clazz).read(parser);
+		}
+	}
+
+	@NonNull
+	private E newInstance() throws
+			InstantiationException,
+			IllegalAccessException,
+			NoSuchMethodException,
+			InvocationTargetException {
+
+		if(mConstructor == null) {
+			throw new NoSuchMethodException(mClass.getName() + ".<init>()");
+		}
+
+		return mConstructor.newInstance();
+	}
+
+	@NonNull
+	E fromObject(@NonNull final JsonObject source) throws
+			InstantiationException,
+			IllegalAccessException,
+			NoSuchMethodException,
+			InvocationTargetException {
+
+		final E result = newInstance();
+		populate(source, result);
+		return result;
+	}
+
+	void populate(@NonNull final JsonObject source, @NonNull final Object target) throws
+			InstantiationException,
+			NoSuchMethodException,
+			InvocationTargetException {
+
+		try {
+			for(final FieldBinding binding : mFields) {
+
+				JsonValue val = source.get(binding.name);
+
+				if(val == null && !binding.jsonName.equals(binding.name)) {
+					val = source.get(binding.jsonName);
+				}
+
+				if(val != null) {
+					setFromValue(binding, target, val);
+				}
+			}
+
+		} catch(final IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void setFromValue(
+			@NonNull final FieldBinding binding,
+			@NonNull final Object target,
+			@NonNull final JsonValue val) throws
+					IllegalAccessException,
+					InstantiationException,
+					NoSuchMethodException,
+					InvocationTargetException {
+
+		final Field field = binding.field;
+
+		switch(binding.type) {
+
+			case LONG:
+				setLong(binding, target, val.asLong());
+				break;
+
+			case DOUBLE:
+				setDouble(binding, target, val.asDouble());
+				break;
+
+			case INTEGER:
+				setLong(binding, target, val.asLong());
+				break;
+
+			case FLOAT:
+				setDouble(binding, target, val.asDouble());
+				break;
+
+			case BOOLEAN:
+				field.set(target, val.asBoolean());
+				break;
+
+			case STRING:
+				field.set(target, val.asString());
+				break;
+
+			case ARRAY:
+				field.set(target, val.asArray());
+				break;
+
+			case OBJECT:
+				field.set(target, val.asObject());
+				break;
+
+			case VALUE:
+				field.set(target, val);
+				break;
+
+			case DESERIALIZABLE: {
+
+				final JsonObject object = val.asObject();
+
+				field.set(target, object == null
+						? null
+						: forClass(field.getType()).fromObject(object));
+				break;
+			}
+
+			default:
+				throw new RuntimeException("Cannot handle field type "
+						+ field.getType().getCanonicalName());
+		}
+	}
+
+	/**
+	 * Reads the object starting at the parser's current token, and leaves the parser on the
+	 * token following the end of the object.
+	 */
+	@NonNull
+	public E read(@NonNull final JsonParser parser) throws
+			IOException,
+			InstantiationException,
+			IllegalAccessException,
+			NoSuchMethodException,
+			InvocationTargetException {
+
+		if(parser.currentToken() == null) {
+			parser.nextToken();
+		}
+
+		if(parser.currentToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(
+					parser,
+					"Expecting object start, got " + parser.currentToken(),
+					parser.currentLocation());
+		}
+
+		final E result = newInstance();
+
+		parser.nextToken();
+
+		JsonToken jt;
+
+		while((jt = parser.currentToken()) != JsonToken.END_OBJECT) {
+
+			if(jt != JsonToken.FIELD_NAME) {
+				throw new JsonParseException(parser, "Expecting field name, got " + jt,
+						parser.currentLocation());
+			}
+
+			final FieldBinding binding = mFieldsByJsonName.get(parser.currentName());
+
+			parser.nextToken();
+
+			if(binding == null) {
+				skipValue(parser);
+			} else {
+				readField(binding, result, parser);
+			}
+		}
+
+		parser.nextToken();
+
+		return result;
+	}
+
+	private static void skipValue(@NonNull final JsonParser parser) throws IOException {
+
+		if(parser.currentToken() == null) {
+			throw new IOException("Unexpected end of input");
+		}
+
+		parser.skipChildren();
+		parser.nextToken();
+	}
+
+	// Converts scalars in the same way as the corresponding JsonValue subclasses
+	private static void readField(
+			@NonNull final FieldBinding binding,
+			@NonNull final Object target,
+			@NonNull final JsonParser parser) throws
+					IOException,
+					InstantiationException,
+					IllegalAccessException,
+					NoSuchMethodException,
+					InvocationTargetException {
+
+		final Field field = binding.field;
+		final JsonToken token = parser.currentToken();
+
+		switch(binding.type) {
+
+			case LONG:
+			case INTEGER:
+
+				if(token == JsonToken.VALUE_NUMBER_INT) {
+					setLong(binding, target, parser.getValueAsLong());
+
+				} else if(token == JsonToken.VALUE_NUMBER_FLOAT) {
+					setLong(binding, target, Math.round(parser.getValueAsDouble()));
+
+				} else if(token == JsonToken.VALUE_STRING) {
+					setLong(binding, target, JsonString.toLong(parser.getText()));
+
+				} else {
+					field.set(target, null);
+				}
+
+				skipValue(parser);
+				break;
+
+			case DOUBLE:
+			case FLOAT:
+
+				if(token == JsonToken.VALUE_NUMBER_INT) {
+					setDouble(binding, target, (double)parser.getValueAsLong());
+
+				} else if(token == JsonToken.VALUE_NUMBER_FLOAT) {
+					setDouble(binding, target, parser.getValueAsDouble());
+
+				} else if(token == JsonToken.VALUE_STRING) {
+					setDouble(binding, target, JsonString.toDouble(parser.getText()));
+
+				} else {
+					field.set(target, null);
+				}
+
+				skipValue(parser);
+				break;
+
+			case BOOLEAN:
+
+				if(token == JsonToken.VALUE_TRUE) {
+					field.set(target, Boolean.TRUE);
+
+				} else if(token == JsonToken.VALUE_FALSE) {
+					field.set(target, Boolean.FALSE);
+
+				} else if(token == JsonToken.VALUE_STRING) {
+					field.set(target, JsonString.toBoolean(parser.getText()));
+
+				} else {
+					field.set(target, null);
+				}
+
+				skipValue(parser);
+				break;
+
+			case STRING:
+
+				if(token == JsonToken.VALUE_STRING) {
+					field.set(target, parser.getValueAsString());
+
+				} else if(token == JsonToken.VALUE_NUMBER_INT) {
+					field.set(target, String.valueOf(parser.getValueAsLong()));
+
+				} else if(token == JsonToken.VALUE_NUMBER_FLOAT) {
+					field.set(target, String.valueOf(parser.getValueAsDouble()));
+
+				} else {
+					field.set(target, null);
+				}
+
+				skipValue(parser);
+				break;
+
+			case ARRAY:
+				field.set(target, JsonValue.parse(parser).asArray());
+				break;
+
+			case OBJECT:
+				field.set(target, JsonValue.parse(parser).asObject());
+				break;
+
+			case VALUE:
+				field.set(target, JsonValue.parse(parser));
+				break;
+
+			case DESERIALIZABLE:
+
+				if(token == JsonToken.START_OBJECT) {
+					field.set(target, forClass(field.getType()).read(parser));
+				} else {
+					field.set(target, null);
+					skipValue(parser);
+				}
+
+				break;
+
+			default:
+				throw new RuntimeException("Cannot handle field type "
+						+ field.getType().getCanonicalName());
+		}
+	}
+
+	private static void setLong(
+			@NonNull final FieldBinding binding,
+			@NonNull final Object target,
+			final long value) throws IllegalAccessException {
+
+		if(binding.type == FieldType.INTEGER) {
+
+			if(binding.primitive) {
+				binding.field.setInt(target, (int)value);
+			} else {
+				binding.field.set(target, (int)value);
+			}
+
+		} else if(binding.primitive) {
+			binding.field.setLong(target, value);
+		} else {
+			binding.field.set(target, value);
+		}
+	}
+
+	private static void setLong(
+			@NonNull final FieldBinding binding,
+			@NonNull final Object target,
+			@Nullable final Long value) throws IllegalAccessException {
+
+		if(value == null) {
+			binding.field.set(target, null);
+		} else {
+			setLong(binding, target, value.longValue());
+		}
+	}
+
+	private static void setDouble(
+			@NonNull final FieldBinding binding,
+			@NonNull final Object target,
+			final double value) throws IllegalAccessException {
+
+		if(binding.type == FieldType.FLOAT) {
+
+			if(binding.primitive) {
+				binding.field.setFloat(target, (float)value);
+			} else {
+				binding.field.set(target, (float)value);
+			}
+
+		} else if(binding.primitive) {
+			binding.field.setDouble(target, value);
+		} else {
+			binding.field.set(target, value);
+		}
+	}
+
+	private static void setDouble(
+			@NonNull final FieldBinding binding,
+			@NonNull final Object target,
+			@Nullable final Double value) throws IllegalAccessException {
+
+		if(value == null) {
+			binding.field.set(target, null);
+		} else {
+			setDouble(binding, target, value.doubleValue());
+		}
+	}
+}
@@ -25,9 +25,7 @@ import com.fasterxml.jackson.core.JsonToken;
 import org.quantumbadger.redreader.common.Optional;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -90,9 +88,7 @@ public final class JsonObject extends JsonValue
 			NoSuchMethodException,
 			InvocationTargetException {
 
-		final E obj = clazz.getConstructor().newInstance();
-		populateObject(obj);
-		return obj;
+		return JsonBinding.forClass(clazz).fromObject(this);
 	}
 
 	@Nullable
@@ -225,77 +221,7 @@ public final class JsonObject extends JsonValue
 			NoSuchMethodException,
 			InvocationTargetException {
 
-		final Field[] objectFields = o.getClass().getFields();
-
-		try {
-
-			for(final Field objectField : objectFields) {
-
-				if((objectField.getModifiers() & Modifier.TRANSIENT) != 0) {
-					continue;
-				}
-
-				final JsonValue val;
-
-				if(properties.containsKey(objectField.getName())) {
-					val = properties.get(objectField.getName());
-
-				} else if(objectField.getName().startsWith("_json_")) {
-					val = properties.get(objectField.getName()
-							.substring("_json_".length()));
-				} else {
-					val = null;
-				}
-
-				if(val == null) {
-					continue;
-				}
-
-				objectField.setAccessible(true);
-
-				final Class<?> fieldType = objectField.getType();
-
-				if(fieldType == Long.class || fieldType == Long.TYPE) {
-					objectField.set(o, val.asLong());
-
-				} else if(fieldType == Double.class || fieldType == Double.TYPE) {
-					objectField.set(o, val.asDouble());
-
-				} else if(fieldType == Integer.class || fieldType == Integer.TYPE) {
-					objectField.set(o, val.asLong() == null ? null : val.asLong().intValue());
-
-				} else if(fieldType == Float.class || fieldType == Float.TYPE) {
-					objectField.set(o, val.asDouble() == null ? null : val.asDouble().floatValue());
-
-				} else if(fieldType == Boolean.class || fieldType == Boolean.TYPE) {
-					objectField.set(o, val.asBoolean());
-
-				} else if(fieldType == String.class) {
-					objectField.set(o, val.asString());
-
-				} else if(fieldType == JsonArray.class) {
-					objectField.set(o, val.asArray());
-
-				} else if(fieldType == JsonObject.class) {
-					objectField.set(o, val.asObject());
-
-				} else if(fieldType == JsonValue.class) {
-					objectField.set(o, val);
-
-				} else if(JsonDeserializable.class.isAssignableFrom(fieldType)) {
-					//noinspection unchecked
-					objectField.set(o, val.asObject(
-							(Class<? extends JsonDeserializable>)fieldType));
-
-				} else {
-					throw new RuntimeException("Cannot handle field type "
-							+ fieldType.getCanonicalName());
-				}
-			}
-
-		} catch(final IllegalAccessException e) {
-			throw new RuntimeException(e);
-		}
+		JsonBinding.forClass(o.getClass()).populate(this, o);
 	}
 
 	@Override
@@ -38,8 +38,31 @@ public class JsonString extends JsonValue {
 	@Nullable
 	@Override
 	public Boolean asBoolean() {
+		return toBoolean(mValue);
+	}
 
-		final String lowercase = StringUtils.asciiLowercase(mValue);
+	@NonNull
+	@Override
+	public String asString() {
+		return mValue;
+	}
+
+	@Nullable
+	@Override
+	public Double asDouble() {
+		return toDouble(mValue);
+	}
+
+	@Nullable
+	@Override
+	public Long asLong() {
+		return toLong(mValue);
+	}
+
+	@Nullable
+	static Boolean toBoolean(@NonNull final String value) {
+
+		final String lowercase = StringUtils.asciiLowercase(value);
 
 		switch(lowercase) {
 			case "true":
@@ -55,18 +78,11 @@ public class JsonString extends JsonValue {
 		return null;
 	}
 
-	@NonNull
-	@Override
-	public String asString() {
-		return mValue;
-	}
-
 	@Nullable
-	@Override
-	public Double asDouble() {
+	static Double toDouble(@NonNull final String value) {
 
 		try {
-			return Double.parseDouble(mValue);
+			return Double.parseDouble(value);
 
 		} catch(final NumberFormatException e) {
 			return null;
@@ -74,11 +90,10 @@ public class JsonString extends JsonValue {
 	}
 
 	@Nullable
-	@Override
-	public Long asLong() {
+	static Long toLong(@NonNull final String value) {
 
 		try {
-			return Long.parseLong(mValue);
+			return Long.parseLong(value);
 
 		} catch(final NumberFormatException e) {
 			return null;
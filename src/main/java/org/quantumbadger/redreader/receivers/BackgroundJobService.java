@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.receivers;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import org.quantumbadger.redreader.cache.CacheManager;
+import org.quantumbadger.redreader.common.BackgroundJobs;
+import org.quantumbadger.redreader.common.CachedThreadPool;
+import org.quantumbadger.redreader.receivers.announcements.AnnouncementDownloader;
+import org.quantumbadger.redreader.reddit.prepared.RedditChangeDataManager;
+
+public class BackgroundJobService extends JobService {
+
+	private static final String TAG = "BackgroundJobService";
+
+	// A single thread, so that maintenance runs never overlap
+	private static final CachedThreadPool MAINTENANCE_THREAD
+			= new CachedThreadPool(1, "Background maintenance");
+
+	@Override
+	public boolean onStartJob(final JobParameters params) {
+
+		final BackgroundJobs.Job job = BackgroundJobs.Job.fromId(params.getJobId());
+
+		if(job == null) {
+			Log.e(TAG, "Unknown job ID " + params.getJobId());
+			return false;
+		}
+
+		final Context context = getApplicationContext();
+
+		final long startTime = System.currentTimeMillis();
+		final long startElapsed = SystemClock.elapsedRealtime();
+
+		final Completion completion = (workDone, retry) -> {
+
+			BackgroundJobs.recordRun(new BackgroundJobs.RunRecord(
+					job,
+					startTime,
+					SystemClock.elapsedRealtime() - startElapsed,
+					workDone,
+					retry));
+
+			jobFinished(params, retry);
+		};
+
+		switch(job) {
+
+			case MESSAGE_CHECK:
+				NewMessageChecker.checkForNewMessages(context, result -> {
+
+					final String workDone = "message check " + result.name();
+
+					// Piggyback on this wakeup if maintenance keeps missing its idle window
+					if(result != NewMessageChecker.Result.FAILED
+							&& BackgroundJobs.isMaintenanceOverdue(context)) {
+
+						MAINTENANCE_THREAD.add(() -> completion.onComplete(
+								workDone + ", " + runMaintenance(context),
+								false));
+
+					} else {
+						completion.onComplete(
+								workDone,
+								result == NewMessageChecker.Result.FAILED);
+					}
+				});
+				return true;
+
+			case ANNOUNCEMENT_CHECK:
+				AnnouncementDownloader.performDownload(
+						context,
+						success -> completion.onComplete(
+								success ? "announcements checked" : "announcements failed",
+								!success));
+				return true;
+
+			case CACHE_MAINTENANCE:
+				MAINTENANCE_THREAD.add(
+						() -> completion.onComplete(runMaintenance(context), false));
+				return true;
+
+			case CACHE_COMPACTION:
+				MAINTENANCE_THREAD.add(() -> completion.onComplete(
+						"compaction "
+								+ CacheManager.getInstance(context).compact().toString(),
+						false));
+				return true;
+
+			default:
+				Log.e(TAG, "Unhandled job " + job.name());
+				return false;
+		}
+	}
+
+	@Override
+	public boolean onStopJob(final JobParameters params) {
+		// Constraints are no longer met (for example, the device has left idle mode). Any
+		// request in flight will finish on its own, so just ask for the job to run again.
+		Log.i(TAG, "Job " + params.getJobId() + " stopped by the system");
+		return true;
+	}
+
+	@WorkerThread
+	@NonNull
+	private static String runMaintenance(@NonNull final Context context) {
+
+		RedditChangeDataManager.pruneAllUsersDefaultMaxAge();
+		final int filesPruned = CacheManager.getInstance(context).pruneCache();
+
+		BackgroundJobs.onMaintenanceComplete(context);
+
+		return "pruned " + filesPruned + " cache files";
+	}
+
+	private interface Completion {
+		void onComplete(@NonNull String workDone, boolean retry);
+	}
+}
@@ -20,7 +20,6 @@ package org.quantumbadger.redreader.receivers;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.database.sqlite.SQLiteDatabaseCorruptException;
@@ -51,7 +50,6 @@ import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
 import org.quantumbadger.redreader.http.FailedRequestBody;
-import org.quantumbadger.redreader.receivers.announcements.AnnouncementDownloader;
 import org.quantumbadger.redreader.reddit.kthings.JsonUtils;
 import org.quantumbadger.redreader.reddit.kthings.RedditComment;
 import org.quantumbadger.redreader.reddit.kthings.RedditIdAndType;
@@ -64,7 +62,7 @@ import java.io.IOException;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class NewMessageChecker extends BroadcastReceiver {
+public class NewMessageChecker {
 
 	private static final String TAG = "NewMessageChecker";
 
@@ -73,19 +71,33 @@ public class NewMessageChecker extends BroadcastReceiver {
 	public static final String PREFS_SAVED_MESSAGE_ID = "LastMessageId";
 	public static final String PREFS_SAVED_MESSAGE_TIMESTAMP = "LastMessageTimestamp";
 
+	public enum Result {
+		SKIPPED, NO_NEW_MESSAGES, NOTIFIED, FAILED
+	}
 
-	@Override
-	public void onReceive(final Context context, final Intent intent) {
-		checkForNewMessages(context);
-		AnnouncementDownloader.performDownload(context);
+	public interface Listener {
+		void onCheckComplete(@NonNull Result result);
 	}
 
 	public static void checkForNewMessages(final Context context) {
+		checkForNewMessages(context, null);
+	}
+
+	public static void checkForNewMessages(
+			final Context context,
+			@Nullable final Listener listener) {
 
 		Log.i("RedReader", "Checking for new messages.");
 
+		final Listener resultListener = result -> {
+			if(listener != null) {
+				listener.onCheckComplete(result);
+			}
+		};
+
 		final boolean notificationsEnabled = PrefsUtility.pref_behaviour_notifications();
 		if(!notificationsEnabled) {
+			resultListener.onCheckComplete(Result.SKIPPED);
 			return;
 		}
 
@@ -97,10 +109,12 @@ public class NewMessageChecker extends BroadcastReceiver {
 		} catch(final SQLiteDatabaseCorruptException e) {
 			// Avoid background crash
 			Log.e(TAG, "Accounts database corrupt", e);
+			resultListener.onCheckComplete(Result.SKIPPED);
 			return;
 		}
 
 		if(user.isAnonymous()) {
+			resultListener.onCheckComplete(Result.SKIPPED);
 			return;
 		}
 
@@ -123,6 +137,7 @@ public class NewMessageChecker extends BroadcastReceiver {
 					public void onFailure(@NonNull final RRError error) {
 
 						Log.e(TAG, "Request failed: " + error, error.t);
+						resultListener.onCheckComplete(Result.FAILED);
 					}
 
 					@Override
@@ -148,6 +163,7 @@ public class NewMessageChecker extends BroadcastReceiver {
 							}
 
 							if(messageCount < 1) {
+								resultListener.onCheckComplete(Result.NO_NEW_MESSAGES);
 								return;
 							}
 
@@ -232,9 +248,11 @@ public class NewMessageChecker extends BroadcastReceiver {
 								}
 
 								createNotification(title, text, context);
+								resultListener.onCheckComplete(Result.NOTIFIED);
 
 							} else {
 								Log.e(TAG, "All messages have been previously seen.");
+								resultListener.onCheckComplete(Result.NO_NEW_MESSAGES);
 							}
 
 						} catch(final Exception e) {
@@ -21,6 +21,7 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.quantumbadger.redreader.account.RedditAccountManager;
 import org.quantumbadger.redreader.cache.CacheManager;
@@ -28,6 +29,7 @@ import org.quantumbadger.redreader.cache.CacheRequest;
 import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyAlways;
 import org.quantumbadger.redreader.common.Constants;
+import org.quantumbadger.redreader.common.Consumer;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.HexUtils;
 import org.quantumbadger.redreader.common.Optional;
@@ -53,10 +55,27 @@ public final class AnnouncementDownloader {
 	public static final String PREF_KEY_LAST_READ_ID = "AnnouncementDownloaderLastReadId";
 
 	public static void performDownload(@NonNull final Context context) {
+		performDownload(context, null);
+	}
+
+	/**
+	 * @param onComplete Receives true if announcements were downloaded (or are disabled), and
+	 *                   false if the download should be retried.
+	 */
+	public static void performDownload(
+			@NonNull final Context context,
+			@Nullable final Consumer<Boolean> onComplete) {
+
+		final Consumer<Boolean> completionListener = success -> {
+			if(onComplete != null) {
+				onComplete.consume(success);
+			}
+		};
 
 		final boolean announcementsEnabled = PrefsUtility.pref_menus_mainmenu_dev_announcements();
 
 		if(!announcementsEnabled) {
+			completionListener.consume(true);
 			return;
 		}
 
@@ -80,6 +99,7 @@ public final class AnnouncementDownloader {
 									final boolean fromCache) {
 
 								onJsonRetrieved(context, result);
+								completionListener.consume(true);
 							}
 
 							@Override
@@ -89,6 +109,7 @@ public final class AnnouncementDownloader {
 										TAG,
 										"Error downloading announcements: " + error,
 										error.t);
+								completionListener.consume(false);
 							}
 				}))
 				.build());
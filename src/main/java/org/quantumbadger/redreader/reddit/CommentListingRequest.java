@@ -23,6 +23,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
+import androidx.core.text.PrecomputedTextCompat;
 
 import org.apache.commons.text.StringEscapeUtils;
 import org.quantumbadger.redreader.account.RedditAccount;
@@ -60,10 +61,14 @@ import org.quantumbadger.redreader.reddit.prepared.RedditParsedComment;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditPreparedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditRenderableComment;
+import org.quantumbadger.redreader.reddit.prepared.bodytext.BodyElementTextSpanned;
+import org.quantumbadger.redreader.reddit.prepared.html.HtmlReader;
+import org.quantumbadger.redreader.reddit.prepared.html.MalformedHtmlException;
 import org.quantumbadger.redreader.reddit.url.RedditURLParser;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
@@ -86,6 +91,8 @@ public class CommentListingRequest {
 
 	private final Listener mListener;
 
+	@NonNull private final PrecomputedTextCompat.Params mBodyTextParams;
+
 	public CommentListingRequest(
 			final Context context,
 			final CommentListingFragment fragment,
@@ -109,6 +116,11 @@ public class CommentListingRequest {
 		mDownloadStrategy = downloadStrategy;
 		mListener = listener;
 
+		// Same text size as used by RedditCommentView and the post self text
+		mBodyTextParams = BodyElementTextSpanned.getTextMetricsParams(
+				activity,
+				13.0f * PrefsUtility.appearance_fontscale_bodytext());
+
 		mCacheManager = CacheManager.getInstance(context);
 
 		mCacheManager.makeRequest(createCommentListingCacheRequest());
@@ -130,8 +142,14 @@ public class CommentListingRequest {
 		void onCommentListingRequestAllItemsDownloaded(ArrayList<RedditCommentListItem> items);
 	}
 
+	/**
+	 * @param bodyTokens HTML tokens for comment bodies, by comment ID. Tokens which are
+	 *                   present are removed once used. Bodies which are not present are read
+	 *                   from the comment's HTML, and their tokens are added.
+	 */
 	private void onThingDownloaded(
 			@NonNull final RedditThingResponse thingResponse,
+			@NonNull final HashMap<String, ArrayList<HtmlReader.Token>> bodyTokens,
 			@NonNull final UUID session,
 			final TimestampUTC timestamp,
 			final boolean fromCache
@@ -180,6 +198,10 @@ public class CommentListingRequest {
 			final RedditParsedPost parsedPost =
 					new RedditParsedPost(mActivity, post, mParsePostSelfText);
 
+			if(parsedPost.getSelfText() != null) {
+				parsedPost.getSelfText().precomputeText(mBodyTextParams);
+			}
+
 			final RedditPreparedPost preparedPost = new RedditPreparedPost(
 					mContext,
 					mCacheManager,
@@ -214,6 +236,7 @@ public class CommentListingRequest {
 					commentThingValue,
 					null,
 					items,
+					bodyTokens,
 					minimumCommentScore,
 					parentPostAuthor);
 		}
@@ -273,11 +296,42 @@ public class CommentListingRequest {
 
 						new Thread(null, () -> {
 							try {
+								final PreparedCommentListingCache preparedCache
+										= PreparedCommentListingCache.getInstance(mContext);
+
+								final HashMap<String, ArrayList<HtmlReader.Token>> cachedTokens
+										= fromCache
+										? preparedCache.read(url, mUser, session, timestamp)
+										: null;
+
 								final RedditThingResponse thingResponse
 										= JsonUtils.INSTANCE.decodeRedditThingResponseFromStream(
 										streamFactory.create());
 
-								onThingDownloaded(thingResponse, session, timestamp, fromCache);
+								if(cachedTokens != null) {
+									// Each body's tokens are removed from the map as they're used
+									onThingDownloaded(
+											thingResponse,
+											cachedTokens,
+											session,
+											timestamp,
+											true);
+									return;
+								}
+
+								final HashMap<String, ArrayList<HtmlReader.Token>> bodyTokens
+										= new HashMap<>();
+
+								onThingDownloaded(
+										thingResponse,
+										bodyTokens,
+										session,
+										timestamp,
+										fromCache);
+
+								// After the listing has been shown, so as not to delay it
+								preparedCache.write(url, mUser, session, timestamp, bodyTokens);
+								bodyTokens.clear();
 
 							} catch(final Exception e) {
 								onFailure(General.getGeneralErrorForFailure(
@@ -294,10 +348,38 @@ public class CommentListingRequest {
 				.build();
 	}
 
+	@Nullable
+	private static ArrayList<HtmlReader.Token> getBodyTokens(
+			@NonNull final RedditComment comment,
+			@NonNull final HashMap<String, ArrayList<HtmlReader.Token>> bodyTokens) {
+
+		final String id = comment.getIdAlone();
+
+		// Tokens read from the prepared cache are only needed once
+		final ArrayList<HtmlReader.Token> existing = bodyTokens.remove(id);
+
+		if(existing != null || comment.getBody_html() == null) {
+			return existing;
+		}
+
+		try {
+			final ArrayList<HtmlReader.Token> tokens
+					= HtmlReader.readAll(comment.getBody_html().getDecoded());
+
+			bodyTokens.put(id, tokens);
+			return tokens;
+
+		} catch(final MalformedHtmlException e) {
+			// Leave it to the parser to report the error
+			return null;
+		}
+	}
+
 	private void buildCommentTree(
 			final MaybeParseError<RedditThing> maybeThing,
 			final RedditCommentListItem parent,
 			final ArrayList<RedditCommentListItem> output,
+			final HashMap<String, ArrayList<HtmlReader.Token>> bodyTokens,
 			final Integer minimumCommentScore,
 			final String parentPostAuthor) {
 
@@ -382,8 +464,14 @@ public class CommentListingRequest {
 					&& mCommentListingURL.pathType() == RedditURLParser.USER_COMMENT_LISTING_URL;
 
 			final RedditCommentListItem item;
+			final RedditParsedComment parsedComment = new RedditParsedComment(
+					comment,
+					mActivity,
+					getBodyTokens(comment, bodyTokens));
+			parsedComment.getBody().precomputeText(mBodyTextParams);
+
 			final RedditRenderableComment renderableComment = new RedditRenderableComment(
-					new RedditParsedComment(comment, mActivity),
+					parsedComment,
 					parentPostAuthor,
 					minimumCommentScore,
 					currentCanonicalUserName,
@@ -421,6 +509,7 @@ public class CommentListingRequest {
 							reply,
 							item,
 							output,
+							bodyTokens,
 							minimumCommentScore,
 							parentPostAuthor);
 				}
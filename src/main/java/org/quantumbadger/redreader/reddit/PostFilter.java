@@ -0,0 +1,438 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.quantumbadger.redreader.R;
+import org.quantumbadger.redreader.common.General;
+import org.quantumbadger.redreader.common.PrefsUtility;
+import org.quantumbadger.redreader.common.StringUtils;
+import org.quantumbadger.redreader.io.WritableHashSet;
+import org.quantumbadger.redreader.reddit.kthings.RedditPost;
+import org.quantumbadger.redreader.reddit.kthings.UrlEncodedString;
+import org.quantumbadger.redreader.reddit.things.InvalidSubredditNameException;
+import org.quantumbadger.redreader.reddit.things.SubredditCanonicalId;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The blocked subreddit list and the post filter rules, parsed into lookup tables so that
+ * each post can be checked in a single pass. Use get() to obtain an instance matching the
+ * current preferences; it is only rebuilt when they change.
+ *
+ * Each line of the rules preference is one of:
+ *
+ *   user:name       Posts by this user
+ *   domain:name     Links to this domain, or any of its subdomains
+ *   flair:text      Posts with exactly this flair
+ *   regex:pattern   Posts with a title matching this pattern (case insensitive)
+ *   anything else   Posts with a title containing this word or phrase (case insensitive)
+ *
+ * Title patterns are joined into a single alternation where possible. Joining renumbers
+ * capturing groups, so patterns containing backreferences are matched separately, as are
+ * all patterns if the joined alternation doesn't compile.
+ */
+public final class PostFilter {
+
+	private static final String TAG = "PostFilter";
+
+	private static final int MAX_SUBREDDIT_CACHE_SIZE = 1024;
+
+	private static final int TITLE_PATTERN_FLAGS
+			= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+	@Nullable private static PostFilter sInstance;
+
+	@NonNull private final String mBlockedSubredditsSource;
+	@NonNull private final String mRulesSource;
+	private final boolean mNsfwAllowed;
+
+	@NonNull private final HashSet<SubredditCanonicalId> mBlockedSubreddits;
+	@NonNull private final HashSet<String> mBlockedUsers = new HashSet<>();
+	@NonNull private final HashSet<String> mBlockedDomains = new HashSet<>();
+	@NonNull private final HashSet<String> mBlockedFlairs = new HashSet<>();
+	@NonNull private final HashSet<String> mTitleWords = new HashSet<>();
+	@NonNull private final ArrayList<String> mTitlePhrases = new ArrayList<>();
+	@Nullable private final Pattern mTitlePattern;
+	@NonNull private final ArrayList<Pattern> mSeparateTitlePatterns = new ArrayList<>();
+
+	// Canonicalising a subreddit name is comparatively slow, and listings tend to contain
+	// the same few subreddits over and over
+	@NonNull private final ConcurrentHashMap<String, Boolean> mSubredditBlockedCache
+			= new ConcurrentHashMap<>();
+
+	@NonNull
+	public static synchronized PostFilter get() {
+
+		final String blockedSubreddits = General.nullAlternative(
+				PrefsUtility.getString(R.string.pref_blocked_subreddits_key, ""),
+				"");
+
+		final String rules = PrefsUtility.pref_behaviour_post_filters();
+		final boolean nsfwAllowed = PrefsUtility.pref_behaviour_nsfw();
+
+		if(sInstance == null
+				|| !sInstance.mBlockedSubredditsSource.equals(blockedSubreddits)
+				|| !sInstance.mRulesSource.equals(rules)
+				|| sInstance.mNsfwAllowed != nsfwAllowed) {
+
+			sInstance = compile(blockedSubreddits, rules, nsfwAllowed);
+		}
+
+		return sInstance;
+	}
+
+	/**
+	 * @param blockedSubreddits The blocked subreddit list, in the escaped form it is stored in
+	 * @param rules The post filter rules, one per line
+	 */
+	@NonNull
+	public static PostFilter compile(
+			@NonNull final String blockedSubreddits,
+			@NonNull final String rules,
+			final boolean nsfwAllowed) {
+
+		return new PostFilter(blockedSubreddits, rules, nsfwAllowed);
+	}
+
+	private PostFilter(
+			@NonNull final String blockedSubreddits,
+			@NonNull final String rules,
+			final boolean nsfwAllowed) {
+
+		mBlockedSubredditsSource = blockedSubreddits;
+		mRulesSource = rules;
+		mNsfwAllowed = nsfwAllowed;
+
+		final ArrayList<String> subredditList
+				= WritableHashSet.escapedStringToList(blockedSubreddits);
+
+		mBlockedSubreddits = new HashSet<>(subredditList.size());
+
+		for(final String subreddit : subredditList) {
+			try {
+				mBlockedSubreddits.add(new SubredditCanonicalId(subreddit));
+			} catch(final InvalidSubredditNameException e) {
+				Log.e(TAG, "Invalid blocked subreddit " + subreddit, e);
+			}
+		}
+
+		final StringBuilder combinedPattern = new StringBuilder();
+		final ArrayList<Pattern> combinedPatterns = new ArrayList<>();
+
+		for(final String line : rules.split("\n")) {
+
+			final String rule = line.trim();
+
+			if(rule.isEmpty()) {
+				continue;
+			}
+
+			final int colon = rule.indexOf(':');
+			final String type = colon < 0
+					? ""
+					: StringUtils.asciiLowercase(rule.substring(0, colon));
+			final String value = colon < 0 ? rule : rule.substring(colon + 1).trim();
+
+			switch(type) {
+				case "user":
+					mBlockedUsers.add(lowercase(stripPrefix(stripPrefix(value, "/"), "u/")));
+					break;
+
+				case "domain":
+					mBlockedDomains.add(lowercase(value));
+					break;
+
+				case "flair":
+					mBlockedFlairs.add(lowercase(value));
+					break;
+
+				case "regex":
+					try {
+						final Pattern pattern = Pattern.compile(value, TITLE_PATTERN_FLAGS);
+
+						if(hasBackreference(value)) {
+							mSeparateTitlePatterns.add(pattern);
+							break;
+						}
+
+						if(combinedPattern.length() > 0) {
+							combinedPattern.append('|');
+						}
+
+						combinedPattern.append("(?:").append(value).append(')');
+						combinedPatterns.add(pattern);
+
+					} catch(final PatternSyntaxException e) {
+						Log.e(TAG, "Invalid filter pattern " + value, e);
+					}
+					break;
+
+				default:
+					addKeyword(lowercase(rule));
+					break;
+			}
+		}
+
+		Pattern titlePattern = null;
+
+		if(combinedPattern.length() > 0) {
+			try {
+				titlePattern = Pattern.compile(combinedPattern.toString(), TITLE_PATTERN_FLAGS);
+
+			} catch(final PatternSyntaxException e) {
+				// Patterns which are valid alone can still break the alternation, for example
+				// an unterminated \Q, or a comment at the end of a (?x) pattern
+				Log.e(TAG, "Could not combine filter patterns, matching separately", e);
+				mSeparateTitlePatterns.addAll(combinedPatterns);
+			}
+		}
+
+		mTitlePattern = titlePattern;
+	}
+
+	private static boolean hasBackreference(@NonNull final String pattern) {
+
+		int i = 0;
+
+		while(i < pattern.length() - 1) {
+
+			if(pattern.charAt(i) != '\\') {
+				i++;
+				continue;
+			}
+
+			final char escaped = pattern.charAt(i + 1);
+
+			if((escaped >= '1' && escaped <= '9') || escaped == 'k') {
+				return true;
+			}
+
+			if(escaped == 'Q') {
+				// Everything up to \E is literal
+				final int end = pattern.indexOf("\\E", i + 2);
+
+				if(end < 0) {
+					return false;
+				}
+
+				i = end + 2;
+
+			} else {
+				i += 2;
+			}
+		}
+
+		return false;
+	}
+
+	private void addKeyword(@NonNull final String keyword) {
+
+		for(int i = 0; i < keyword.length(); i++) {
+			if(!Character.isLetterOrDigit(keyword.charAt(i))) {
+				mTitlePhrases.add(keyword);
+				return;
+			}
+		}
+
+		mTitleWords.add(keyword);
+	}
+
+	@NonNull
+	private static String lowercase(@NonNull final String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+
+	@NonNull
+	private static String stripPrefix(@NonNull final String value, @NonNull final String prefix) {
+		return value.startsWith(prefix) ? value.substring(prefix.length()) : value;
+	}
+
+	@Nullable
+	private static String decode(@Nullable final UrlEncodedString value) {
+		return value == null ? null : value.getDecoded();
+	}
+
+	/**
+	 * @param filterSubreddits Whether the blocked subreddit list applies to this listing
+	 */
+	public boolean isPostHidden(@NonNull final RedditPost post, final boolean filterSubreddits) {
+
+		return isPostHidden(
+				post.getOver_18(),
+				filterSubreddits ? post.getSubreddit().getDecoded() : null,
+				decode(post.getAuthor()),
+				decode(post.getDomain()),
+				decode(post.getLink_flair_text()),
+				decode(post.getTitle()));
+	}
+
+	/**
+	 * @param subreddit The post's subreddit, or null if the blocked subreddit list doesn't
+	 *                  apply to this listing
+	 */
+	public boolean isPostHidden(
+			final boolean nsfw,
+			@Nullable final String subreddit,
+			@Nullable final String author,
+			@Nullable final String domain,
+			@Nullable final String flair,
+			@Nullable final String title) {
+
+		if(nsfw && !mNsfwAllowed) {
+			return true;
+		}
+
+		if(subreddit != null && isSubredditBlocked(subreddit)) {
+			return true;
+		}
+
+		if(author != null
+				&& !mBlockedUsers.isEmpty()
+				&& mBlockedUsers.contains(lowercase(author))) {
+			return true;
+		}
+
+		if(domain != null && !mBlockedDomains.isEmpty() && isDomainBlocked(lowercase(domain))) {
+			return true;
+		}
+
+		if(flair != null
+				&& !mBlockedFlairs.isEmpty()
+				&& mBlockedFlairs.contains(lowercase(flair.trim()))) {
+			return true;
+		}
+
+		return title != null && isTitleBlocked(title);
+	}
+
+	public boolean isSubredditBlocked(@NonNull final SubredditCanonicalId subreddit) {
+		return mBlockedSubreddits.contains(subreddit);
+	}
+
+	private boolean isSubredditBlocked(@NonNull final String subreddit) {
+
+		if(mBlockedSubreddits.isEmpty()) {
+			return false;
+		}
+
+		final Boolean cached = mSubredditBlockedCache.get(subreddit);
+
+		if(cached != null) {
+			return cached;
+		}
+
+		boolean blocked;
+
+		try {
+			blocked = mBlockedSubreddits.contains(new SubredditCanonicalId(subreddit));
+		} catch(final InvalidSubredditNameException e) {
+			blocked = false;
+		}
+
+		if(mSubredditBlockedCache.size() >= MAX_SUBREDDIT_CACHE_SIZE) {
+			mSubredditBlockedCache.clear();
+		}
+
+		mSubredditBlockedCache.put(subreddit, blocked);
+		return blocked;
+	}
+
+	private boolean isDomainBlocked(@NonNull final String domain) {
+
+		// Check the domain itself, then each parent domain in turn
+		int start = 0;
+
+		while(start >= 0) {
+
+			if(mBlockedDomains.contains(domain.substring(start))) {
+				return true;
+			}
+
+			final int dot = domain.indexOf('.', start);
+			start = dot < 0 ? -1 : dot + 1;
+		}
+
+		return false;
+	}
+
+	private boolean isTitleBlocked(@NonNull final String title) {
+
+		if(mTitleWords.isEmpty()
+				&& mTitlePhrases.isEmpty()
+				&& mTitlePattern == null
+				&& mSeparateTitlePatterns.isEmpty()) {
+			return false;
+		}
+
+		final String lowercaseTitle = lowercase(title);
+
+		if(!mTitleWords.isEmpty()) {
+
+			final int length = lowercaseTitle.length();
+			int wordStart = -1;
+
+			for(int i = 0; i <= length; i++) {
+
+				final boolean isWordChar
+						= i < length && Character.isLetterOrDigit(lowercaseTitle.charAt(i));
+
+				if(isWordChar) {
+					if(wordStart < 0) {
+						wordStart = i;
+					}
+
+				} else if(wordStart >= 0) {
+
+					if(mTitleWords.contains(lowercaseTitle.substring(wordStart, i))) {
+						return true;
+					}
+
+					wordStart = -1;
+				}
+			}
+		}
+
+		for(final String phrase : mTitlePhrases) {
+			if(lowercaseTitle.contains(phrase)) {
+				return true;
+			}
+		}
+
+		if(mTitlePattern != null && mTitlePattern.matcher(title).find()) {
+			return true;
+		}
+
+		for(final Pattern pattern : mSeparateTitlePatterns) {
+			if(pattern.matcher(title).find()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
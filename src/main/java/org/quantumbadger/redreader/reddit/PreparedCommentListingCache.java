@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import org.quantumbadger.redreader.account.RedditAccount;
+import org.quantumbadger.redreader.common.DiskCacheDirectory;
+import org.quantumbadger.redreader.common.SerializeUtils;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.common.time.TimestampUTC;
+import org.quantumbadger.redreader.reddit.prepared.html.HtmlReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores the HTML tokens of each comment body in a listing, so that reopening a thread from
+ * the cache skips tokenizing and entity decoding.
+ *
+ * Each entry is only valid for the cache entry it was produced from, identified by its
+ * session and timestamp.
+ *
+ * File format (big-endian):
+ *   int magic, int version, long session MSB, long session LSB, long timestamp (ms),
+ *   int body count, then for each body: the comment ID, int token count, and for each
+ *   token: the type name, text, href, CSS class, title and src. Strings are written with
+ *   {@link SerializeUtils}, so may be null.
+ */
+public final class PreparedCommentListingCache {
+
+	private static final String TAG = "PreparedCommentCache";
+
+	private static final int MAGIC = 0x52525043; // "RRPC"
+	private static final int VERSION = 2;
+
+	private static final long MAX_TOTAL_BYTES = 32L * 1024 * 1024;
+	private static final int WRITES_BETWEEN_TRIMS = 16;
+
+	private static PreparedCommentListingCache singleton;
+
+	@NonNull private final DiskCacheDirectory mDir;
+
+	public static synchronized PreparedCommentListingCache getInstance(
+			@NonNull final Context context) {
+
+		if(singleton == null) {
+			singleton = new PreparedCommentListingCache(new File(
+					context.getApplicationContext().getCacheDir(),
+					"rr_prepared_comments"));
+		}
+		return singleton;
+	}
+
+	private PreparedCommentListingCache(@NonNull final File dir) {
+		mDir = new DiskCacheDirectory(dir, MAX_TOTAL_BYTES, WRITES_BETWEEN_TRIMS);
+	}
+
+	@NonNull
+	private File getFile(@NonNull final UriString url, @NonNull final RedditAccount user) {
+		return mDir.getFile(user.canonicalUsername + "\n" + url.value);
+	}
+
+	/**
+	 * @return HTML tokens for each comment body, keyed by the comment's ID, or null if there
+	 * is no entry for this version of the listing.
+	 */
+	@Nullable
+	public HashMap<String, ArrayList<HtmlReader.Token>> read(
+			@NonNull final UriString url,
+			@NonNull final RedditAccount user,
+			@NonNull final UUID session,
+			@NonNull final TimestampUTC timestamp) {
+
+		final File file = getFile(url, user);
+
+		if(!file.isFile()) {
+			return null;
+		}
+
+		try(DataInputStream dis = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+
+			if(dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+				file.delete();
+				return null;
+			}
+
+			if(dis.readLong() != session.getMostSignificantBits()
+					|| dis.readLong() != session.getLeastSignificantBits()
+					|| dis.readLong() != timestamp.toUtcMs()) {
+
+				// Written for a different version of this listing
+				return null;
+			}
+
+			return readBodyTokens(dis);
+
+		} catch(final EOFException
+				| SerializeUtils.UnhandledTypeException
+				| IllegalArgumentException
+				| NullPointerException
+				| ClassCastException e) {
+
+			Log.e(TAG, "Invalid prepared comments file: " + file, e);
+			file.delete();
+			return null;
+
+		} catch(final IOException e) {
+			Log.e(TAG, "Failed to read prepared comments", e);
+			return null;
+		}
+	}
+
+	public void write(
+			@NonNull final UriString url,
+			@NonNull final RedditAccount user,
+			@NonNull final UUID session,
+			@NonNull final TimestampUTC timestamp,
+			@NonNull final Map<String, ArrayList<HtmlReader.Token>> bodyTokens) {
+
+		final File file = getFile(url, user);
+		final File tmpFile = mDir.getTempFile(file);
+
+		if(tmpFile == null) {
+			Log.e(TAG, "Could not create prepared comments temp file");
+			return;
+		}
+
+		try(DataOutputStream dos = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeLong(session.getMostSignificantBits());
+			dos.writeLong(session.getLeastSignificantBits());
+			dos.writeLong(timestamp.toUtcMs());
+
+			writeBodyTokens(dos, bodyTokens);
+
+		} catch(final IOException | SerializeUtils.UnhandledTypeException e) {
+			Log.e(TAG, "Failed to write prepared comments", e);
+			tmpFile.delete();
+			return;
+		}
+
+		mDir.commit(tmpFile, file);
+	}
+
+	private static void writeBodyTokens(
+			@NonNull final DataOutputStream dos,
+			@NonNull final Map<String, ArrayList<HtmlReader.Token>> bodyTokens)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		dos.writeInt(bodyTokens.size());
+
+		for(final Map.Entry<String, ArrayList<HtmlReader.Token>> entry
+				: bodyTokens.entrySet()) {
+
+			SerializeUtils.serialize(dos, entry.getKey());
+			dos.writeInt(entry.getValue().size());
+
+			for(final HtmlReader.Token token : entry.getValue()) {
+				SerializeUtils.serialize(dos, token.type.name());
+				SerializeUtils.serialize(dos, token.text);
+				SerializeUtils.serialize(dos, token.href);
+				SerializeUtils.serialize(dos, token.cssClass);
+				SerializeUtils.serialize(dos, token.title);
+				SerializeUtils.serialize(dos, token.src == null ? null : token.src.value);
+			}
+		}
+	}
+
+	@NonNull
+	private static HashMap<String, ArrayList<HtmlReader.Token>> readBodyTokens(
+			@NonNull final DataInputStream dis)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		final int bodyCount = dis.readInt();
+		final HashMap<String, ArrayList<HtmlReader.Token>> bodyTokens
+				= new HashMap<>(bodyCount * 2);
+
+		for(int i = 0; i < bodyCount; i++) {
+
+			final String id = readString(dis);
+			final int tokenCount = dis.readInt();
+
+			final ArrayList<HtmlReader.Token> tokens = new ArrayList<>(tokenCount);
+
+			for(int j = 0; j < tokenCount; j++) {
+
+				final HtmlReader.TokenType type = HtmlReader.TokenType.valueOf(readString(dis));
+				final String text = readString(dis);
+				final String href = readString(dis);
+				final String cssClass = readString(dis);
+				final String title = readString(dis);
+				final String src = readString(dis);
+
+				tokens.add(type == HtmlReader.TokenType.EOF
+						? HtmlReader.Token.EOF
+						: new HtmlReader.Token(
+								type,
+								text == null ? "" : text,
+								href,
+								cssClass,
+								title,
+								src == null ? null : new UriString(src)));
+			}
+
+			bodyTokens.put(id, tokens);
+		}
+
+		return bodyTokens;
+	}
+
+	@Nullable
+	private static String readString(@NonNull final DataInputStream dis)
+			throws IOException, SerializeUtils.UnhandledTypeException {
+
+		return (String)SerializeUtils.deserialize(dis);
+	}
+
+	public void clear() {
+		mDir.clear();
+	}
+}
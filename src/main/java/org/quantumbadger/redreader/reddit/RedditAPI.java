@@ -24,6 +24,7 @@ import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import com.fasterxml.jackson.core.JsonParser;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -33,7 +34,9 @@ import org.quantumbadger.redreader.activities.BugReportActivity;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
 import org.quantumbadger.redreader.cache.CacheRequestCallbacks;
+import org.quantumbadger.redreader.cache.CacheRequestJSONDecoder;
 import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
+import org.quantumbadger.redreader.cache.JsonResponseDecoder;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategy;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyAlways;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfTimestampOutsideBounds;
@@ -54,6 +57,8 @@ import org.quantumbadger.redreader.http.PostField;
 import org.quantumbadger.redreader.http.body.HTTPRequestBody;
 import org.quantumbadger.redreader.io.RequestResponseHandler;
 import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonBinding;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.jsonwrap.JsonString;
 import org.quantumbadger.redreader.jsonwrap.JsonValue;
 import org.quantumbadger.redreader.reddit.kthings.RedditIdAndType;
@@ -623,6 +628,40 @@ public final class RedditAPI {
 		}
 	}
 
+	public static final class UserAboutResponse implements JsonObject.JsonDeserializable {
+		public String kind;
+		public RedditUser data;
+	}
+
+	public static final JsonResponseDecoder<RedditUser> USER_ABOUT_DECODER
+			= new JsonResponseDecoder<RedditUser>() {
+
+		@NonNull
+		@Override
+		public String getEndpointName() {
+			return "user_about";
+		}
+
+		@NonNull
+		@Override
+		public RedditUser decode(@NonNull final JsonParser parser) throws IOException {
+
+			final UserAboutResponse response;
+
+			try {
+				response = JsonBinding.forClass(UserAboutResponse.class).read(parser);
+			} catch(final ReflectiveOperationException e) {
+				throw new RuntimeException(e);
+			}
+
+			if(!RedditThing.KIND_USER.equals(response.kind) || response.data == null) {
+				throw new IOException("Expecting user, got kind " + response.kind);
+			}
+
+			return response.data;
+		}
+	};
+
 	public static void getUser(
 			final CacheManager cm,
 			final String usernameToGet,
@@ -640,36 +679,26 @@ public final class RedditAPI {
 				Constants.FileType.USER_ABOUT,
 				downloadStrategy,
 				context,
-				new CacheRequestJSONParser.Listener() {
-					@Override
-					public void onJsonParsed(
-							@NonNull final JsonValue result,
-							final TimestampUTC timestamp,
-							@NonNull final UUID session,
-							final boolean fromCache) {
-
-						try {
-							final RedditThing userThing = result.asObject(RedditThing.class);
-							final RedditUser userResult = userThing.asUser();
-							responseHandler.notifySuccess(userResult, timestamp);
-
-						} catch(final Throwable t) {
-							// TODO look for error
-							responseHandler.notifyFailure(General.getGeneralErrorForFailure(
-									context,
-									CacheRequest.RequestFailureType.PARSE,
-									t,
-									null,
-									uri,
-									Optional.of(new FailedRequestBody(result))));
-						}
-					}
+				new CacheRequestJSONDecoder<>(
+						context,
+						uri,
+						USER_ABOUT_DECODER,
+						new CacheRequestJSONDecoder.Listener<RedditUser>() {
+							@Override
+							public void onDecoded(
+									@NonNull final RedditUser result,
+									final TimestampUTC timestamp,
+									@NonNull final UUID session,
+									final boolean fromCache) {
+
+								responseHandler.notifySuccess(result, timestamp);
+							}
 
-					@Override
-					public void onFailure(@NonNull final RRError error) {
-						responseHandler.notifyFailure(error);
-					}
-				}));
+							@Override
+							public void onFailure(@NonNull final RRError error) {
+								responseHandler.notifyFailure(error);
+							}
+						})));
 	}
 
 	public static void unblockUser(
@@ -1324,6 +1353,26 @@ public final class RedditAPI {
 			@NonNull final Context context,
 			@NonNull final CacheRequestJSONParser.Listener handler) {
 
+		return createGetRequest(
+				url,
+				user,
+				priority,
+				fileType,
+				downloadStrategy,
+				context,
+				new CacheRequestJSONParser(context, handler));
+	}
+
+	@NonNull
+	private static CacheRequest createGetRequest(
+			@NonNull final UriString url,
+			@NonNull final RedditAccount user,
+			@NonNull final Priority priority,
+			final int fileType,
+			@NonNull final DownloadStrategy downloadStrategy,
+			@NonNull final Context context,
+			@NonNull final CacheRequestCallbacks callbacks) {
+
 		return new CacheRequest.Builder()
 				.setUrl(url)
 				.setUser(user)
@@ -1333,7 +1382,7 @@ public final class RedditAPI {
 				.setQueueType(CacheRequest.DownloadQueueType.REDDIT_API)
 				.setRequestMethod(CacheRequest.RequestMethod.GET)
 				.setContext(context)
-				.setCallbacks(new CacheRequestJSONParser(context, handler))
+				.setCallbacks(callbacks)
 				.build();
 	}
 
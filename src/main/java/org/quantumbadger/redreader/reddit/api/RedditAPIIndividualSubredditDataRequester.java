@@ -21,30 +21,31 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import com.fasterxml.jackson.core.JsonParser;
 
 import org.quantumbadger.redreader.account.RedditAccount;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
-import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
+import org.quantumbadger.redreader.cache.CacheRequestJSONDecoder;
+import org.quantumbadger.redreader.cache.JsonResponseDecoder;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyAlways;
 import org.quantumbadger.redreader.common.Constants;
-import org.quantumbadger.redreader.common.General;
-import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
 import org.quantumbadger.redreader.common.TimestampBound;
 import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
-import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.io.CacheDataSource;
 import org.quantumbadger.redreader.io.RequestResponseHandler;
-import org.quantumbadger.redreader.jsonwrap.JsonValue;
+import org.quantumbadger.redreader.jsonwrap.JsonBinding;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
 import org.quantumbadger.redreader.reddit.RedditSubredditHistory;
 import org.quantumbadger.redreader.reddit.things.InvalidSubredditNameException;
 import org.quantumbadger.redreader.reddit.things.RedditSubreddit;
 import org.quantumbadger.redreader.reddit.things.RedditThing;
 import org.quantumbadger.redreader.reddit.things.SubredditCanonicalId;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.UUID;
@@ -57,6 +58,40 @@ public class RedditAPIIndividualSubredditDataRequester implements
 
 	private static final String TAG = "IndividualSRDataReq";
 
+	public static final class SubredditAboutResponse implements JsonObject.JsonDeserializable {
+		public String kind;
+		public RedditSubreddit data;
+	}
+
+	public static final JsonResponseDecoder<RedditSubreddit> ABOUT_DECODER
+			= new JsonResponseDecoder<RedditSubreddit>() {
+
+		@NonNull
+		@Override
+		public String getEndpointName() {
+			return "subreddit_about";
+		}
+
+		@NonNull
+		@Override
+		public RedditSubreddit decode(@NonNull final JsonParser parser) throws IOException {
+
+			final SubredditAboutResponse response;
+
+			try {
+				response = JsonBinding.forClass(SubredditAboutResponse.class).read(parser);
+			} catch(final ReflectiveOperationException e) {
+				throw new RuntimeException(e);
+			}
+
+			if(!RedditThing.KIND_SUBREDDIT.equals(response.kind) || response.data == null) {
+				throw new IOException("Expecting subreddit, got kind " + response.kind);
+			}
+
+			return response.data;
+		}
+	};
+
 	private final Context context;
 	private final RedditAccount user;
 
@@ -86,34 +121,23 @@ public class RedditAPIIndividualSubredditDataRequester implements
 				.setRequestMethod(CacheRequest.RequestMethod.GET)
 				.setContext(context)
 				.setCache(true)
-				.setCallbacks(new CacheRequestJSONParser(
-						context, new CacheRequestJSONParser.Listener() {
+				.setCallbacks(new CacheRequestJSONDecoder<>(
+						context,
+						url,
+						ABOUT_DECODER,
+						new CacheRequestJSONDecoder.Listener<RedditSubreddit>() {
 							@Override
-							public void onJsonParsed(
-									@NonNull final JsonValue result,
+							public void onDecoded(
+									@NonNull final RedditSubreddit subreddit,
 									final TimestampUTC timestamp,
 									@NonNull final UUID session,
 									final boolean fromCache) {
 
-								try {
-									final RedditThing subredditThing
-											= result.asObject(RedditThing.class);
-									final RedditSubreddit subreddit = subredditThing.asSubreddit();
-									subreddit.downloadTime = timestamp.toUtcMs();
-									handler.onRequestSuccess(subreddit, timestamp);
-
-									RedditSubredditHistory.addSubreddit(
-											user, subredditCanonicalId);
-
-								} catch(final Exception e) {
-									handler.onRequestFailed(General.getGeneralErrorForFailure(
-											context,
-											CacheRequest.RequestFailureType.PARSE,
-											e,
-											null,
-											url,
-											Optional.of(new FailedRequestBody(result))));
-								}
+								subreddit.downloadTime = timestamp.toUtcMs();
+								handler.onRequestSuccess(subreddit, timestamp);
+
+								RedditSubredditHistory.addSubreddit(
+										user, subredditCanonicalId);
 							}
 
 							@Override
@@ -20,27 +20,29 @@ package org.quantumbadger.redreader.reddit.api;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import org.quantumbadger.redreader.account.RedditAccount;
 import org.quantumbadger.redreader.cache.CacheManager;
 import org.quantumbadger.redreader.cache.CacheRequest;
-import org.quantumbadger.redreader.cache.CacheRequestJSONParser;
+import org.quantumbadger.redreader.cache.CacheRequestJSONDecoder;
+import org.quantumbadger.redreader.cache.JsonResponseDecoder;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyAlways;
 import org.quantumbadger.redreader.common.Constants;
-import org.quantumbadger.redreader.common.General;
-import org.quantumbadger.redreader.common.Optional;
 import org.quantumbadger.redreader.common.Priority;
 import org.quantumbadger.redreader.common.RRError;
 import org.quantumbadger.redreader.common.TimestampBound;
 import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
-import org.quantumbadger.redreader.http.FailedRequestBody;
 import org.quantumbadger.redreader.io.CacheDataSource;
 import org.quantumbadger.redreader.io.RequestResponseHandler;
 import org.quantumbadger.redreader.io.WritableHashSet;
-import org.quantumbadger.redreader.jsonwrap.JsonArray;
-import org.quantumbadger.redreader.jsonwrap.JsonValue;
+import org.quantumbadger.redreader.jsonwrap.JsonBinding;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -56,6 +58,62 @@ public class RedditAPIMultiredditListRequester implements CacheDataSource<
 		}
 	}
 
+	public static final class MultiredditData implements JsonObject.JsonDeserializable {
+		public String name;
+	}
+
+	public static final class MultiredditThing implements JsonObject.JsonDeserializable {
+		public MultiredditData data;
+	}
+
+	public static final JsonResponseDecoder<HashSet<String>> LIST_DECODER
+			= new JsonResponseDecoder<HashSet<String>>() {
+
+		@NonNull
+		@Override
+		public String getEndpointName() {
+			return "multireddit_list";
+		}
+
+		@NonNull
+		@Override
+		public HashSet<String> decode(@NonNull final JsonParser parser) throws IOException {
+
+			if(parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new JsonParseException(
+						parser,
+						"Expecting array start, got " + parser.currentToken(),
+						parser.currentLocation());
+			}
+
+			final JsonBinding<MultiredditThing> binding
+					= JsonBinding.forClass(MultiredditThing.class);
+
+			final HashSet<String> result = new HashSet<>();
+
+			parser.nextToken();
+
+			while(parser.currentToken() != JsonToken.END_ARRAY) {
+
+				final MultiredditThing multireddit;
+
+				try {
+					multireddit = binding.read(parser);
+				} catch(final ReflectiveOperationException e) {
+					throw new RuntimeException(e);
+				}
+
+				if(multireddit.data == null || multireddit.data.name == null) {
+					throw new IOException("Multireddit has no name");
+				}
+
+				result.add(multireddit.data.name);
+			}
+
+			return result;
+		}
+	};
+
 	private final Context context;
 	private final RedditAccount user;
 
@@ -101,41 +159,22 @@ public class RedditAPIMultiredditListRequester implements CacheDataSource<
 				.setRequestMethod(CacheRequest.RequestMethod.GET)
 				.setContext(context)
 				.setCache(true)
-				.setCallbacks(new CacheRequestJSONParser(
-						context, new CacheRequestJSONParser.Listener() {
+				.setCallbacks(new CacheRequestJSONDecoder<>(
+						context,
+						uri,
+						LIST_DECODER,
+						new CacheRequestJSONDecoder.Listener<HashSet<String>>() {
 							@Override
-							public void onJsonParsed(
-									@NonNull final JsonValue result,
+							public void onDecoded(
+									@NonNull final HashSet<String> result,
 									final TimestampUTC timestamp,
 									@NonNull final UUID session,
 									final boolean fromCache) {
 
-								try {
-									final HashSet<String> output = new HashSet<>();
-
-									final JsonArray multiredditList = result.asArray();
-
-									for(final JsonValue multireddit : multiredditList) {
-										final String name = multireddit.asObject()
-												.getObject("data")
-												.getString("name");
-										output.add(name);
-									}
-
-									handler.onRequestSuccess(new WritableHashSet(
-											output,
-											timestamp,
-											user.getCanonicalUsername()), timestamp);
-
-								} catch(final Exception e) {
-									handler.onRequestFailed(General.getGeneralErrorForFailure(
-											context,
-											CacheRequest.RequestFailureType.PARSE,
-											e,
-											null,
-											uri,
-											Optional.of(new FailedRequestBody(result))));
-								}
+								handler.onRequestSuccess(new WritableHashSet(
+										result,
+										timestamp,
+										user.getCanonicalUsername()), timestamp);
 							}
 
 							@Override
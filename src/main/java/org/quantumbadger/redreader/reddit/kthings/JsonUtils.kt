@@ -26,10 +26,13 @@ import kotlinx.serialization.json.okio.decodeFromBufferedSource
 import okio.BufferedSource
 import okio.buffer
 import okio.source
+import java.io.BufferedInputStream
 import java.io.IOException
 import java.io.InputStream
 
 object JsonUtils {
+	private const val MAX_LEADING_WHITESPACE = 1024
+
 	private val json = Json {
 		ignoreUnknownKeys = true
 		isLenient = true
@@ -39,9 +42,42 @@ object JsonUtils {
 	fun decodeRedditThingFromStream(stream: InputStream): RedditThing =
 		decodeFromStream(RedditThing.serializer(), stream)
 
+	/**
+	 * Equivalent to decoding with [RedditThingResponseSerializer], but without buffering the
+	 * whole response as a [kotlinx.serialization.json.JsonElement] just to find out whether it's
+	 * an array. This matters for comment pages, which can contain thousands of comments.
+	 */
 	@Throws(IOException::class)
-	fun decodeRedditThingResponseFromStream(stream: InputStream): RedditThingResponse =
-		decodeFromStream(RedditThingResponse.serializer(), stream)
+	fun decodeRedditThingResponseFromStream(stream: InputStream): RedditThingResponse {
+
+		val markableStream = if (stream.markSupported()) stream else BufferedInputStream(stream)
+
+		return if (startsWithArray(markableStream)) {
+			decodeFromStream(RedditThingResponseMultipleSerializer, markableStream)
+		} else {
+			decodeFromStream(RedditThingResponseSingleSerializer, markableStream)
+		}
+	}
+
+	private fun startsWithArray(stream: InputStream): Boolean {
+
+		stream.mark(MAX_LEADING_WHITESPACE + 1)
+
+		try {
+			repeat(MAX_LEADING_WHITESPACE + 1) {
+				when (stream.read()) {
+					' '.code, '\t'.code, '\n'.code, '\r'.code -> {}
+					'['.code -> return true
+					else -> return false
+				}
+			}
+
+			return false
+
+		} finally {
+			stream.reset()
+		}
+	}
 
 	@OptIn(ExperimentalSerializationApi::class)
 	private fun <T> decodeFromStream(serializer: KSerializer<T>, stream: InputStream): T {
@@ -27,10 +27,9 @@ import kotlinx.serialization.descriptors.PrimitiveSerialDescriptor
 import kotlinx.serialization.descriptors.SerialDescriptor
 import kotlinx.serialization.encoding.Decoder
 import kotlinx.serialization.encoding.Encoder
-import kotlinx.serialization.json.JsonContentPolymorphicSerializer
-import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonDecoder
 import kotlinx.serialization.json.JsonPrimitive
-import kotlinx.serialization.json.booleanOrNull
+import org.quantumbadger.redreader.common.time.TimestampUTC
 
 @Serializable(with = RedditBoolOrTimestampUTCSerializer::class)
 @Parcelize
@@ -45,19 +44,37 @@ sealed class RedditFieldEdited : Parcelable {
 	data class Timestamp(val value: RedditTimestampUTC) : RedditFieldEdited()
 }
 
-object RedditBoolOrTimestampUTCSerializer : JsonContentPolymorphicSerializer<RedditFieldEdited>(
-	RedditFieldEdited::class
-) {
-	override fun selectDeserializer(element: JsonElement): KSerializer<out RedditFieldEdited> {
+object RedditBoolOrTimestampUTCSerializer : KSerializer<RedditFieldEdited> {
+	override val descriptor: SerialDescriptor
+		get() = PrimitiveSerialDescriptor("RedditFieldEdited", PrimitiveKind.STRING)
 
-		if (!(element is JsonPrimitive)) {
-			throw SerializationException("Expecting JSON primitive for BoolOrTimestamp")
-		}
+	override fun deserialize(decoder: Decoder): RedditFieldEdited {
 
-		return if (element.booleanOrNull == null) {
-			RedditFieldEdited.Timestamp.serializer()
+		// In lenient mode, the literal can be read directly as a string, rather than being
+		// buffered as a JsonElement first. This field is present in every post and comment.
+		val content = if (decoder is JsonDecoder && !decoder.json.configuration.isLenient) {
+			(decoder.decodeJsonElement() as? JsonPrimitive)?.content
+				?: throw SerializationException("Expecting JSON primitive for BoolOrTimestamp")
 		} else {
-			RedditFieldEdited.Bool.serializer()
+			decoder.decodeString()
+		}
+
+		return when (content) {
+			"true" -> RedditFieldEdited.Bool(true)
+			"false" -> RedditFieldEdited.Bool(false)
+			else -> RedditFieldEdited.Timestamp(RedditTimestampUTC(TimestampUTC.fromUtcSecs(
+				content.toDoubleOrNull()?.toLong()
+					?: throw SerializationException("Invalid BoolOrTimestamp: $content")
+			)))
+		}
+	}
+
+	override fun serialize(encoder: Encoder, value: RedditFieldEdited) {
+		when (value) {
+			is RedditFieldEdited.Bool ->
+				encoder.encodeSerializableValue(RedditFieldEditedBoolSerializer, value)
+			is RedditFieldEdited.Timestamp ->
+				encoder.encodeSerializableValue(RedditFieldEditedTimestampSerializer, value)
 		}
 	}
 }
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.prepared;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Picks which of a post's preview resolutions to download, based on the size of the view it
+ * will be shown in and the current bandwidth estimate.
+ *
+ * Normally this is the smallest resolution which covers the view. If that would take too
+ * long to download, a smaller one (down to half the view size) is shown instead, and the
+ * adequate one is returned as an upgrade which the user can ask for.
+ */
+public final class PreviewResolutionSelector {
+
+	// Approximate size of a Reddit preview JPEG, used to estimate download time before the
+	// actual size is known
+	private static final double BYTES_PER_PIXEL = 0.15;
+
+	private static final long TARGET_LOAD_TIME_MS = 500;
+
+	// However slow the connection, never show less than this fraction of the view size
+	private static final double MIN_SCALE = 0.5;
+
+	public static final class Selection {
+
+		@NonNull public final RedditParsedPost.ImagePreviewDetails initial;
+
+		// A larger resolution which can be loaded on request, if the initial one is smaller
+		// than the view
+		@Nullable public final RedditParsedPost.ImagePreviewDetails upgrade;
+
+		Selection(
+				@NonNull final RedditParsedPost.ImagePreviewDetails initial,
+				@Nullable final RedditParsedPost.ImagePreviewDetails upgrade) {
+
+			this.initial = initial;
+			this.upgrade = upgrade;
+		}
+	}
+
+	private PreviewResolutionSelector() {}
+
+	/**
+	 * @param bytesPerSecond The bandwidth estimate, or a negative value if there isn't one.
+	 */
+	@Nullable
+	public static Selection select(
+			@NonNull final List<RedditParsedPost.ImagePreviewDetails> resolutions,
+			final int targetWidth,
+			final int targetHeight,
+			final long bytesPerSecond) {
+
+		if(resolutions.isEmpty()) {
+			return null;
+		}
+
+		final ArrayList<RedditParsedPost.ImagePreviewDetails> sorted
+				= new ArrayList<>(resolutions);
+
+		Collections.sort(sorted, (a, b) -> Long.compare(
+				(long)a.width * a.height,
+				(long)b.width * b.height));
+
+		int adequateIndex = sorted.size() - 1;
+
+		for(int i = 0; i < sorted.size(); i++) {
+
+			final RedditParsedPost.ImagePreviewDetails resolution = sorted.get(i);
+
+			if(resolution.width >= targetWidth && resolution.height >= targetHeight) {
+				adequateIndex = i;
+				break;
+			}
+		}
+
+		final RedditParsedPost.ImagePreviewDetails adequate = sorted.get(adequateIndex);
+
+		if(bytesPerSecond <= 0
+				|| estimateLoadTimeMs(adequate, bytesPerSecond) <= TARGET_LOAD_TIME_MS) {
+			return new Selection(adequate, null);
+		}
+
+		RedditParsedPost.ImagePreviewDetails initial = adequate;
+
+		for(int i = adequateIndex - 1; i >= 0; i--) {
+
+			final RedditParsedPost.ImagePreviewDetails resolution = sorted.get(i);
+
+			if(resolution.width < targetWidth * MIN_SCALE
+					|| resolution.height < targetHeight * MIN_SCALE) {
+				break;
+			}
+
+			initial = resolution;
+
+			if(estimateLoadTimeMs(resolution, bytesPerSecond) <= TARGET_LOAD_TIME_MS) {
+				break;
+			}
+		}
+
+		return new Selection(initial, initial == adequate ? null : adequate);
+	}
+
+	public static long estimateLoadTimeMs(
+			@NonNull final RedditParsedPost.ImagePreviewDetails resolution,
+			final long bytesPerSecond) {
+
+		final double bytes = (double)resolution.width * resolution.height * BYTES_PER_PIXEL;
+		return (long)(bytes * 1000 / bytesPerSecond);
+	}
+}
@@ -68,10 +68,22 @@ public class RedditParsedComment implements RedditThingWithIdAndType {
 			final RedditComment comment,
 			final AppCompatActivity activity) {
 
+		this(comment, activity, null);
+	}
+
+	/**
+	 * @param bodyTokens The result of HtmlReader.readAll() for the comment's body, if known.
+	 */
+	public RedditParsedComment(
+			final RedditComment comment,
+			final AppCompatActivity activity,
+			@Nullable final List<HtmlReader.Token> bodyTokens) {
+
 		mSrc = comment;
 
 		mBody = HtmlReader.parse(
 				comment.getBody_html().getDecoded(), // TODO nullable?
+				bodyTokens,
 				activity);
 
 		final String flair = General.mapIfNotNull(
@@ -147,6 +147,18 @@ class RedditParsedPost(
 		getPreviewInternal(this, minWidth, minHeight)
 	}
 
+    /**
+     * All of the usable preview resolutions, including the source image.
+     */
+    fun getPreviewResolutions(): List<ImagePreviewDetails> {
+
+		val image = src.preview?.images?.firstOrNull() ?: return emptyList()
+
+		return (listOfNotNull(image.source) + image.resolutions.orEmpty())
+			.filter { isUsableResolution(it, image) }
+			.map { ImagePreviewDetails(UriString(it.url.decoded), it.width, it.height) }
+	}
+
     fun getPreviewMP4(minWidth: Int, minHeight: Int)
 		= src.preview?.images?.get(0)?.variants?.mp4?.apply {
 			getPreviewInternal(this, minWidth, minHeight)
@@ -166,9 +178,6 @@ class RedditParsedPost(
 
 		var best: RedditPost.Preview.ImageDetails? = null
 
-		val sourceWidth = image.source?.width
-		val sourceHeight = image.source?.height
-
 		for (i in -1 until resolutions.size) {
 
 			val resolution = if (i == -1) {
@@ -177,23 +186,11 @@ class RedditParsedPost(
 				resolutions[i]
 			}
 
-			if (resolution.width < 50 || resolution.height < 50) {
+			if (!isUsableResolution(resolution, image)) {
 				continue
 			}
 
-			if (sourceWidth != null && sourceHeight != null && sourceWidth > 0) {
-
-				val estimatedRealHeight =
-					(sourceHeight.toDouble() / sourceWidth.toDouble() * resolution.width).toInt()
-
-				if (estimatedRealHeight > 3000) {
-					continue
-				}
-			}
-
-			val use = if (resolution.height > 3000 || resolution.width > 3000) {
-				false
-			} else if (best == null) {
+			val use = if (best == null) {
 				true
 			} else if ((best.width < minWidth || best.height < minHeight)
 				&& (resolution.width > best.width || resolution.height > best.height)
@@ -217,4 +214,33 @@ class RedditParsedPost(
 			ImagePreviewDetails(UriString(url.decoded), width, height)
 		}
 	}
+
+	private fun isUsableResolution(
+		resolution: RedditPost.Preview.ImageDetails,
+		image: RedditPost.Preview.ImageBase
+	): Boolean {
+
+		if (resolution.width < 50 || resolution.height < 50) {
+			return false
+		}
+
+		if (resolution.height > 3000 || resolution.width > 3000) {
+			return false
+		}
+
+		val sourceWidth = image.source?.width
+		val sourceHeight = image.source?.height
+
+		if (sourceWidth != null && sourceHeight != null && sourceWidth > 0) {
+
+			val estimatedRealHeight =
+				(sourceHeight.toDouble() / sourceWidth.toDouble() * resolution.width).toInt()
+
+			if (estimatedRealHeight > 3000) {
+				return false
+			}
+		}
+
+		return true
+	}
 }
@@ -20,7 +20,6 @@ package org.quantumbadger.redreader.reddit.prepared;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.text.SpannableStringBuilder;
 import android.util.Log;
@@ -38,6 +37,7 @@ import org.quantumbadger.redreader.cache.CacheRequest;
 import org.quantumbadger.redreader.cache.CacheRequestCallbacks;
 import org.quantumbadger.redreader.cache.downloadstrategy.DownloadStrategyIfNotCached;
 import org.quantumbadger.redreader.common.BetterSSB;
+import org.quantumbadger.redreader.common.CachedThreadPool;
 import org.quantumbadger.redreader.common.Constants;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.GenericFactory;
@@ -50,7 +50,9 @@ import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 import org.quantumbadger.redreader.common.time.TimeFormatHelper;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
-import org.quantumbadger.redreader.image.ThumbnailScaler;
+import org.quantumbadger.redreader.image.DecodedThumbnailCache;
+import org.quantumbadger.redreader.image.ThumbnailDecoder;
+import org.quantumbadger.redreader.image.ThumbnailDiskCache;
 import org.quantumbadger.redreader.reddit.api.RedditPostActions;
 import org.quantumbadger.redreader.reddit.kthings.RedditIdAndType;
 import org.quantumbadger.redreader.views.RedditPostView;
@@ -64,6 +66,9 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 
 	private static final String TAG = "RedditPreparedPost";
 
+	private static final CachedThreadPool THUMBNAIL_THREAD_POOL
+			= new CachedThreadPool(2, "Thumbnail disk cache");
+
 	public final RedditParsedPost src;
 	private final RedditChangeDataManager mChangeDataManager;
 
@@ -729,6 +734,35 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 			uri = src.getThumbnailUrl();
 		}
 
+		final Bitmap alreadyDecoded = DecodedThumbnailCache.get(uri, sizePixels);
+
+		if(alreadyDecoded != null) {
+			thumbnailCache = alreadyDecoded;
+			return;
+		}
+
+		// Posts are prepared while parsing the listing, so keep disk reads off that thread
+		THUMBNAIL_THREAD_POOL.add(() -> {
+
+			final Bitmap fromDisk = ThumbnailDiskCache.getInstance(context).read(uri, sizePixels);
+
+			if(fromDisk != null) {
+				DecodedThumbnailCache.put(uri, sizePixels, fromDisk);
+				onThumbnailReady(fromDisk);
+				return;
+			}
+
+			requestThumbnail(context, uri, sizePixels, cm, listId);
+		});
+	}
+
+	private void requestThumbnail(
+			final Context context,
+			final UriString uri,
+			final int sizePixels,
+			final CacheManager cm,
+			final int listId) {
+
 		final int priority = Constants.Priority.THUMBNAIL;
 		final int fileType = Constants.FileType.THUMBNAIL;
 
@@ -754,7 +788,7 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 							final boolean fromCache,
 							@Nullable final String mimetype) {
 
-						onThumbnailStreamAvailable(factory, sizePixels);
+						onThumbnailStreamAvailable(context, factory, uri, sizePixels);
 					}
 
 					@Override
@@ -855,49 +889,37 @@ public final class RedditPreparedPost implements RedditChangeDataManager.Listene
 		return Boolean.TRUE.equals(mChangeDataManager.isHidden(src.getIdAndType()));
 	}
 
+	private void onThumbnailReady(final Bitmap thumbnail) {
+
+		thumbnailCache = thumbnail;
+
+		if(thumbnailCallback != null) {
+			thumbnailCallback.betterThumbnailAvailable(
+					thumbnailCache,
+					usageId);
+		}
+	}
+
 	private void onThumbnailStreamAvailable(
+			final Context context,
 			final GenericFactory<SeekableInputStream, IOException> factory,
+			final UriString uri,
 			final int desiredSizePixels) {
 
 		try(SeekableInputStream seekableInputStream = factory.create()) {
 
-			final BitmapFactory.Options justDecodeBounds = new BitmapFactory.Options();
-			justDecodeBounds.inJustDecodeBounds = true;
-			BitmapFactory.decodeStream(seekableInputStream, null, justDecodeBounds);
-			final int width = justDecodeBounds.outWidth;
-			final int height = justDecodeBounds.outHeight;
-
-			int factor = 1;
-
-			while(width / (factor + 1) > desiredSizePixels
-					&& height / (factor + 1) > desiredSizePixels) {
-				factor *= 2;
-			}
-
-			final BitmapFactory.Options scaledOptions = new BitmapFactory.Options();
-			scaledOptions.inSampleSize = factor;
-
-			seekableInputStream.seek(0);
-			seekableInputStream.mark(0);
-
-			final Bitmap data = BitmapFactory.decodeStream(
+			final Bitmap thumbnail = ThumbnailDecoder.decode(
 					seekableInputStream,
-					null,
-					scaledOptions);
+					desiredSizePixels);
 
-			if(data == null) {
+			if(thumbnail == null) {
 				return;
 			}
-			thumbnailCache = ThumbnailScaler.scale(data, desiredSizePixels);
-			if(thumbnailCache != data) {
-				data.recycle();
-			}
 
-			if(thumbnailCallback != null) {
-				thumbnailCallback.betterThumbnailAvailable(
-						thumbnailCache,
-						usageId);
-			}
+			DecodedThumbnailCache.put(uri, desiredSizePixels, thumbnail);
+			onThumbnailReady(thumbnail);
+
+			ThumbnailDiskCache.getInstance(context).write(uri, desiredSizePixels, thumbnail);
 
 		} catch(final Throwable t) {
 			Log.e(
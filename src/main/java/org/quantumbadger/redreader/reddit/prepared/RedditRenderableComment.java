@@ -577,6 +577,22 @@ public class RedditRenderableComment
 				.generateView(activity, textColor, textSize, showLinkButtons);
 	}
 
+	/**
+	 * Attempts to update a view previously returned by getBody() to display this comment.
+	 *
+	 * @return false if the view could not be reused.
+	 */
+	public boolean rebindBody(
+			@NonNull final View view,
+			final BaseActivity activity,
+			final Integer textColor,
+			final Float textSize,
+			final boolean showLinkButtons) {
+
+		return mComment.getBody()
+				.rebindView(view, activity, textColor, textSize, showLinkButtons);
+	}
+
 	@Override
 	public void handleInboxClick(final BaseActivity activity) {
 		// TODO nullability
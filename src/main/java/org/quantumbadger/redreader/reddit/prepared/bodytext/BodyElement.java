@@ -18,10 +18,14 @@
 package org.quantumbadger.redreader.reddit.prepared.bodytext;
 
 import android.view.View;
+import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
 
+import org.quantumbadger.redreader.R;
 import org.quantumbadger.redreader.activities.BaseActivity;
 
 public abstract class BodyElement {
@@ -42,4 +46,87 @@ public abstract class BodyElement {
 			@Nullable Integer textColor,
 			@Nullable Float textSize,
 			boolean showLinkButtons);
+
+	/**
+	 * Updates a view previously created by generateView() (possibly for a different element)
+	 * so that it displays this element, avoiding the cost of building a new view hierarchy.
+	 *
+	 * @return false if the view is not compatible, in which case the caller should discard it
+	 *          and call generateView() instead.
+	 */
+	public boolean rebindView(
+			@NonNull final View view,
+			@NonNull final BaseActivity activity,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize,
+			final boolean showLinkButtons) {
+
+		return false;
+	}
+
+	/**
+	 * Measures any text in this element ahead of time, so that binding it to a view with
+	 * matching text metrics doesn't have to do so on the UI thread.
+	 */
+	@WorkerThread
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+	}
+
+	// Called when a view created for this element is rebound to another element
+	protected void onViewReleased(@NonNull final View view) {
+	}
+
+	/**
+	 * Rebinds the child of the parent at the specified index to the element, replacing the
+	 * child with a newly generated view if it cannot be reused.
+	 */
+	@NonNull
+	protected static View rebindOrReplaceChild(
+			@NonNull final ViewGroup parent,
+			final int index,
+			@NonNull final BodyElement element,
+			@NonNull final BaseActivity activity,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize,
+			final boolean showLinkButtons) {
+
+		final View existing = index < parent.getChildCount() ? parent.getChildAt(index) : null;
+
+		if(existing != null) {
+
+			if(element.rebindView(existing, activity, textColor, textSize, showLinkButtons)) {
+				return existing;
+			}
+
+			parent.removeViewAt(index);
+		}
+
+		final View result = element.generateView(
+				activity,
+				textColor,
+				textSize,
+				showLinkButtons);
+
+		parent.addView(result, index);
+		return result;
+	}
+
+	protected final void setViewOwner(@NonNull final View view) {
+
+		final Object previousOwner = view.getTag(R.id.body_element_owner);
+
+		if(previousOwner instanceof BodyElement && previousOwner != this) {
+			((BodyElement)previousOwner).onViewReleased(view);
+		}
+
+		view.setTag(R.id.body_element_owner, this);
+	}
+
+	protected final boolean isViewOwnedBy(
+			@NonNull final View view,
+			@NonNull final Class<? extends BodyElement> ownerClass) {
+
+		final Object owner = view.getTag(R.id.body_element_owner);
+		return owner != null && owner.getClass() == ownerClass;
+	}
 }
@@ -23,6 +23,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
 
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.General;
@@ -31,11 +33,13 @@ import java.util.ArrayList;
 
 public class BodyElementBullet extends BodyElement {
 
-	@NonNull private final ArrayList<BodyElement> mElements;
+	@NonNull private final BodyElement mInner;
 
 	public BodyElementBullet(@NonNull final ArrayList<BodyElement> elements) {
 		super(BlockType.LIST_ELEMENT);
-		mElements = elements;
+		mInner = elements.size() == 1
+				? elements.get(0)
+				: new BodyElementVerticalSequence(elements);
 	}
 
 
@@ -58,25 +62,52 @@ public class BodyElementBullet extends BodyElement {
 
 		bulletItem.addView(bullet);
 
-		if(mElements.size() == 1) {
-			bulletItem.addView(mElements.get(0)
-					.generateView(
-							activity,
-							textColor,
-							textSize,
-							showLinkButtons));
-
-		} else {
-			bulletItem.addView(new BodyElementVerticalSequence(mElements)
-					.generateView(
-							activity,
-							textColor,
-							textSize,
-							showLinkButtons));
-		}
+		bulletItem.addView(mInner.generateView(
+				activity,
+				textColor,
+				textSize,
+				showLinkButtons));
 
 		General.setLayoutMatchWidthWrapHeight(bulletItem);
+		setViewOwner(bulletItem);
 
 		return bulletItem;
 	}
+
+	@Override
+	public boolean rebindView(
+			@NonNull final View view,
+			@NonNull final BaseActivity activity,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize,
+			final boolean showLinkButtons) {
+
+		if(!isViewOwnedBy(view, BodyElementBullet.class)) {
+			return false;
+		}
+
+		final LinearLayout layout = (LinearLayout)view;
+		setViewOwner(layout);
+
+		if(textSize != null) {
+			((TextView)layout.getChildAt(0)).setTextSize(textSize);
+		}
+
+		rebindOrReplaceChild(
+				layout,
+				1,
+				mInner,
+				activity,
+				textColor,
+				textSize,
+				showLinkButtons);
+
+		return true;
+	}
+
+	@WorkerThread
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+		mInner.precomputeText(params);
+	}
 }
@@ -24,6 +24,8 @@ import android.widget.LinearLayout;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
 
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.General;
@@ -32,11 +34,13 @@ import java.util.ArrayList;
 
 public class BodyElementQuote extends BodyElement {
 
-	@NonNull private final ArrayList<BodyElement> mElements;
+	@NonNull private final BodyElement mInner;
 
 	public BodyElementQuote(@NonNull final ArrayList<BodyElement> elements) {
 		super(BlockType.QUOTE);
-		mElements = elements;
+		mInner = elements.size() == 1
+				? elements.get(0)
+				: new BodyElementVerticalSequence(elements);
 	}
 
 
@@ -67,25 +71,48 @@ public class BodyElementQuote extends BodyElement {
 			quoteIndent.setLayoutParams(quoteIndentLayoutParams);
 		}
 
-		if(mElements.size() == 1) {
-			quoteLayout.addView(mElements.get(0)
-					.generateView(
-							activity,
-							textColor,
-							textSize,
-							showLinkButtons));
-
-		} else {
-			quoteLayout.addView(new BodyElementVerticalSequence(mElements)
-					.generateView(
-							activity,
-							textColor,
-							textSize,
-							showLinkButtons));
-		}
+		quoteLayout.addView(mInner.generateView(
+				activity,
+				textColor,
+				textSize,
+				showLinkButtons));
 
 		General.setLayoutMatchWidthWrapHeight(quoteLayout);
+		setViewOwner(quoteLayout);
 
 		return quoteLayout;
 	}
+
+	@Override
+	public boolean rebindView(
+			@NonNull final View view,
+			@NonNull final BaseActivity activity,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize,
+			final boolean showLinkButtons) {
+
+		if(!isViewOwnedBy(view, BodyElementQuote.class)) {
+			return false;
+		}
+
+		final LinearLayout layout = (LinearLayout)view;
+		setViewOwner(layout);
+
+		rebindOrReplaceChild(
+				layout,
+				1,
+				mInner,
+				activity,
+				textColor,
+				textSize,
+				showLinkButtons);
+
+		return true;
+	}
+
+	@WorkerThread
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+		mInner.precomputeText(params);
+	}
 }
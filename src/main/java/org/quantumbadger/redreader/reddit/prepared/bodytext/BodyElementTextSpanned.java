@@ -22,6 +22,10 @@ import android.view.View;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.AndroidCommon;
@@ -34,6 +38,11 @@ public class BodyElementTextSpanned extends BodyElement implements DynamicSpanne
 
 	private LinkifiedTextView mTextView;
 
+	@Nullable private volatile PrecomputedTextCompat mPrecomputed;
+
+	// Spans added after parsing (such as inline images) invalidate the precomputed text
+	private volatile boolean mDynamicSpansAdded;
+
 	public BodyElementTextSpanned(
 			@NonNull final BlockType blockType,
 			@NonNull final SpannableStringBuilder spanned) {
@@ -45,12 +54,37 @@ public class BodyElementTextSpanned extends BodyElement implements DynamicSpanne
 	public void addSpanDynamic(final Object what, final int start, final int end, final int flags) {
 		AndroidCommon.runOnUiThread(() -> {
 			mSpanned.setSpan(what, start, end, flags);
+			mDynamicSpansAdded = true;
+			mPrecomputed = null;
 			if(mTextView != null) {
 				mTextView.setText(mSpanned);
 			}
 		});
 	}
 
+	@WorkerThread
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+		if(!mDynamicSpansAdded) {
+			mPrecomputed = PrecomputedTextCompat.create(mSpanned, params);
+		}
+	}
+
+	/**
+	 * Returns the text metrics of a body text view with the specified text size, for use
+	 * with precomputeText().
+	 */
+	@UiThread
+	@NonNull
+	public static PrecomputedTextCompat.Params getTextMetricsParams(
+			@NonNull final BaseActivity activity,
+			final float textSize) {
+
+		final LinkifiedTextView textView = new LinkifiedTextView(activity);
+		textView.setTextSize(textSize);
+		return TextViewCompat.getTextMetricsParams(textView);
+	}
+
 	@Override
 	public View generateView(
 			@NonNull final BaseActivity activity,
@@ -58,7 +92,47 @@ public class BodyElementTextSpanned extends BodyElement implements DynamicSpanne
 			@Nullable final Float textSize,
 			final boolean showLinkButtons) {
 
-		mTextView = new LinkifiedTextView(activity);
+		final LinkifiedTextView textView = new LinkifiedTextView(activity);
+
+		if(PrefsUtility.pref_accessibility_separate_body_text_lines()) {
+
+			textView.setFocusable(true);
+		}
+
+		bind(textView, textColor, textSize);
+		return textView;
+	}
+
+	@Override
+	public boolean rebindView(
+			@NonNull final View view,
+			@NonNull final BaseActivity activity,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize,
+			final boolean showLinkButtons) {
+
+		if(!isViewOwnedBy(view, BodyElementTextSpanned.class)) {
+			return false;
+		}
+
+		bind((LinkifiedTextView)view, textColor, textSize);
+		return true;
+	}
+
+	@Override
+	protected void onViewReleased(@NonNull final View view) {
+		if(mTextView == view) {
+			mTextView = null;
+		}
+	}
+
+	private void bind(
+			@NonNull final LinkifiedTextView textView,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize) {
+
+		setViewOwner(textView);
+		mTextView = textView;
 
 		if(textColor != null) {
 			mTextView.setTextColor(textColor);
@@ -67,13 +141,15 @@ public class BodyElementTextSpanned extends BodyElement implements DynamicSpanne
 			mTextView.setTextSize(textSize);
 		}
 
-		mTextView.setText(mSpanned, LinkifiedTextView.BufferType.SPANNABLE);
+		final PrecomputedTextCompat precomputed = mPrecomputed;
 
-		if(PrefsUtility.pref_accessibility_separate_body_text_lines()) {
+		if(precomputed != null && !mDynamicSpansAdded && precomputed.getParams().equals(
+				TextViewCompat.getTextMetricsParams(mTextView))) {
 
-			mTextView.setFocusable(true);
-		}
+			TextViewCompat.setPrecomputedText(mTextView, precomputed);
 
-		return mTextView;
+		} else {
+			mTextView.setText(mSpanned, LinkifiedTextView.BufferType.SPANNABLE);
+		}
 	}
 }
@@ -22,6 +22,8 @@ import android.widget.LinearLayout;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
 
 import org.quantumbadger.redreader.activities.BaseActivity;
 import org.quantumbadger.redreader.common.General;
@@ -64,13 +66,8 @@ public class BodyElementVerticalSequence extends BodyElement {
 			final LinearLayout.LayoutParams layoutParams
 					= (LinearLayout.LayoutParams)view.getLayoutParams();
 
-			if(lastBlock != null) {
-
-				if(!(element.getType() == BlockType.LIST_ELEMENT
-						&& lastBlock == BlockType.LIST_ELEMENT)) {
-					layoutParams.topMargin = paragraphSpacing;
-				}
-
+			if(needsSpacing(lastBlock, element)) {
+				layoutParams.topMargin = paragraphSpacing;
 			}
 
 			view.setLayoutParams(layoutParams);
@@ -79,7 +76,75 @@ public class BodyElementVerticalSequence extends BodyElement {
 		}
 
 		General.setLayoutMatchWidthWrapHeight(result);
+		setViewOwner(result);
 
 		return result;
 	}
+
+	@Override
+	public boolean rebindView(
+			@NonNull final View view,
+			@NonNull final BaseActivity activity,
+			@Nullable final Integer textColor,
+			@Nullable final Float textSize,
+			final boolean showLinkButtons) {
+
+		if(!isViewOwnedBy(view, BodyElementVerticalSequence.class)) {
+			return false;
+		}
+
+		final LinearLayout layout = (LinearLayout)view;
+		setViewOwner(layout);
+
+		final float dpScale = activity.getResources().getDisplayMetrics().density;
+		final int paragraphSpacing = (int)(dpScale * 6);
+
+		@Nullable BlockType lastBlock = null;
+
+		for(int i = 0; i < mElements.size(); i++) {
+
+			final BodyElement element = mElements.get(i);
+
+			final View child = rebindOrReplaceChild(
+					layout,
+					i,
+					element,
+					activity,
+					textColor,
+					textSize,
+					showLinkButtons);
+
+			final LinearLayout.LayoutParams layoutParams
+					= (LinearLayout.LayoutParams)child.getLayoutParams();
+
+			layoutParams.topMargin = needsSpacing(lastBlock, element) ? paragraphSpacing : 0;
+
+			child.setLayoutParams(layoutParams);
+
+			lastBlock = element.getType();
+		}
+
+		while(layout.getChildCount() > mElements.size()) {
+			layout.removeViewAt(layout.getChildCount() - 1);
+		}
+
+		return true;
+	}
+
+	private static boolean needsSpacing(
+			@Nullable final BlockType lastBlock,
+			@NonNull final BodyElement element) {
+
+		return lastBlock != null
+				&& !(element.getType() == BlockType.LIST_ELEMENT
+						&& lastBlock == BlockType.LIST_ELEMENT);
+	}
+
+	@WorkerThread
+	@Override
+	public void precomputeText(@NonNull final PrecomputedTextCompat.Params params) {
+		for(final BodyElement element : mElements) {
+			element.precomputeText(params);
+		}
+	}
 }
@@ -30,9 +30,11 @@ import org.quantumbadger.redreader.common.UriString;
 import org.quantumbadger.redreader.reddit.prepared.bodytext.BlockType;
 import org.quantumbadger.redreader.reddit.prepared.bodytext.BodyElement;
 import org.quantumbadger.redreader.reddit.prepared.bodytext.BodyElementRRError;
+import org.quantumbadger.redreader.reddit.prepared.bodytext.BodyElementTextSpanned;
 import org.quantumbadger.redreader.reddit.prepared.bodytext.BodyElementVerticalSequence;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class HtmlReader {
 
@@ -91,6 +93,15 @@ public class HtmlReader {
 		}
 	}
 
+	// Tag and attribute names which appear in Reddit's HTML, returned without allocating a
+	// new string each time they are read
+	private static final String[] COMMON_NAMES = {
+			"a", "p", "em", "strong", "code", "pre", "del", "sup", "span", "div", "br", "hr",
+			"ul", "ol", "li", "blockquote", "h1", "h2", "h3", "h4", "h5", "h6", "table",
+			"thead", "tbody", "tr", "th", "td", "img", "emote", "href", "class", "title",
+			"src", "alt", "rel", "id", "align", "width", "height"
+	};
+
 	@NonNull private final String mHtml;
 	private int mPos = 0;
 
@@ -100,13 +111,16 @@ public class HtmlReader {
 		mHtml = html;
 	}
 
-	private static String normaliseWhitespace(@NonNull final String html) {
+	private static String normaliseWhitespace(
+			@NonNull final String html,
+			final int start,
+			final int end) {
 
-		final StringBuilder result = new StringBuilder(html.length());
+		final StringBuilder result = new StringBuilder(end - start);
 
 		boolean lastCharWasWhitespace = false;
 
-		for(int i = 0; i < html.length(); i++) {
+		for(int i = start; i < end; i++) {
 
 			final char c = html.charAt(i);
 
@@ -148,13 +162,13 @@ public class HtmlReader {
 		}
 	}
 
-	private String readName() throws MalformedHtmlException {
+	// Advances past a name, returning the position at which it started
+	private int skipName() throws MalformedHtmlException {
 
-		final StringBuilder result = new StringBuilder(16);
+		final int start = mPos;
 
 		try {
 			while(isNameChar(mHtml.charAt(mPos))) {
-				result.append(mHtml.charAt(mPos));
 				mPos++;
 			}
 
@@ -166,23 +180,99 @@ public class HtmlReader {
 					e);
 		}
 
-		if(result.length() == 0) {
+		if(mPos == start) {
 			throw new MalformedHtmlException("Got zero-length name", mHtml, mPos);
 		}
 
-		return result.toString();
+		return start;
+	}
+
+	private String readName() throws MalformedHtmlException {
+
+		final int start = skipName();
+		final int length = mPos - start;
+
+		for(final String name : COMMON_NAMES) {
+			if(name.length() == length && mHtml.startsWith(name, start)) {
+				return name;
+			}
+		}
+
+		return mHtml.substring(start, mPos);
+	}
+
+	private boolean nameEqualsIgnoreCase(
+			final int start,
+			final int end,
+			@NonNull final String name) {
+
+		return end - start == name.length()
+				&& mHtml.regionMatches(true, start, name, 0, name.length());
+	}
+
+	private void skipUntil(final char endChar) {
+
+		while(mPos < mHtml.length() && mHtml.charAt(mPos) != endChar) {
+			mPos++;
+		}
 	}
 
 	private String readAndUnescapeUntil(final char endChar) {
 
-		final StringBuilder result = new StringBuilder(64);
+		final int start = mPos;
+		boolean hasEntity = false;
 
 		while(mPos < mHtml.length() && mHtml.charAt(mPos) != endChar) {
-			result.append(mHtml.charAt(mPos));
+			if(mHtml.charAt(mPos) == '&') {
+				hasEntity = true;
+			}
 			mPos++;
 		}
 
-		return StringEscapeUtils.unescapeHtml4(result.toString());
+		final String result = mHtml.substring(start, mPos);
+
+		return hasEntity ? StringEscapeUtils.unescapeHtml4(result) : result;
+	}
+
+	// Equivalent to normaliseWhitespace(readAndUnescapeUntil('<')), but only copies the text
+	// once in the common case where there are no entities to unescape
+	private String readNormalisedTextUntilTag() {
+
+		final int start = mPos;
+		boolean hasEntity = false;
+		boolean needsNormalising = false;
+		boolean lastCharWasWhitespace = false;
+
+		while(mPos < mHtml.length()) {
+
+			final char c = mHtml.charAt(mPos);
+
+			if(c == '<') {
+				break;
+
+			} else if(c == '&') {
+				hasEntity = true;
+
+			} else if(c == '\n' || c == '\r' || c == '\t'
+					|| (c == ' ' && lastCharWasWhitespace)) {
+				needsNormalising = true;
+			}
+
+			lastCharWasWhitespace = isWhitespace(c);
+			mPos++;
+		}
+
+		if(hasEntity) {
+			final String unescaped
+					= StringEscapeUtils.unescapeHtml4(mHtml.substring(start, mPos));
+			return normaliseWhitespace(unescaped, 0, unescaped.length());
+
+		} else if(needsNormalising) {
+			return normaliseWhitespace(mHtml, start, mPos);
+
+		} else {
+			return mHtml.substring(start, mPos);
+		}
 	}
 
 	private boolean tryAccept(final char c) {
@@ -302,23 +392,27 @@ public class HtmlReader {
 									title);
 						}
 
-						final String propertyName = readName();
+						final int nameStart = skipName();
+						final int nameEnd = mPos;
 
 						if(tryAccept('=')) {
 							accept('"');
-							final String value = readAndUnescapeUntil('"');
-							accept('"');
-							skipWhitespace();
 
-							if(propertyName.equalsIgnoreCase("href")) {
-								href = value;
-							} else if(propertyName.equalsIgnoreCase("class")) {
-								cssClass = value;
-							} else if(propertyName.equalsIgnoreCase("title")) {
-								title = value;
-							} else if(propertyName.equalsIgnoreCase("src")) {
-								src = new UriString(value);
+							// Only unescape the values of attributes we use
+							if(nameEqualsIgnoreCase(nameStart, nameEnd, "href")) {
+								href = readAndUnescapeUntil('"');
+							} else if(nameEqualsIgnoreCase(nameStart, nameEnd, "class")) {
+								cssClass = readAndUnescapeUntil('"');
+							} else if(nameEqualsIgnoreCase(nameStart, nameEnd, "title")) {
+								title = readAndUnescapeUntil('"');
+							} else if(nameEqualsIgnoreCase(nameStart, nameEnd, "src")) {
+								src = new UriString(readAndUnescapeUntil('"'));
+							} else {
+								skipUntil('"');
 							}
+
+							accept('"');
+							skipWhitespace();
 						}
 					}
 
@@ -357,7 +451,7 @@ public class HtmlReader {
 					// Raw text
 					return new Token(
 							TokenType.TEXT,
-							normaliseWhitespace(readAndUnescapeUntil('<')),
+							readNormalisedTextUntilTag(),
 							null,
 							null,
 							null);
@@ -369,8 +463,41 @@ public class HtmlReader {
 		}
 	}
 
+	/**
+	 * Reads all tokens from the specified HTML, up to and including the EOF token. The result
+	 * can be stored and later passed to parse() in place of the HTML.
+	 */
+	@NonNull
+	public static ArrayList<Token> readAll(@NonNull final String html)
+			throws MalformedHtmlException {
+
+		final HtmlReader reader = new HtmlReader(html);
+		final ArrayList<Token> result = new ArrayList<>();
+
+		Token token;
+
+		do {
+			token = reader.readNext();
+			result.add(token);
+		} while(token.type != TokenType.EOF);
+
+		return result;
+	}
+
+	public static BodyElement parse(
+			@Nullable final String html,
+			@NonNull final AppCompatActivity activity) {
+
+		return parse(html, null, activity);
+	}
+
+	/**
+	 * @param tokens The result of readAll() for this HTML, if available, in which case the
+	 *               HTML is not read again.
+	 */
 	public static BodyElement parse(
 			@Nullable String html,
+			@Nullable final List<Token> tokens,
 			@NonNull final AppCompatActivity activity) {
 
 		if(html == null) {
@@ -380,8 +507,9 @@ public class HtmlReader {
 		final Context applicationContext = activity.getApplicationContext();
 
 		try {
-			final HtmlReaderPeekable reader
-					= new HtmlReaderPeekable(new HtmlReader(html));
+			final HtmlReaderPeekable reader = tokens != null
+					? new HtmlReaderPeekable(tokens, html)
+					: new HtmlReaderPeekable(new HtmlReader(html));
 
 			HtmlRawElement rootElement;
 
@@ -406,6 +534,13 @@ public class HtmlReader {
 
 			reduced.generate(activity, generated);
 
+			// Most bodies are a single paragraph, which can be displayed without a layout
+			// around it. The header and indent are still separate views, as they carry their
+			// own accessibility, swipe and theming behaviour.
+			if(generated.size() == 1 && generated.get(0) instanceof BodyElementTextSpanned) {
+				return generated.get(0);
+			}
+
 			return new BodyElementVerticalSequence(generated);
 
 		} catch(final MalformedHtmlException e) {
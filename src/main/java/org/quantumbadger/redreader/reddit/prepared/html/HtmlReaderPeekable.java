@@ -18,34 +18,73 @@
 package org.quantumbadger.redreader.reddit.prepared.html;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
 
 public class HtmlReaderPeekable {
 
-	@NonNull private final HtmlReader mHtmlReader;
+	@Nullable private final HtmlReader mHtmlReader;
+
+	@Nullable private final List<HtmlReader.Token> mTokens;
+	@NonNull private final String mHtml;
+	private int mTokenIndex = 0;
 
 	@NonNull private HtmlReader.Token mNext;
 
 	public HtmlReaderPeekable(@NonNull final HtmlReader htmlReader) throws
 			MalformedHtmlException {
 		mHtmlReader = htmlReader;
+		mTokens = null;
+		mHtml = htmlReader.getHtml();
 		mNext = mHtmlReader.readNext();
 	}
 
+	/**
+	 * Replays tokens previously produced by HtmlReader.readAll() for the specified HTML.
+	 */
+	public HtmlReaderPeekable(
+			@NonNull final List<HtmlReader.Token> tokens,
+			@NonNull final String html) {
+
+		mHtmlReader = null;
+		mTokens = tokens;
+		mHtml = html;
+		mNext = tokens.isEmpty() ? HtmlReader.Token.EOF : tokens.get(0);
+	}
+
 	public HtmlReader.Token peek() {
 		return mNext;
 	}
 
 	public HtmlReader.Token advance() throws MalformedHtmlException {
-		mNext = mHtmlReader.readNext();
+
+		if(mHtmlReader != null) {
+			mNext = mHtmlReader.readNext();
+
+		} else if(mTokenIndex + 1 < mTokens.size()) {
+			mTokenIndex++;
+			mNext = mTokens.get(mTokenIndex);
+
+		} else {
+			mNext = HtmlReader.Token.EOF;
+		}
+
 		return mNext;
 	}
 
 	@NonNull
 	public String getHtml() {
-		return mHtmlReader.getHtml();
+		return mHtml;
 	}
 
 	public int getPos() {
-		return mHtmlReader.getPos();
+
+		if(mHtmlReader != null) {
+			return mHtmlReader.getPos();
+		}
+
+		// Replayed tokens are only exhausted at the end of the input
+		return mHtml.length();
 	}
 }
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.reddit.prepared.markdown;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Parses successive versions of the same document (for example, while it is being edited),
+ * only tokenizing paragraphs which have changed since the previous call to parse().
+ */
+public final class IncrementalMarkdownParser {
+
+	@NonNull private HashMap<ParagraphKey, MarkdownParagraph> mPreviousParagraphs
+			= new HashMap<>();
+
+	private int mLastReusedCount;
+
+	@NonNull
+	public MarkdownParagraphGroup parse(@NonNull final char[] raw) {
+
+		final ArrayList<MarkdownLine> mergedLines = MarkdownParser.mergeLines(raw);
+
+		final HashMap<ParagraphKey, MarkdownParagraph> currentParagraphs
+				= new HashMap<>(mergedLines.size() * 2);
+
+		final ArrayList<MarkdownParagraph> outputParagraphs =
+				new ArrayList<>(mergedLines.size());
+
+		int reusedCount = 0;
+
+		for(final MarkdownLine line : mergedLines) {
+
+			final MarkdownParagraph lastParagraph = outputParagraphs.isEmpty()
+					? null
+					: outputParagraphs.get(outputParagraphs.size() - 1);
+
+			final ParagraphKey key = new ParagraphKey(line, lastParagraph);
+
+			MarkdownParagraph paragraph = mPreviousParagraphs.get(key);
+
+			if(paragraph == null) {
+				paragraph = line.tokenize(lastParagraph);
+			} else {
+				reusedCount++;
+			}
+
+			currentParagraphs.put(key, paragraph);
+
+			if(!paragraph.isEmpty()) {
+				outputParagraphs.add(paragraph);
+			}
+		}
+
+		// Only keep paragraphs which still exist, so the cache doesn't grow with each edit
+		mPreviousParagraphs = currentParagraphs;
+		mLastReusedCount = reusedCount;
+
+		return new MarkdownParagraphGroup(outputParagraphs.toArray(
+				new MarkdownParagraph[0]));
+	}
+
+	/**
+	 * @return The number of paragraphs in the last parsed document which did not need to be
+	 *          tokenized again.
+	 */
+	public int getLastReusedCount() {
+		return mLastReusedCount;
+	}
+
+	// A paragraph's output depends on its own source, and on whether (and what type of)
+	// paragraph precedes it.
+	private static final class ParagraphKey {
+
+		@NonNull private final String mSrc;
+		@NonNull private final MarkdownParser.MarkdownParagraphType mType;
+		private final int mPrefixLength;
+		private final int mLevel;
+		private final int mNumber;
+		private final boolean mHasParent;
+		@Nullable private final MarkdownParser.MarkdownParagraphType mParentType;
+
+		private final int mHashCode;
+
+		ParagraphKey(
+				@NonNull final MarkdownLine line,
+				@Nullable final MarkdownParagraph parent) {
+
+			mSrc = line.src.toString();
+			mType = line.type;
+			mPrefixLength = line.prefixLength;
+			mLevel = line.level;
+			mNumber = line.number;
+			mHasParent = parent != null;
+			mParentType = parent == null ? null : parent.type;
+
+			mHashCode = Objects.hash(
+					mSrc,
+					mType,
+					mPrefixLength,
+					mLevel,
+					mNumber,
+					mHasParent,
+					mParentType);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+
+			if(this == o) {
+				return true;
+			}
+
+			if(!(o instanceof ParagraphKey)) {
+				return false;
+			}
+
+			final ParagraphKey other = (ParagraphKey)o;
+
+			return mHashCode == other.mHashCode
+					&& mType == other.mType
+					&& mPrefixLength == other.mPrefixLength
+					&& mLevel == other.mLevel
+					&& mNumber == other.mNumber
+					&& mHasParent == other.mHasParent
+					&& mParentType == other.mParentType
+					&& mSrc.equals(other.mSrc);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+	}
+}
@@ -219,12 +219,11 @@ public final class MarkdownLine {
 						level,
 						number);
 			} else {
-				final IntArrayLengthPair tokens = MarkdownTokenizer.tokenize(cleanedSrc);
 				return new MarkdownParagraph(
 						cleanedSrc,
 						parent,
 						type,
-						tokens.substringAsArray(0),
+						MarkdownTokenizer.tokenizeToArray(cleanedSrc),
 						level,
 						number);
 			}
@@ -27,6 +27,30 @@ public final class MarkdownParser {
 
 	public static MarkdownParagraphGroup parse(final char[] raw) {
 
+		final ArrayList<MarkdownLine> mergedLines = mergeLines(raw);
+
+		final ArrayList<MarkdownParagraph> outputParagraphs =
+				new ArrayList<>(mergedLines.size());
+
+		for(final MarkdownLine line : mergedLines) {
+
+			final MarkdownParagraph lastParagraph = outputParagraphs.isEmpty()
+					? null
+					: outputParagraphs.get(outputParagraphs.size() - 1);
+
+			final MarkdownParagraph paragraph = line.tokenize(lastParagraph);
+
+			if(!paragraph.isEmpty()) {
+				outputParagraphs.add(paragraph);
+			}
+		}
+
+		return new MarkdownParagraphGroup(outputParagraphs.toArray(
+				new MarkdownParagraph[0]));
+	}
+
+	static ArrayList<MarkdownLine> mergeLines(final char[] raw) {
+
 		final CharArrSubstring[] rawLines = CharArrSubstring.generateFromLines(raw);
 
 		final MarkdownLine[] lines = new MarkdownLine[rawLines.length];
@@ -95,23 +119,6 @@ public final class MarkdownParser {
 			mergedLines.add(currentLine);
 		}
 
-		final ArrayList<MarkdownParagraph> outputParagraphs =
-				new ArrayList<>(mergedLines.size());
-
-		for(final MarkdownLine line : mergedLines) {
-
-			final MarkdownParagraph lastParagraph = outputParagraphs.isEmpty()
-					? null
-					: outputParagraphs.get(outputParagraphs.size() - 1);
-
-			final MarkdownParagraph paragraph = line.tokenize(lastParagraph);
-
-			if(!paragraph.isEmpty()) {
-				outputParagraphs.add(paragraph);
-			}
-		}
-
-		return new MarkdownParagraphGroup(outputParagraphs.toArray(
-				new MarkdownParagraph[0]));
+		return mergedLines;
 	}
 }
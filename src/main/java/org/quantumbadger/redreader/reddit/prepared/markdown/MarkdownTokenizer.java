@@ -19,7 +19,7 @@ package org.quantumbadger.redreader.reddit.prepared.markdown;
 
 import org.apache.commons.text.StringEscapeUtils;
 
-import java.util.HashSet;
+import java.util.Arrays;
 
 public final class MarkdownTokenizer {
 
@@ -55,7 +55,15 @@ public final class MarkdownTokenizer {
 			"/user/".toCharArray()
 	};
 
-	private static final HashSet<Integer> unicodeWhitespace = new HashSet<>();
+	// Buffers larger than this are allocated for a single call rather than being retained
+	private static final int MAX_RETAINED_SCRATCH_LENGTH = 64 * 1024;
+
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
 
 	static {
 		reverseLookup[20 + TOKEN_UNDERSCORE] = new char[] {'_'};
@@ -71,35 +79,84 @@ public final class MarkdownTokenizer {
 		reverseLookup[20 + TOKEN_PAREN_CLOSE] = new char[] {')'};
 		reverseLookup[20 + TOKEN_UNICODE_OPEN] = new char[] {'&'};
 		reverseLookup[20 + TOKEN_UNICODE_CLOSE] = new char[] {';'};
-
-		unicodeWhitespace.add(0x0009);
-		unicodeWhitespace.add(0x000B);
-		unicodeWhitespace.add(0x00A0);
-		unicodeWhitespace.add(0x1680);
-		unicodeWhitespace.add(0x2000);
-		unicodeWhitespace.add(0x2001);
-		unicodeWhitespace.add(0x2002);
-		unicodeWhitespace.add(0x2003);
-		unicodeWhitespace.add(0x2004);
-		unicodeWhitespace.add(0x2005);
-		unicodeWhitespace.add(0x2006);
-		unicodeWhitespace.add(0x2007);
-		unicodeWhitespace.add(0x2008);
-		unicodeWhitespace.add(0x2009);
-		unicodeWhitespace.add(0x200A);
-		unicodeWhitespace.add(0x202F);
-		unicodeWhitespace.add(0x205F);
-		unicodeWhitespace.add(0x3000);
 	}
 
 	public static boolean isUnicodeWhitespace(final int codepoint) {
-		return unicodeWhitespace.contains(codepoint);
+
+		switch(codepoint) {
+			case 0x0009:
+			case 0x000B:
+			case 0x00A0:
+			case 0x1680:
+			case 0x2000:
+			case 0x2001:
+			case 0x2002:
+			case 0x2003:
+			case 0x2004:
+			case 0x2005:
+			case 0x2006:
+			case 0x2007:
+			case 0x2008:
+			case 0x2009:
+			case 0x200A:
+			case 0x202F:
+			case 0x205F:
+			case 0x3000:
+				return true;
+
+			default:
+				return false;
+		}
+	}
+
+	// Intermediate buffers, reused between calls on the same thread
+	private static final class Scratch {
+
+		private IntArrayLengthPair tmp1 = new IntArrayLengthPair(0);
+		private IntArrayLengthPair tmp2 = new IntArrayLengthPair(0);
+		private boolean[] toRevert = new boolean[0];
+		private boolean[] toDelete = new boolean[0];
+
+		private void ensureTokenCapacity(final int capacity) {
+
+			if(tmp1.data.length < capacity) {
+				tmp1 = new IntArrayLengthPair(capacity);
+				tmp2 = new IntArrayLengthPair(capacity);
+				toRevert = new boolean[capacity];
+				toDelete = new boolean[capacity];
+			}
+		}
 	}
 
 	public static IntArrayLengthPair tokenize(final CharArrSubstring input) {
 
-		final IntArrayLengthPair tmp1 = new IntArrayLengthPair(input.length * 3);
-		final IntArrayLengthPair tmp2 = new IntArrayLengthPair(input.length * 3);
+		final int[] tokens = tokenizeToArray(input);
+
+		final IntArrayLengthPair result = new IntArrayLengthPair(tokens.length);
+		result.append(tokens);
+		return result;
+	}
+
+	/**
+	 * Tokenizes the input using intermediate buffers which are reused between calls, so the
+	 * returned array is the only allocation for all but the largest inputs.
+	 */
+	public static int[] tokenizeToArray(final CharArrSubstring input) {
+
+		final int capacity = input.length * 3;
+
+		final Scratch buffers;
+
+		if(capacity > MAX_RETAINED_SCRATCH_LENGTH) {
+			buffers = new Scratch();
+		} else {
+			buffers = scratch.get();
+		}
+
+		buffers.ensureTokenCapacity(capacity);
+
+		final IntArrayLengthPair tmp1 = buffers.tmp1;
+		final IntArrayLengthPair tmp2 = buffers.tmp2;
 
 		tmp1.pos = input.length;
 		for(int i = 0; i < input.length; i++) {
@@ -109,11 +166,11 @@ public final class MarkdownTokenizer {
 		// Markdown is evil.
 
 		naiveTokenize(tmp1, tmp2);
-		clean(tmp2, tmp1);
+		clean(tmp2, tmp1, buffers.toRevert, buffers.toDelete);
 		linkify(tmp1, tmp2);
-		clean(tmp2, tmp1);
+		clean(tmp2, tmp1, buffers.toRevert, buffers.toDelete);
 
-		return tmp1;
+		return tmp1.substringAsArray(0);
 	}
 
 	private static void linkify(
@@ -218,14 +275,11 @@ public final class MarkdownTokenizer {
 
 							if(linkEndPos - linkPrefixEndPos >= 2) {
 
-								final int[] reverted =
-										revert(input.data, linkStartPos, linkEndPos);
-
 								output.data[output.pos++] = TOKEN_BRACKET_SQUARE_OPEN;
-								output.append(reverted);
+								appendReverted(input.data, linkStartPos, linkEndPos, output);
 								output.data[output.pos++] = TOKEN_BRACKET_SQUARE_CLOSE;
 								output.data[output.pos++] = TOKEN_PAREN_OPEN;
-								output.append(reverted);
+								appendReverted(input.data, linkStartPos, linkEndPos, output);
 								output.data[output.pos++] = TOKEN_PAREN_CLOSE;
 
 								i = linkEndPos - 1;
@@ -284,14 +338,11 @@ public final class MarkdownTokenizer {
 
 							if(linkEndPos - linkPrefixEndPos > 2) {
 
-								final int[] reverted =
-										revert(input.data, linkStartPos, linkEndPos);
-
 								output.data[output.pos++] = TOKEN_BRACKET_SQUARE_OPEN;
-								output.append(reverted);
+								appendReverted(input.data, linkStartPos, linkEndPos, output);
 								output.data[output.pos++] = TOKEN_BRACKET_SQUARE_CLOSE;
 								output.data[output.pos++] = TOKEN_PAREN_OPEN;
-								output.append(reverted);
+								appendReverted(input.data, linkStartPos, linkEndPos, output);
 								output.data[output.pos++] = TOKEN_PAREN_CLOSE;
 
 								i = linkEndPos - 1;
@@ -325,9 +376,17 @@ public final class MarkdownTokenizer {
 			final IntArrayLengthPair input,
 			final IntArrayLengthPair output) {
 
-		// TODO use single byte array, flags
-		final boolean[] toRevert = new boolean[input.pos];
-		final boolean[] toDelete = new boolean[input.pos];
+		clean(input, output, new boolean[input.pos], new boolean[input.pos]);
+	}
+
+	private static void clean(
+			final IntArrayLengthPair input,
+			final IntArrayLengthPair output,
+			final boolean[] toRevert,
+			final boolean[] toDelete) {
+
+		Arrays.fill(toRevert, 0, input.pos, false);
+		Arrays.fill(toDelete, 0, input.pos, false);
 
 		int openingUnderscore = -1;
 		int openingUnderscoreDouble = -1;
@@ -657,7 +716,7 @@ public final class MarkdownTokenizer {
 									openingUnicode + 3,
 									closingUnicode);
 
-							if(unicodeWhitespace.contains(codePoint)) {
+							if(isUnicodeWhitespace(codePoint)) {
 								input.data[openingUnicode] = ' ';
 							} else {
 								input.data[openingUnicode] = codePoint;
@@ -679,7 +738,7 @@ public final class MarkdownTokenizer {
 									openingUnicode + 2,
 									closingUnicode);
 
-							if(unicodeWhitespace.contains(codePoint)) {
+							if(isUnicodeWhitespace(codePoint)) {
 								input.data[openingUnicode] = ' ';
 							} else {
 								input.data[openingUnicode] = codePoint;
@@ -725,7 +784,7 @@ public final class MarkdownTokenizer {
 
 						if(codePoint != null) {
 
-							if(unicodeWhitespace.contains(codePoint)) {
+							if(isUnicodeWhitespace(codePoint)) {
 								input.data[openingUnicode] = ' ';
 							} else {
 								input.data[openingUnicode] = codePoint;
@@ -1100,40 +1159,21 @@ public final class MarkdownTokenizer {
 		return -1;
 	}
 
-	// TODO avoid generating new array
-	private static int[] revert(
+	private static void appendReverted(
 			final int[] tokens,
 			final int startInclusive,
-			final int endExclusive) {
-
-		int outputLen = 0;
-
-		for(int i = startInclusive; i < endExclusive; i++) {
-			final int token = tokens[i];
-			if(token < 0) {
-				outputLen += reverseLookup[20 + token].length;
-
-			} else {
-				outputLen++;
-			}
-		}
-
-		final int[] result = new int[outputLen];
-		int resultPos = 0;
+			final int endExclusive,
+			final IntArrayLengthPair output) {
 
 		for(int i = startInclusive; i < endExclusive; i++) {
 			final int token = tokens[i];
 			if(token < 0) {
-				for(final char c : reverseLookup[20 + token]) {
-					result[resultPos++] = c;
-				}
+				output.append(reverseLookup[20 + token]);
 
 			} else {
-				result[resultPos++] = token;
+				output.data[output.pos++] = token;
 			}
 		}
-
-		return result;
 	}
 
 }
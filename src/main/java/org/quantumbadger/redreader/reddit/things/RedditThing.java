@@ -27,6 +27,7 @@ import java.util.Map;
 public final class RedditThing implements JsonObject.JsonDeserializable {
 
 	public static final String KIND_USER = "t2";
+	public static final String KIND_SUBREDDIT = "t5";
 
 	public enum Kind {
 		POST, USER, COMMENT, MESSAGE, SUBREDDIT, MORE_COMMENTS, LISTING
@@ -40,7 +41,7 @@ public final class RedditThing implements JsonObject.JsonDeserializable {
 		kinds.put(KIND_USER, Kind.USER);
 		kinds.put("t3", Kind.POST);
 		kinds.put("t4", Kind.MESSAGE);
-		kinds.put("t5", Kind.SUBREDDIT);
+		kinds.put(KIND_SUBREDDIT, Kind.SUBREDDIT);
 		kinds.put("more", Kind.MORE_COMMENTS);
 		kinds.put("Listing", Kind.LISTING);
 	}
@@ -24,6 +24,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.text.Html;
+import android.text.InputType;
 import android.util.Log;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -235,6 +236,16 @@ public final class SettingsFragment extends PreferenceFragmentCompat {
 			});
 		}
 
+		{
+			final EditTextPreference postFiltersPref =
+					findPreference(getString(R.string.pref_behaviour_post_filters_key));
+
+			if(postFiltersPref != null) {
+				postFiltersPref.setOnBindEditTextListener(editText -> editText.setInputType(
+						InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE));
+			}
+		}
+
 		{
 			final CheckBoxPreference notifPref =
 					findPreference(getString(R.string.pref_behaviour_notifications_key));
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.View;
+import androidx.annotation.NonNull;
+import org.quantumbadger.redreader.image.GifFrameRingBuffer;
+
+/**
+ * Displays frames from a {@link GifFrameRingBuffer}, advancing in step with the display
+ * refresh rather than on a timer thread.
+ */
+public final class AnimatedGifView extends View implements RRChoreographer.Callback {
+
+	@NonNull private final GifFrameRingBuffer mBuffer;
+	@NonNull private final Paint mPaint = new Paint();
+
+	private Bitmap mCurrentFrame;
+	private long mFrameDeadlineNanos;
+
+	private boolean mAttached = false;
+	private boolean mCallbackPosted = false;
+
+	public AnimatedGifView(
+			@NonNull final Context context,
+			@NonNull final GifFrameRingBuffer buffer) {
+
+		super(context);
+		mBuffer = buffer;
+
+		mPaint.setAntiAlias(true);
+		mPaint.setFilterBitmap(true);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		mAttached = true;
+
+		if(!mCallbackPosted) {
+			mCallbackPosted = true;
+			RRChoreographer.INSTANCE.postFrameCallback(this);
+		}
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		mAttached = false;
+	}
+
+	@Override
+	public void doFrame(final long frameTimeNanos) {
+
+		mCallbackPosted = false;
+
+		if(!mAttached) {
+			return;
+		}
+
+		if((mCurrentFrame == null || frameTimeNanos >= mFrameDeadlineNanos)
+				&& mBuffer.advance()) {
+
+			final long delayNanos = mBuffer.getCurrentFrameDelayMs() * 1_000_000L;
+
+			if(mCurrentFrame == null || frameTimeNanos - mFrameDeadlineNanos > delayNanos) {
+				// First frame, or the decoder has fallen behind: don't try to catch up
+				mFrameDeadlineNanos = frameTimeNanos + delayNanos;
+			} else {
+				mFrameDeadlineNanos += delayNanos;
+			}
+
+			mCurrentFrame = mBuffer.getCurrentFrame();
+			invalidate();
+		}
+
+		mCallbackPosted = true;
+		RRChoreographer.INSTANCE.postFrameCallback(this);
+	}
+
+	@Override
+	protected void onDraw(@NonNull final Canvas canvas) {
+		super.onDraw(canvas);
+
+		final Bitmap frame = mCurrentFrame;
+
+		if(frame == null) {
+			return;
+		}
+
+		final float scale = Math.min(
+				(float)getWidth() / frame.getWidth(),
+				(float)getHeight() / frame.getHeight());
+
+		canvas.save();
+		canvas.translate(
+				(getWidth() - frame.getWidth() * scale) / 2f,
+				(getHeight() - frame.getHeight() * scale) / 2f);
+		canvas.scale(scale, scale);
+		canvas.drawBitmap(frame, 0, 0, mPaint);
+		canvas.restore();
+	}
+}
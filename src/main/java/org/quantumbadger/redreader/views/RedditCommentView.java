@@ -407,15 +407,34 @@ public class RedditCommentView extends FlingableItemView
 				.getRawComment().getAuthor().getDecoded().equalsIgnoreCase(
 						"autowikibot");
 
-		mBodyHolder.removeAllViews();
-		final View commentBody = comment.asComment().getBody(
+		final boolean showLinkButtons = mShowLinkButtons && !hideLinkButtons;
+
+		// Reuse the previous body's views where possible, rather than inflating a new tree
+		final View previousBody
+				= mBodyHolder.getChildCount() == 1 ? mBodyHolder.getChildAt(0) : null;
+
+		final View commentBody;
+
+		if(previousBody != null && comment.asComment().rebindBody(
+				previousBody,
 				activity,
 				mTheme.rrCommentBodyCol,
 				13.0f * mBodyFontScale,
-				mShowLinkButtons && !hideLinkButtons);
+				showLinkButtons)) {
 
-		mBodyHolder.addView(commentBody);
-		General.setLayoutMatchWidthWrapHeight(commentBody);
+			commentBody = previousBody;
+
+		} else {
+			mBodyHolder.removeAllViews();
+			commentBody = comment.asComment().getBody(
+					activity,
+					mTheme.rrCommentBodyCol,
+					13.0f * mBodyFontScale,
+					showLinkButtons);
+
+			mBodyHolder.addView(commentBody);
+			General.setLayoutMatchWidthWrapHeight(commentBody);
+		}
 
 		((MarginLayoutParams)commentBody.getLayoutParams()).topMargin =
 				General.dpToPixels(activity, 1);
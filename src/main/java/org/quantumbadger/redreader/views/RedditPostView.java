@@ -32,6 +32,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.FrameLayout;
+import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -61,7 +62,9 @@ import org.quantumbadger.redreader.common.SharedPrefsWrapper;
 import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
 import org.quantumbadger.redreader.common.time.TimestampUTC;
 import org.quantumbadger.redreader.fragments.PostListingFragment;
+import org.quantumbadger.redreader.http.BandwidthEstimator;
 import org.quantumbadger.redreader.reddit.api.RedditPostActions;
+import org.quantumbadger.redreader.reddit.prepared.PreviewResolutionSelector;
 import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost;
 import org.quantumbadger.redreader.reddit.prepared.RedditPreparedPost;
 import org.quantumbadger.redreader.views.liststatus.ErrorView;
@@ -99,12 +102,16 @@ public final class RedditPostView extends FlingableItemView
 	@NonNull private final FrameLayout mImagePreviewHolder;
 	@NonNull private final ImageView mImagePreviewImageView;
 	@NonNull private final ConstraintLayout mImagePreviewPlayOverlay;
+	@NonNull private final ImageButton mImagePreviewUpgradeButton;
 	@NonNull private final LinearLayout mImagePreviewOuter;
 	@NonNull private final LoadingSpinnerView mImagePreviewLoadingSpinner;
 	@NonNull private final LinearLayout mFooter;
 
 	private int mUsageId = 0;
 
+	// Only accessed on the UI thread
+	@Nullable private CacheRequest mInlinePreviewUpgrade;
+
 	private final Handler thumbnailHandler;
 
 	private final BaseActivity mActivity;
@@ -226,6 +233,9 @@ public final class RedditPostView extends FlingableItemView
 		mImagePreviewPlayOverlay = Objects.requireNonNull(
 				rootView.findViewById(R.id.reddit_post_image_preview_play_overlay));
 
+		mImagePreviewUpgradeButton = Objects.requireNonNull(
+				rootView.findViewById(R.id.reddit_post_image_preview_upgrade));
+
 		mImagePreviewOuter = Objects.requireNonNull(
 				rootView.findViewById(R.id.reddit_post_image_preview_outer));
 
@@ -352,11 +362,17 @@ public final class RedditPostView extends FlingableItemView
 			mThumbnailView.setImageBitmap(null);
 			mImagePreviewImageView.setImageBitmap(null);
 			mImagePreviewPlayOverlay.setVisibility(GONE);
+			mImagePreviewUpgradeButton.setVisibility(GONE);
 			mPostErrors.removeAllViews();
 			mFooter.removeAllViews();
 
 			mUsageId++;
 
+			if(mInlinePreviewUpgrade != null) {
+				mInlinePreviewUpgrade.cancel();
+				mInlinePreviewUpgrade = null;
+			}
+
 			resetSwipeState();
 
 			title.setText(newPost.src.getTitle());
@@ -526,8 +542,25 @@ public final class RedditPostView extends FlingableItemView
 		mImagePreviewLoadingSpinner.setVisibility(VISIBLE);
 		setBottomMargin(true);
 
+		// Size the download to the view if it has been laid out, as it may be narrower
+		// than the screen
+		final int viewWidth = mImagePreviewHolder.getWidth();
+		final int targetWidth = viewWidth > 0 ? Math.min(viewWidth, screenWidth) : screenWidth;
+
+		final PreviewResolutionSelector.Selection selection = PreviewResolutionSelector.select(
+				post.src.getPreviewResolutions(),
+				targetWidth,
+				0,
+				BandwidthEstimator.getInstance().getBytesPerSecond());
+
+		final RedditParsedPost.ImagePreviewDetails initial
+				= selection == null ? preview : selection.initial;
+
+		final RedditParsedPost.ImagePreviewDetails upgrade
+				= selection == null ? null : selection.upgrade;
+
 		CacheManager.getInstance(mActivity).makeRequest(new CacheRequest.Builder()
-				.setUrl(preview.url)
+				.setUrl(initial.url)
 				.setUser(RedditAccountManager.getAnon())
 				.setPriority(new Priority(Constants.Priority.INLINE_IMAGE_PREVIEW))
 				.setDownloadStrategy(DownloadStrategyIfNotCached.INSTANCE)
@@ -564,7 +597,7 @@ public final class RedditPostView extends FlingableItemView
 								throw new RuntimeException("Image was too large: "
 										+ data.getByteCount()
 										+ ", preview URL was "
-										+ preview.url
+										+ initial.url
 										+ " and post was "
 										+ post.src.getIdAndType());
 							}
@@ -589,6 +622,16 @@ public final class RedditPostView extends FlingableItemView
 								if(totalPreviewsShown % 8 == 2 && !alreadyAcceptedPrompt) {
 									showPrefPrompt();
 								}
+
+								// The full resolution preview is only downloaded if the user asks
+								// for it, as most previews are scrolled past
+								if(upgrade != null) {
+									mImagePreviewUpgradeButton.setVisibility(VISIBLE);
+									mImagePreviewUpgradeButton.setOnClickListener(v -> {
+										mImagePreviewUpgradeButton.setVisibility(GONE);
+										upgradeInlinePreview(usageId, upgrade);
+									});
+								}
 							});
 
 						} catch(final Throwable t) {
@@ -597,7 +640,7 @@ public final class RedditPostView extends FlingableItemView
 									CacheRequest.RequestFailureType.CONNECTION,
 									t,
 									null,
-									preview.url,
+									initial.url,
 									Optional.empty()));
 						}
 					}
@@ -628,6 +671,98 @@ public final class RedditPostView extends FlingableItemView
 				.build());
 	}
 
+	// Replaces a reduced resolution preview, shown because the connection was slow, with one
+	// which fills the view. Called when the user taps the upgrade button on the preview.
+	@UiThread
+	private void upgradeInlinePreview(
+			final int usageId,
+			@NonNull final RedditParsedPost.ImagePreviewDetails upgrade) {
+
+		if(usageId != mUsageId) {
+			return;
+		}
+
+		final CacheRequest request = new CacheRequest.Builder()
+				.setUrl(upgrade.url)
+				.setUser(RedditAccountManager.getAnon())
+				.setPriority(new Priority(Constants.Priority.INLINE_IMAGE_PREVIEW))
+				.setDownloadStrategy(DownloadStrategyIfNotCached.INSTANCE)
+				.setFileType(Constants.FileType.INLINE_IMAGE_PREVIEW)
+				.setQueueType(CacheRequest.DownloadQueueType.IMMEDIATE)
+				.setRequestMethod(CacheRequest.RequestMethod.GET)
+				.setContext(mActivity)
+				.setCache(true)
+				.setCallbacks(new CacheRequestCallbacks() {
+					@Override
+					public void onDataStreamComplete(
+							@NonNull final GenericFactory<SeekableInputStream, IOException> stream,
+							final TimestampUTC timestamp,
+							@NonNull final UUID session,
+							final boolean fromCache,
+							@Nullable final String mimetype) {
+
+						if(usageId != mUsageId) {
+							return;
+						}
+
+						final Bitmap data;
+
+						try(InputStream is = stream.create()) {
+
+							data = BitmapFactory.decodeStream(is);
+
+							if(data == null) {
+								throw new IOException("Failed to decode bitmap");
+							}
+
+							// As with the initial preview, avoid a crash on ROMs where the
+							// ImageView can't handle a very large bitmap
+							if(data.getByteCount() > 50 * 1024 * 1024) {
+								throw new IOException("Image was too large: "
+										+ data.getByteCount()
+										+ ", preview URL was "
+										+ upgrade.url);
+							}
+
+						} catch(final IOException e) {
+							onFailure(General.getGeneralErrorForFailure(
+									mActivity,
+									CacheRequest.RequestFailureType.CONNECTION,
+									e,
+									null,
+									upgrade.url,
+									Optional.empty()));
+							return;
+						}
+
+						AndroidCommon.runOnUiThread(() -> {
+							if(usageId == mUsageId) {
+								mImagePreviewImageView.setImageBitmap(data);
+							}
+						});
+					}
+
+					@Override
+					public void onFailure(@NonNull final RRError error) {
+
+						// The reduced preview is still showing, so just let the user try again
+						if(General.isSensitiveDebugLoggingEnabled()) {
+							Log.e(TAG, "Failed to upgrade image preview: " + error, error.t);
+						}
+
+						AndroidCommon.runOnUiThread(() -> {
+							if(usageId == mUsageId) {
+								mImagePreviewUpgradeButton.setVisibility(VISIBLE);
+							}
+						});
+					}
+				})
+				.build();
+
+		mInlinePreviewUpgrade = request;
+		CacheManager.getInstance(mActivity).makeRequest(request);
+	}
+
 	private void showPrefPrompt() {
 
 		final SharedPrefsWrapper sharedPrefs
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import androidx.annotation.NonNull;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.image.AlbumPrefetcher;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class AlbumPrefetcherTest {
+
+	private static final int IMAGE_BYTES = 64 * 1024;
+
+	private static final class RecordingFetcher implements AlbumPrefetcher.Fetcher {
+
+		final ArrayList<Integer> started = new ArrayList<>();
+		final ArrayList<Integer> cancelled = new ArrayList<>();
+		final ArrayList<AlbumPrefetcher.FetchListener> listeners = new ArrayList<>();
+
+		@NonNull
+		@Override
+		public AlbumPrefetcher.Request fetch(
+				@NonNull final UriString url,
+				final int index,
+				@NonNull final AlbumPrefetcher.FetchListener listener) {
+
+			started.add(index);
+			listeners.add(listener);
+			return () -> cancelled.add(index);
+		}
+	}
+
+	// Completes each fetch a fixed time after it starts, using a simulated clock
+	private static final class SimulatedFetcher implements AlbumPrefetcher.Fetcher {
+
+		private static final class Download {
+
+			final int index;
+			final long completesAtMs;
+			@NonNull final AlbumPrefetcher.FetchListener listener;
+
+			Download(
+					final int index,
+					final long completesAtMs,
+					@NonNull final AlbumPrefetcher.FetchListener listener) {
+
+				this.index = index;
+				this.completesAtMs = completesAtMs;
+				this.listener = listener;
+			}
+		}
+
+		final long fetchMs;
+		final ArrayList<Download> inFlight = new ArrayList<>();
+		final HashSet<Integer> cached = new HashSet<>();
+
+		long nowMs = 0;
+		int completed = 0;
+		int maxInFlight = 0;
+
+		// Once the throughput has been measured
+		int maxInFlightAfterSample = 0;
+
+		SimulatedFetcher(final long fetchMs) {
+			this.fetchMs = fetchMs;
+		}
+
+		@NonNull
+		@Override
+		public AlbumPrefetcher.Request fetch(
+				@NonNull final UriString url,
+				final int index,
+				@NonNull final AlbumPrefetcher.FetchListener listener) {
+
+			final Download download = new Download(index, nowMs + fetchMs, listener);
+
+			inFlight.add(download);
+			maxInFlight = Math.max(maxInFlight, inFlight.size());
+
+			if(completed > 0) {
+				maxInFlightAfterSample = Math.max(maxInFlightAfterSample, inFlight.size());
+			}
+
+			return () -> inFlight.remove(download);
+		}
+
+		// Delivers the fetches which complete by the specified time, in order
+		void advanceTo(final long timeMs) {
+
+			while(true) {
+
+				Download next = null;
+
+				for(final Download download : inFlight) {
+					if(download.completesAtMs <= timeMs
+							&& (next == null || download.completesAtMs < next.completesAtMs)) {
+						next = download;
+					}
+				}
+
+				if(next == null) {
+					break;
+				}
+
+				inFlight.remove(next);
+				nowMs = next.completesAtMs;
+				completed++;
+				cached.add(next.index);
+				next.listener.onFetched(IMAGE_BYTES, fetchMs, false);
+			}
+
+			nowMs = timeMs;
+		}
+	}
+
+	private static List<UriString> urls(final int count) {
+
+		final ArrayList<UriString> result = new ArrayList<>(count);
+
+		for(int i = 0; i < count; i++) {
+			result.add(new UriString("https://example.com/" + i));
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testConcurrencyFollowsThroughput() {
+
+		final AlbumPrefetcher.Throughput throughput = new AlbumPrefetcher.Throughput();
+		assertEquals(2, throughput.getRecommendedConcurrency());
+
+		// Too small to be a useful sample
+		throughput.addSample(1024, 1000);
+		assertEquals(2, throughput.getRecommendedConcurrency());
+
+		throughput.addSample(100 * 1024, 1000);
+		assertEquals(1, throughput.getRecommendedConcurrency());
+
+		for(int i = 0; i < 20; i++) {
+			throughput.addSample(10 * 1024 * 1024, 1000);
+		}
+
+		assertEquals(4, throughput.getRecommendedConcurrency());
+	}
+
+	@Test
+	public void testWindowAndCancel() {
+
+		final List<UriString> urls = urls(20);
+		urls.set(4, null);
+
+		final RecordingFetcher fetcher = new RecordingFetcher();
+		final AlbumPrefetcher prefetcher = new AlbumPrefetcher(
+				urls,
+				5,
+				new AlbumPrefetcher.Throughput(),
+				fetcher);
+
+		prefetcher.onLastVisibleIndexChanged(2);
+
+		// Two at a time while the throughput is unknown
+		assertEquals(Arrays.asList(3, 5), fetcher.started);
+		assertEquals(2, prefetcher.getInFlightCount());
+
+		fetcher.listeners.get(0).onFetched(IMAGE_BYTES, 100, false);
+		assertEquals(Arrays.asList(3, 5, 6), fetcher.started);
+
+		// Entries which were already fetched aren't fetched again
+		prefetcher.onLastVisibleIndexChanged(3);
+		fetcher.listeners.get(1).onFailed();
+		assertEquals(Arrays.asList(3, 5, 6, 7), fetcher.started);
+
+		fetcher.listeners.get(2).onFetched(IMAGE_BYTES, 100, true);
+		assertEquals(Arrays.asList(3, 5, 6, 7, 8), fetcher.started);
+
+		// The window never goes past the end of the album
+		prefetcher.onLastVisibleIndexChanged(19);
+		assertEquals(2, prefetcher.getInFlightCount());
+
+		prefetcher.cancel();
+		assertEquals(0, prefetcher.getInFlightCount());
+
+		Collections.sort(fetcher.cancelled);
+		assertEquals(Arrays.asList(7, 8), fetcher.cancelled);
+
+		prefetcher.onLastVisibleIndexChanged(10);
+		assertEquals(5, fetcher.started.size());
+	}
+
+	// Scrolls through the album one entry at a time, and returns the entries which weren't
+	// already cached when they became visible
+	private static List<Integer> scroll(
+			final int count,
+			final long dwellMs,
+			final SimulatedFetcher fetcher) {
+
+		final AlbumPrefetcher prefetcher = new AlbumPrefetcher(
+				urls(count),
+				8,
+				new AlbumPrefetcher.Throughput(),
+				fetcher);
+
+		final ArrayList<Integer> misses = new ArrayList<>();
+
+		for(int i = 0; i < count; i++) {
+
+			fetcher.advanceTo(i * dwellMs);
+
+			// Like the real cache, a display request doesn't wait for a prefetch which is
+			// still in flight
+			if(!fetcher.cached.contains(i)) {
+				misses.add(i);
+				fetcher.cached.add(i);
+			}
+
+			prefetcher.onLastVisibleIndexChanged(i);
+		}
+
+		prefetcher.cancel();
+		assertEquals(0, fetcher.inFlight.size());
+
+		return misses;
+	}
+
+	@Test
+	public void testScrollingFastNetwork() {
+
+		// 64 KiB in 80 ms is about 800 KiB/s, so two fetches run at once
+		final SimulatedFetcher fetcher = new SimulatedFetcher(80);
+		final List<Integer> misses = scroll(20, 150, fetcher);
+
+		// Only the first entry has to wait for the network
+		assertEquals(Collections.singletonList(0), misses);
+		assertEquals(2, fetcher.maxInFlight);
+	}
+
+	@Test
+	public void testScrollingSlowNetwork() {
+
+		// 64 KiB in 400 ms is about 160 KiB/s, so once that has been measured, fetches run
+		// one at a time
+		final SimulatedFetcher fetcher = new SimulatedFetcher(400);
+		final List<Integer> misses = scroll(20, 1000, fetcher);
+
+		assertEquals(Collections.singletonList(0), misses);
+		assertEquals(2, fetcher.maxInFlight);
+		assertEquals(1, fetcher.maxInFlightAfterSample);
+	}
+}
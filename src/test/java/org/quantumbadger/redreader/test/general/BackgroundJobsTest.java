@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.common.BackgroundJobs;
+import org.quantumbadger.redreader.receivers.BackgroundJobService;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class BackgroundJobsTest {
+
+	private Context mContext;
+	private JobScheduler mScheduler;
+
+	@Before
+	public void setUp() {
+		mContext = RuntimeEnvironment.getApplication();
+		mScheduler = (JobScheduler)mContext.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+
+		// The application schedules everything on startup
+		mScheduler.cancelAll();
+	}
+
+	private JobInfo getPending(final BackgroundJobs.Job job) {
+
+		for(final JobInfo pending : mScheduler.getAllPendingJobs()) {
+			if(pending.getId() == job.id) {
+				return pending;
+			}
+		}
+
+		return null;
+	}
+
+	@Test
+	public void testScheduleIsDeduplicated() {
+
+		for(final BackgroundJobs.Job job : BackgroundJobs.Job.values()) {
+			assertTrue(BackgroundJobs.schedule(mContext, job));
+			assertFalse(BackgroundJobs.schedule(mContext, job));
+		}
+
+		BackgroundJobs.scheduleAll(mContext);
+
+		assertEquals(BackgroundJobs.Job.values().length, mScheduler.getAllPendingJobs().size());
+	}
+
+	@Test
+	public void testChangedJobIsRescheduled() {
+
+		mScheduler.schedule(new JobInfo.Builder(
+				BackgroundJobs.Job.MESSAGE_CHECK.id,
+				new ComponentName(mContext, BackgroundJobService.class))
+				.setPeriodic(BackgroundJobs.Job.MESSAGE_CHECK.intervalMs * 2)
+				.build());
+
+		assertTrue(BackgroundJobs.schedule(mContext, BackgroundJobs.Job.MESSAGE_CHECK));
+
+		final JobInfo pending = getPending(BackgroundJobs.Job.MESSAGE_CHECK);
+		assertNotNull(pending);
+		assertEquals(BackgroundJobs.Job.MESSAGE_CHECK.intervalMs, pending.getIntervalMillis());
+		assertEquals(1, mScheduler.getAllPendingJobs().size());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testConstraints() {
+
+		BackgroundJobs.scheduleAll(mContext);
+
+		final JobInfo messages = getPending(BackgroundJobs.Job.MESSAGE_CHECK);
+		assertNotNull(messages);
+		assertEquals(JobInfo.NETWORK_TYPE_ANY, messages.getNetworkType());
+		assertFalse(messages.isRequireCharging());
+		assertFalse(messages.isRequireDeviceIdle());
+		assertEquals(JobInfo.BACKOFF_POLICY_EXPONENTIAL, messages.getBackoffPolicy());
+		assertTrue(messages.isPeriodic());
+		assertTrue(messages.isPersisted());
+
+		final JobInfo announcements = getPending(BackgroundJobs.Job.ANNOUNCEMENT_CHECK);
+		assertNotNull(announcements);
+		assertEquals(JobInfo.NETWORK_TYPE_UNMETERED, announcements.getNetworkType());
+
+		final JobInfo maintenance = getPending(BackgroundJobs.Job.CACHE_MAINTENANCE);
+		assertNotNull(maintenance);
+		assertEquals(JobInfo.NETWORK_TYPE_NONE, maintenance.getNetworkType());
+		assertTrue(maintenance.isRequireCharging());
+		assertTrue(maintenance.isRequireDeviceIdle());
+
+		final JobInfo compaction = getPending(BackgroundJobs.Job.CACHE_COMPACTION);
+		assertNotNull(compaction);
+		assertTrue(compaction.isRequireCharging());
+		assertTrue(compaction.isRequireDeviceIdle());
+	}
+
+	@Test
+	public void testMaintenanceOverdue() {
+
+		final long now = 1_000_000_000_000L;
+
+		assertFalse(BackgroundJobs.isMaintenanceOverdue(now - 1000, now));
+		assertTrue(BackgroundJobs.isMaintenanceOverdue(
+				now - BackgroundJobs.MAINTENANCE_OVERDUE_MS,
+				now));
+		assertTrue(BackgroundJobs.isMaintenanceOverdue(0, now));
+		assertTrue(BackgroundJobs.isMaintenanceOverdue(now + 1000, now));
+	}
+}
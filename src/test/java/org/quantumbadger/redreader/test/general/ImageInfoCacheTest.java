@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.quantumbadger.redreader.common.Priority;
+import org.quantumbadger.redreader.common.RRError;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.image.GetImageInfoListener;
+import org.quantumbadger.redreader.image.ImageInfo;
+import org.quantumbadger.redreader.image.ImageInfoCache;
+import org.quantumbadger.redreader.image.ImageUrlInfo;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class ImageInfoCacheTest {
+
+	private static final UriString URL = new UriString("https://imgur.com/abc123");
+
+	private static final Priority LOW_PRIORITY = new Priority(100);
+	private static final Priority HIGH_PRIORITY = new Priority(-100);
+
+	private static final ImageInfo INFO = new ImageInfo(
+			new ImageUrlInfo(new UriString("https://i.imgur.com/abc123.jpg"), null, null),
+			null,
+			null,
+			null,
+			null,
+			null,
+			null,
+			null,
+			null,
+			null,
+			ImageInfo.MediaType.IMAGE,
+			ImageInfo.HasAudio.NO_AUDIO);
+
+	private static final RRError ERROR = new RRError("Title", "Message");
+
+	private ImageInfoCache mCache;
+
+	// Records each call to the resolver, so that the test can decide when and how each
+	// attempt completes
+	private static final class TestResolver implements ImageInfoCache.Resolver {
+
+		final ArrayList<Priority> priorities = new ArrayList<>();
+		final ArrayList<GetImageInfoListener> listeners = new ArrayList<>();
+
+		@Override
+		public void resolve(
+				@NonNull final Priority priority,
+				@NonNull final GetImageInfoListener listener) {
+
+			priorities.add(priority);
+			listeners.add(listener);
+		}
+	}
+
+	private static final class TestListener implements GetImageInfoListener {
+
+		int successes = 0;
+		int notAnImage = 0;
+		int failures = 0;
+		ImageInfo info;
+		RRError error;
+
+		@Override
+		public void onFailure(@NonNull final RRError error) {
+			failures++;
+			this.error = error;
+		}
+
+		@Override
+		public void onSuccess(final ImageInfo info) {
+			successes++;
+			this.info = info;
+		}
+
+		@Override
+		public void onNotAnImage() {
+			notAnImage++;
+		}
+
+		int calls() {
+			return successes + notAnImage + failures;
+		}
+	}
+
+	@Before
+	public void setUp() {
+		mCache = ImageInfoCache.getInstance(RuntimeEnvironment.getApplication());
+		mCache.clear();
+	}
+
+	@Test
+	public void testConcurrentLookupsShareResolution() {
+
+		final TestResolver resolver = new TestResolver();
+		final TestListener first = new TestListener();
+		final TestListener second = new TestListener();
+
+		mCache.get(URL, LOW_PRIORITY, resolver, first);
+		mCache.get(URL, LOW_PRIORITY, resolver, second);
+
+		assertEquals(1, resolver.listeners.size());
+		assertEquals(0, first.calls());
+		assertEquals(0, second.calls());
+
+		resolver.listeners.get(0).onSuccess(INFO);
+
+		assertEquals(1, first.successes);
+		assertEquals(1, second.successes);
+		assertSame(INFO, first.info);
+		assertSame(INFO, second.info);
+
+		// Later lookups, including for an equivalent URL, are served from the cache
+		final TestListener third = new TestListener();
+		mCache.get(new UriString("http://www.imgur.com/abc123/"), LOW_PRIORITY, resolver, third);
+
+		assertEquals(1, resolver.listeners.size());
+		assertEquals(1, third.successes);
+		assertSame(INFO, third.info);
+	}
+
+	@Test
+	public void testHigherPriorityLookupResolvesAgain() {
+
+		final TestResolver resolver = new TestResolver();
+		final TestListener first = new TestListener();
+		final TestListener second = new TestListener();
+
+		mCache.get(URL, LOW_PRIORITY, resolver, first);
+		mCache.get(URL, HIGH_PRIORITY, resolver, second);
+
+		assertEquals(2, resolver.listeners.size());
+		assertSame(LOW_PRIORITY, resolver.priorities.get(0));
+		assertSame(HIGH_PRIORITY, resolver.priorities.get(1));
+
+		// The superseded attempt's failure isn't reported, as the new attempt may succeed
+		resolver.listeners.get(0).onFailure(ERROR);
+
+		assertEquals(0, first.calls());
+		assertEquals(0, second.calls());
+
+		resolver.listeners.get(1).onSuccess(INFO);
+
+		assertEquals(1, first.successes);
+		assertEquals(1, second.successes);
+		assertEquals(0, first.failures);
+	}
+
+	@Test
+	public void testFirstResultIsUsed() {
+
+		final TestResolver resolver = new TestResolver();
+		final TestListener first = new TestListener();
+		final TestListener second = new TestListener();
+
+		mCache.get(URL, LOW_PRIORITY, resolver, first);
+		mCache.get(URL, HIGH_PRIORITY, resolver, second);
+
+		resolver.listeners.get(0).onSuccess(INFO);
+
+		assertEquals(1, first.successes);
+		assertEquals(1, second.successes);
+
+		// A late result from the other attempt is dropped
+		resolver.listeners.get(1).onNotAnImage();
+
+		assertEquals(1, first.calls());
+		assertEquals(1, second.calls());
+	}
+
+	@Test
+	public void testLowerPriorityLookupJoins() {
+
+		final TestResolver resolver = new TestResolver();
+		final TestListener first = new TestListener();
+		final TestListener second = new TestListener();
+
+		mCache.get(URL, HIGH_PRIORITY, resolver, first);
+		mCache.get(URL, LOW_PRIORITY, resolver, second);
+
+		assertEquals(1, resolver.listeners.size());
+
+		resolver.listeners.get(0).onNotAnImage();
+
+		assertEquals(1, first.notAnImage);
+		assertEquals(1, second.notAnImage);
+	}
+
+	@Test
+	public void testFailuresAreNotCached() {
+
+		final TestResolver resolver = new TestResolver();
+		final TestListener first = new TestListener();
+		final TestListener second = new TestListener();
+
+		mCache.get(URL, LOW_PRIORITY, resolver, first);
+		mCache.get(URL, LOW_PRIORITY, resolver, second);
+
+		resolver.listeners.get(0).onFailure(ERROR);
+
+		assertEquals(1, first.failures);
+		assertEquals(1, second.failures);
+		assertSame(ERROR, first.error);
+		assertSame(ERROR, second.error);
+
+		// A retry goes back to the resolver
+		final TestListener retry = new TestListener();
+		mCache.get(URL, LOW_PRIORITY, resolver, retry);
+
+		assertEquals(2, resolver.listeners.size());
+		assertEquals(0, retry.calls());
+
+		resolver.listeners.get(1).onSuccess(INFO);
+
+		assertEquals(1, retry.successes);
+		assertEquals(1, first.failures);
+	}
+
+	@Test
+	public void testResolverException() {
+
+		final TestListener first = new TestListener();
+
+		try {
+			mCache.get(URL, LOW_PRIORITY, (priority, listener) -> {
+				throw new IllegalStateException();
+			}, first);
+
+			throw new AssertionError("Expected exception");
+
+		} catch(final IllegalStateException e) {
+			// Expected
+		}
+
+		// The failed attempt doesn't leave later lookups waiting for it
+		final TestResolver resolver = new TestResolver();
+		final TestListener second = new TestListener();
+
+		mCache.get(URL, LOW_PRIORITY, resolver, second);
+
+		assertEquals(1, resolver.listeners.size());
+	}
+
+	@Test
+	public void testNormaliseKey() {
+
+		assertEquals(
+				"https://imgur.com/abc123",
+				ImageInfoCache.normaliseKey("http://www.imgur.com/abc123"));
+
+		assertEquals(
+				"https://i.imgur.com/AbC123.jpg",
+				ImageInfoCache.normaliseKey("HTTPS://I.Imgur.COM/AbC123.jpg#fragment"));
+
+		assertEquals(
+				"https://redgifs.com/watch/example",
+				ImageInfoCache.normaliseKey(" https://www.redgifs.com/watch/example/ "));
+
+		assertEquals(
+				"https://example.com?q=Value",
+				ImageInfoCache.normaliseKey("https://Example.com?q=Value"));
+
+		assertEquals("not a url", ImageInfoCache.normaliseKey("not a url"));
+		assertEquals("", ImageInfoCache.normaliseKey(""));
+	}
+
+	@Test
+	public void testSuccessTtl() {
+
+		assertEquals(
+				ImageInfoCache.SUCCESS_TTL_MS,
+				ImageInfoCache.getSuccessTtlMs("https://imgur.com/abc123"));
+
+		assertEquals(
+				ImageInfoCache.SHORT_LIVED_SUCCESS_TTL_MS,
+				ImageInfoCache.getSuccessTtlMs("https://redgifs.com/watch/example"));
+
+		assertEquals(
+				ImageInfoCache.SHORT_LIVED_SUCCESS_TTL_MS,
+				ImageInfoCache.getSuccessTtlMs("https://v3.redgifs.com/watch/example"));
+
+		assertEquals(
+				ImageInfoCache.SHORT_LIVED_SUCCESS_TTL_MS,
+				ImageInfoCache.getSuccessTtlMs("https://streamable.com/abc"));
+
+		assertEquals(
+				ImageInfoCache.SUCCESS_TTL_MS,
+				ImageInfoCache.getSuccessTtlMs("https://notstreamable.com/abc"));
+
+		assertEquals(
+				ImageInfoCache.SUCCESS_TTL_MS,
+				ImageInfoCache.getSuccessTtlMs("https://example.com/redgifs.com"));
+	}
+}
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Test;
+import org.quantumbadger.redreader.jsonwrap.JsonArray;
+import org.quantumbadger.redreader.jsonwrap.JsonBinding;
+import org.quantumbadger.redreader.jsonwrap.JsonObject;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class JsonBindingTest {
+
+	public static class Fields implements JsonObject.JsonDeserializable {
+		public long primitiveLong;
+		public Long boxedLong;
+		public int primitiveInt;
+		public Integer intFromString;
+		public double primitiveDouble;
+		public Float floatFromInt;
+		public Boolean bool;
+		public Boolean boolFromString;
+		public String string;
+		public String stringFromNumber;
+		public String missing;
+		public String _json_default;
+		public JsonObject object;
+		public JsonArray array;
+		public JsonValue value;
+		public Fields nested;
+		public transient String ignored;
+	}
+
+	public static class RedgifsUrls implements JsonObject.JsonDeserializable {
+		public String hd;
+		public String sd;
+		public String poster;
+		public String thumbnail;
+	}
+
+	public static class RedgifsGif implements JsonObject.JsonDeserializable {
+		public String id;
+		public Long createDate;
+		public Boolean hasAudio;
+		public Integer width;
+		public Integer height;
+		public Double duration;
+		public Long views;
+		public RedgifsUrls urls;
+	}
+
+	public static class RedgifsResponse implements JsonObject.JsonDeserializable {
+		public RedgifsGif gif;
+	}
+
+	public static class ImgurImage implements JsonObject.JsonDeserializable {
+		public String id;
+		public String title;
+		public String description;
+		public String type;
+		public Boolean animated;
+		public Integer width;
+		public Integer height;
+		public Long size;
+		public String link;
+		public String mp4;
+	}
+
+	public static class ImgurAlbum implements JsonObject.JsonDeserializable {
+		public String id;
+		public String title;
+		public String description;
+		public Long datetime;
+		public Integer images_count;
+		public JsonArray images;
+	}
+
+	public static class ImgurAlbumResponse implements JsonObject.JsonDeserializable {
+		public ImgurAlbum data;
+		public Boolean success;
+		public Integer status;
+	}
+
+	private static final String FIELDS_JSON = "{"
+			+ "\"primitiveLong\": 1234567890123,"
+			+ "\"boxedLong\": 12.6,"
+			+ "\"primitiveInt\": 42,"
+			+ "\"intFromString\": \"17\","
+			+ "\"primitiveDouble\": 3,"
+			+ "\"floatFromInt\": 2,"
+			+ "\"bool\": true,"
+			+ "\"boolFromString\": \"f\","
+			+ "\"string\": \"Hello \\\"world\\\"\","
+			+ "\"stringFromNumber\": 99,"
+			+ "\"default\": \"from prefix\","
+			+ "\"ignored\": \"ignored\","
+			+ "\"unknown\": {\"a\": [1, 2, {\"b\": null}]},"
+			+ "\"object\": {\"x\": 1},"
+			+ "\"array\": [1, \"two\", null],"
+			+ "\"value\": null,"
+			+ "\"nested\": {\"string\": \"inner\", \"nested\": null, \"unknown2\": []}"
+			+ "}";
+
+	private static ByteArrayInputStream stream(final String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static <E extends JsonObject.JsonDeserializable> E readTree(
+			final String json,
+			final Class<E> clazz) throws Exception {
+
+		final E result = JsonValue.parse(stream(json)).asObject(clazz);
+		assertNotNull(result);
+		return result;
+	}
+
+	private static void assertFields(final Fields fields) {
+
+		assertEquals(1234567890123L, fields.primitiveLong);
+		assertEquals(Long.valueOf(13), fields.boxedLong);
+		assertEquals(42, fields.primitiveInt);
+		assertEquals(Integer.valueOf(17), fields.intFromString);
+		assertEquals(3.0, fields.primitiveDouble, 0);
+		assertEquals(Float.valueOf(2), fields.floatFromInt);
+		assertEquals(Boolean.TRUE, fields.bool);
+		assertEquals(Boolean.FALSE, fields.boolFromString);
+		assertEquals("Hello \"world\"", fields.string);
+		assertEquals("99", fields.stringFromNumber);
+		assertNull(fields.missing);
+		assertEquals("from prefix", fields._json_default);
+		assertNull(fields.ignored);
+		assertEquals(Long.valueOf(1), fields.object.getLong("x"));
+		assertEquals(3, fields.array.size());
+		assertNotNull(fields.value);
+		assertNull(fields.value.asObject());
+		assertEquals("inner", fields.nested.string);
+		assertNull(fields.nested.nested);
+	}
+
+	@Test
+	public void testTree() throws Exception {
+		assertFields(readTree(FIELDS_JSON, Fields.class));
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		assertFields(JsonBinding.read(stream(FIELDS_JSON), Fields.class));
+	}
+
+	private static String redgifsResponse() {
+
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("{\"gif\": {\"id\": \"gleamingsilverdragonfly\", \"client_id\": null,"
+				+ " \"createDate\": 1700000000, \"hasAudio\": true, \"width\": 1080,"
+				+ " \"height\": 1920, \"likes\": 5213, \"tags\": [");
+
+		for(int i = 0; i < 12; i++) {
+			sb.append(i == 0 ? "" : ", ").append("\"Tag number ").append(i).append('"');
+		}
+
+		sb.append("], \"verified\": true, \"views\": 1234567, \"duration\": 23.4,"
+				+ " \"published\": true, \"urls\": {"
+				+ " \"sd\": \"https://media.redgifs.com/GleamingSilverDragonfly-mobile.mp4\","
+				+ " \"hd\": \"https://media.redgifs.com/GleamingSilverDragonfly.mp4\","
+				+ " \"poster\": \"https://media.redgifs.com/GleamingSilverDragonfly-p.jpg\","
+				+ " \"thumbnail\": \"https://media.redgifs.com/GleamingSilverDragonfly-m.jpg\","
+				+ " \"vthumbnail\": \"https://media.redgifs.com/GleamingSilverDragonfly-m.mp4\""
+				+ "}, \"userName\": \"example\", \"type\": 1, \"avgColor\": \"#1a1a1a\","
+				+ " \"gallery\": null, \"hideHome\": false, \"hideTrending\": false,"
+				+ " \"sexuality\": [\"straight\"], \"niches\": [\"a\", \"b\", \"c\"]},"
+				+ " \"user\": {\"creationtime\": 1600000000, \"description\": \"Description\","
+				+ " \"followers\": 100, \"following\": 3, \"gifs\": 250, \"name\": \"Example\","
+				+ " \"profileImageUrl\": null, \"profileUrl\": \"\", \"publishedGifs\": 250,"
+				+ " \"subscription\": 0, \"url\": \"\", \"username\": \"example\","
+				+ " \"verified\": true, \"views\": 99999, \"poster\": null, \"preview\": null,"
+				+ " \"thumbnail\": null, \"links\": []},"
+				+ " \"niches\": [], \"tags\": []}");
+
+		return sb.toString();
+	}
+
+	private static String imgurAlbumResponse(final int images) {
+
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("{\"data\": {\"id\": \"AbCdEfG\", \"title\": \"An album\","
+				+ " \"description\": \"Some description of the album\", \"datetime\": 1700000000,"
+				+ " \"cover\": \"aBcDeFg\", \"cover_width\": 1080, \"cover_height\": 1350,"
+				+ " \"account_url\": \"example\", \"account_id\": 123456, \"privacy\": \"hidden\","
+				+ " \"layout\": \"blog\", \"views\": 54321,"
+				+ " \"link\": \"https://imgur.com/a/AbCdEfG\","
+				+ " \"favorite\": false, \"nsfw\": false, \"section\": null,"
+				+ " \"images_count\": ").append(images).append(", \"in_gallery\": false,"
+				+ " \"is_ad\": false, \"include_album_ads\": false, \"is_album\": true,"
+				+ " \"images\": [");
+
+		for(int i = 0; i < images; i++) {
+
+			sb.append(i == 0 ? "" : ", ").append("{\"id\": \"img").append(i)
+					.append("\", \"title\": null, \"description\": \"Image ").append(i)
+					.append(" of the album\", \"datetime\": 1700000000, \"type\": \"")
+					.append(i % 5 == 0 ? "image/gif" : "image/jpeg")
+					.append("\", \"animated\": ").append(i % 5 == 0)
+					.append(", \"width\": 1080, \"height\": 1350, \"size\": ")
+					.append(200000 + i * 1000)
+					.append(", \"views\": 1000, \"bandwidth\": 200000000, \"vote\": null,"
+							+ " \"favorite\": false, \"nsfw\": null, \"section\": null,"
+							+ " \"account_url\": null, \"account_id\": null, \"is_ad\": false,"
+							+ " \"in_most_viral\": false, \"has_sound\": false, \"tags\": [],"
+							+ " \"ad_type\": 0, \"ad_url\": \"\", \"edited\": \"0\","
+							+ " \"in_gallery\": false, \"link\": \"https://i.imgur.com/img")
+					.append(i).append(".jpg\"}");
+		}
+
+		sb.append("]}, \"success\": true, \"status\": 200}");
+
+		return sb.toString();
+	}
+
+	@Test
+	public void testRedgifs() throws Exception {
+
+		final String json = redgifsResponse();
+
+		for(final RedgifsResponse response : new RedgifsResponse[] {
+				readTree(json, RedgifsResponse.class),
+				JsonBinding.read(stream(json), RedgifsResponse.class)}) {
+
+			assertEquals("gleamingsilverdragonfly", response.gif.id);
+			assertEquals(Integer.valueOf(1920), response.gif.height);
+			assertEquals(Double.valueOf(23.4), response.gif.duration);
+			assertEquals(
+					"https://media.redgifs.com/GleamingSilverDragonfly.mp4",
+					response.gif.urls.hd);
+		}
+	}
+
+	@Test
+	public void testImgurAlbum() throws Exception {
+
+		final String json = imgurAlbumResponse(30);
+
+		for(final ImgurAlbumResponse response : new ImgurAlbumResponse[] {
+				readTree(json, ImgurAlbumResponse.class),
+				JsonBinding.read(stream(json), ImgurAlbumResponse.class)}) {
+
+			assertEquals(Boolean.TRUE, response.success);
+			assertEquals("AbCdEfG", response.data.id);
+			assertEquals(30, response.data.images.size());
+
+			final ImgurImage image = response.data.images.get(5).asObject(ImgurImage.class);
+			assertNotNull(image);
+			assertEquals(Boolean.TRUE, image.animated);
+			assertEquals("https://i.imgur.com/img5.jpg", image.link);
+		}
+	}
+}
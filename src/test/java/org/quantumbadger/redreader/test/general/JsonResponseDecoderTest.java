@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Test;
+import org.quantumbadger.redreader.cache.JsonResponseDecoder;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.image.AlbumInfo;
+import org.quantumbadger.redreader.image.ImgurAPIV3;
+import org.quantumbadger.redreader.jsonwrap.JsonValue;
+import org.quantumbadger.redreader.reddit.RedditAPI;
+import org.quantumbadger.redreader.reddit.api.RedditAPIIndividualSubredditDataRequester;
+import org.quantumbadger.redreader.reddit.api.RedditAPIMultiredditListRequester;
+import org.quantumbadger.redreader.reddit.things.RedditSubreddit;
+import org.quantumbadger.redreader.reddit.things.RedditThing;
+import org.quantumbadger.redreader.reddit.things.RedditUser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonResponseDecoderTest {
+
+	private static final UriString ALBUM_URL = new UriString("https://imgur.com/a/XyZ12ab");
+
+	private static byte[] fixture(final String name) throws IOException {
+		return Files.readAllBytes(new File("src/test/resources/json/" + name).toPath());
+	}
+
+	private static <E> E decode(
+			final JsonResponseDecoder<E> decoder,
+			final byte[] bytes) throws IOException {
+
+		try(JsonParser parser = JsonValue.createParser(new ByteArrayInputStream(bytes))) {
+			return decoder.decode(parser);
+		}
+	}
+
+	// The parsing previously done in each endpoint's CacheRequestJSONParser listener
+
+	private static RedditSubreddit parseSubredditTree(final byte[] bytes) throws Exception {
+		return JsonValue.parse(new ByteArrayInputStream(bytes))
+				.asObject(RedditThing.class)
+				.asSubreddit();
+	}
+
+	private static RedditUser parseUserTree(final byte[] bytes) throws Exception {
+		return JsonValue.parse(new ByteArrayInputStream(bytes))
+				.asObject(RedditThing.class)
+				.asUser();
+	}
+
+	private static HashSet<String> parseMultiredditListTree(final byte[] bytes)
+			throws Exception {
+
+		final HashSet<String> result = new HashSet<>();
+
+		for(final JsonValue multireddit : JsonValue.parse(new ByteArrayInputStream(bytes))
+				.asArray()) {
+
+			result.add(multireddit.asObject().getObject("data").getString("name"));
+		}
+
+		return result;
+	}
+
+	private static AlbumInfo parseImgurAlbumTree(final byte[] bytes) throws Exception {
+		return AlbumInfo.parseImgurV3(
+				ALBUM_URL,
+				JsonValue.parse(new ByteArrayInputStream(bytes)).asObject().getObject("data"));
+	}
+
+	@Test
+	public void testSubredditAbout() throws Exception {
+
+		final byte[] bytes = fixture("subreddit_about.json");
+
+		final RedditSubreddit subreddit
+				= decode(RedditAPIIndividualSubredditDataRequester.ABOUT_DECODER, bytes);
+
+		final RedditSubreddit expected = parseSubredditTree(bytes);
+
+		assertEquals("t5_2r26y", subreddit.name);
+		assertEquals("androiddev", subreddit.display_name);
+		assertEquals("/r/androiddev/", subreddit.url);
+		assertEquals(Integer.valueOf(251830), subreddit.subscribers);
+		assertEquals(Boolean.FALSE, subreddit.over18);
+		assertEquals(1231803152L, subreddit.created_utc);
+
+		assertEquals(expected.description_html, subreddit.description_html);
+		assertEquals(expected.public_description_html, subreddit.public_description_html);
+		assertEquals(expected.accounts_active, subreddit.accounts_active);
+	}
+
+	@Test
+	public void testUserAbout() throws Exception {
+
+		final byte[] bytes = fixture("user_about.json");
+
+		final RedditUser user = decode(RedditAPI.USER_ABOUT_DECODER, bytes);
+		final RedditUser expected = parseUserTree(bytes);
+
+		assertEquals("QuantumBadger", user.name);
+		assertEquals("4xl2h", user.id);
+		assertEquals(Integer.valueOf(42733), user.comment_karma);
+		assertEquals(Integer.valueOf(18342), user.link_karma);
+		assertEquals(Long.valueOf(1305132372L), user.created_utc);
+		assertEquals(Boolean.TRUE, user.is_mod);
+
+		assertEquals(expected.icon_img, user.icon_img);
+		assertEquals(expected.is_gold, user.is_gold);
+	}
+
+	@Test
+	public void testMultiredditList() throws Exception {
+
+		final byte[] bytes = fixture("multireddit_list.json");
+
+		final HashSet<String> names
+				= decode(RedditAPIMultiredditListRequester.LIST_DECODER, bytes);
+
+		assertEquals(5, names.size());
+		assertTrue(names.contains("programming"));
+		assertEquals(parseMultiredditListTree(bytes), names);
+	}
+
+	@Test
+	public void testImgurAlbum() throws Exception {
+
+		final byte[] bytes = fixture("imgur_album.json");
+
+		final AlbumInfo album = decode(ImgurAPIV3.albumDecoder(ALBUM_URL), bytes);
+		final AlbumInfo expected = parseImgurAlbumTree(bytes);
+
+		assertEquals("Iceland & the Faroe Islands", album.title);
+		assertEquals(12, album.images.size());
+		assertEquals(expected.getDescription(), album.getDescription());
+		assertEquals(expected.images, album.images);
+	}
+
+	@Test
+	public void testWrongKind() throws Exception {
+
+		try {
+			decode(RedditAPI.USER_ABOUT_DECODER, fixture("subreddit_about.json"));
+			fail("Expected exception");
+		} catch(final IOException e) {
+			// Expected
+		}
+
+		try {
+			decode(
+					RedditAPIMultiredditListRequester.LIST_DECODER,
+					"{\"error\": 403}".getBytes(StandardCharsets.UTF_8));
+			fail("Expected exception");
+		} catch(final IOException e) {
+			// Expected
+		}
+
+		try {
+			decode(
+					ImgurAPIV3.albumDecoder(ALBUM_URL),
+					"{\"data\": {\"error\": \"Not found\"}, \"status\": 404}"
+							.getBytes(StandardCharsets.UTF_8));
+			fail("Expected exception");
+		} catch(final IOException e) {
+			assertTrue(e.getMessage().contains("404"));
+		}
+	}
+}
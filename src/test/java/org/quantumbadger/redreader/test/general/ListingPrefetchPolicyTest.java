@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Test;
+import org.quantumbadger.redreader.fragments.ListingPrefetchPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ListingPrefetchPolicyTest {
+
+	private static final int PAGE_SIZE = 25;
+	private static final int MIN_ITEMS_REMAINING = 20;
+
+	// The API queue delay, plus the download and parsing
+	private static final long PAGE_LOAD_MS = 1200 + 500;
+
+	private static final long FRAME_MS = 16;
+	private static final int VISIBLE_ITEMS = 6;
+
+	// {duration in ms, items per second}: reading, flinging, skimming, and stopping
+	private static final int[][] SCROLL_SCRIPT = {
+			{10_000, 2},
+			{1_500, 20},
+			{6_000, 8},
+			{1_000, 25},
+			{2_000, 0},
+			{8_000, 12},
+			{1_500, 20},
+			{5_000, 4},
+			{1_000, 25},
+			{10_000, 10}
+	};
+
+	private static final class Result {
+		long stallMs;
+		int stalls;
+		int pages;
+		int maxItemsAhead;
+	}
+
+	// Scrolls through a listing as described by the script, and records the time spent
+	// waiting at the end of the list for the next page
+	private static Result scroll(final ListingPrefetchPolicy policy) {
+
+		final Result result = new Result();
+
+		long now = 0;
+		double position = 0;
+		int itemsLoaded = PAGE_SIZE;
+		long pageArrivesAt = -1;
+		boolean stalled = false;
+
+		for(final int[] step : SCROLL_SCRIPT) {
+
+			final long end = now + step[0];
+
+			while(now < end) {
+
+				now += FRAME_MS;
+
+				if(pageArrivesAt >= 0 && now >= pageArrivesAt) {
+					itemsLoaded += PAGE_SIZE;
+					result.pages++;
+					policy.onPageLoaded(PAGE_LOAD_MS);
+					pageArrivesAt = -1;
+				}
+
+				final int lastVisibleBefore = (int)position + VISIBLE_ITEMS - 1;
+
+				position += step[1] * FRAME_MS / 1000.0;
+
+				if(position + VISIBLE_ITEMS > itemsLoaded) {
+
+					position = itemsLoaded - VISIBLE_ITEMS;
+
+					if(step[1] > 0) {
+						result.stallMs += FRAME_MS;
+
+						if(!stalled) {
+							result.stalls++;
+						}
+
+						stalled = true;
+					}
+
+				} else {
+					stalled = false;
+				}
+
+				final int lastVisible = (int)position + VISIBLE_ITEMS - 1;
+
+				// RecyclerView only reports movement
+				if(lastVisible != lastVisibleBefore) {
+					policy.onScrolled(lastVisible, now);
+				}
+
+				final int itemsRemaining = itemsLoaded - lastVisible;
+				result.maxItemsAhead = Math.max(result.maxItemsAhead, itemsRemaining);
+
+				if(pageArrivesAt < 0 && policy.shouldLoadNextPage(itemsRemaining, now)) {
+					pageArrivesAt = now + PAGE_LOAD_MS;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testSlowScrollingUsesMinimum() {
+
+		final ListingPrefetchPolicy policy
+				= new ListingPrefetchPolicy(PAGE_SIZE, MIN_ITEMS_REMAINING, 2);
+
+		for(int i = 0; i <= 10; i++) {
+			policy.onScrolled(i, i * 500L);
+		}
+
+		assertEquals(2.0, policy.getItemsPerSecond(5000), 0.01);
+
+		assertTrue(policy.shouldLoadNextPage(MIN_ITEMS_REMAINING - 1, 5000));
+		assertFalse(policy.shouldLoadNextPage(MIN_ITEMS_REMAINING, 5000));
+	}
+
+	@Test
+	public void testFastScrollingLoadsEarly() {
+
+		final ListingPrefetchPolicy policy
+				= new ListingPrefetchPolicy(PAGE_SIZE, MIN_ITEMS_REMAINING, 2);
+
+		for(int i = 0; i <= 20; i++) {
+			policy.onScrolled(i * 2, i * 100L);
+		}
+
+		// 20 items per second, for a page which takes 2.5s to load
+		assertEquals(20.0, policy.getItemsPerSecond(2000), 0.01);
+		assertTrue(policy.shouldLoadNextPage(40, 2000));
+
+		// Limited to two pages ahead
+		assertFalse(policy.shouldLoadNextPage(PAGE_SIZE * 2, 2000));
+
+		// Once scrolling stops, only the minimum applies
+		assertFalse(policy.shouldLoadNextPage(40, 3500));
+		assertTrue(policy.shouldLoadNextPage(MIN_ITEMS_REMAINING - 1, 3500));
+	}
+
+	@Test
+	public void testPageLoadTime() {
+
+		final ListingPrefetchPolicy policy
+				= new ListingPrefetchPolicy(PAGE_SIZE, MIN_ITEMS_REMAINING, 2);
+
+		for(int i = 0; i <= 20; i++) {
+			policy.onScrolled(i, i * 100L);
+		}
+
+		// 10 items per second
+		assertTrue(policy.shouldLoadNextPage(30, 2000));
+
+		for(int i = 0; i < 10; i++) {
+			policy.onPageLoaded(500);
+		}
+
+		assertFalse(policy.shouldLoadNextPage(30, 2000));
+	}
+
+	@Test
+	public void testScriptedScroll() {
+
+		// Without lookahead, this is the fixed threshold the listing used before
+		final Result fixed = scroll(new ListingPrefetchPolicy(PAGE_SIZE, MIN_ITEMS_REMAINING, 0));
+		final Result adaptive
+				= scroll(new ListingPrefetchPolicy(PAGE_SIZE, MIN_ITEMS_REMAINING, 2));
+
+		assertTrue(adaptive.stalls < fixed.stalls);
+		assertTrue(adaptive.stallMs < fixed.stallMs);
+		assertTrue(adaptive.maxItemsAhead <= PAGE_SIZE * 3);
+	}
+}
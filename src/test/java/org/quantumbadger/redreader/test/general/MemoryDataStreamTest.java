@@ -4,8 +4,17 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.quantumbadger.redreader.common.General;
 import org.quantumbadger.redreader.common.datastream.MemoryDataStream;
+import org.quantumbadger.redreader.reddit.kthings.JsonUtils;
+import org.quantumbadger.redreader.reddit.kthings.RedditThing;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class MemoryDataStreamTest {
 
@@ -56,4 +65,195 @@ public class MemoryDataStreamTest {
 				"HiAZ",
 				General.readWholeStreamAsUTF8(stream.getInputStream()));
 	}
+
+	@Test
+	public void testHighBytes() throws IOException {
+
+		final MemoryDataStream stream = new MemoryDataStream();
+		stream.writeBytes(new byte[] {(byte)0xC3, (byte)0xA9}, 0, 2);
+		stream.setComplete();
+
+		final InputStream is = stream.getInputStream();
+
+		Assert.assertEquals(2, is.available());
+		Assert.assertEquals(0xC3, is.read());
+		Assert.assertEquals(1, is.available());
+		Assert.assertEquals(0xA9, is.read());
+		Assert.assertEquals(-1, is.read());
+	}
+
+	private static final int LISTING_POSTS = 25;
+
+	private static byte[] listing() {
+
+		final StringBuilder selftext = new StringBuilder();
+
+		for(int i = 0; i < 60; i++) {
+			selftext.append("&lt;p&gt;Paragraph ").append(i)
+					.append(" of a fairly long self post, with some text in it.&lt;/p&gt;");
+		}
+
+		final StringBuilder result = new StringBuilder(
+				"{\"kind\": \"Listing\", \"data\": {\"after\": \"t3_p24\", \"children\": [");
+
+		for(int i = 0; i < LISTING_POSTS; i++) {
+
+			if(i > 0) {
+				result.append(',');
+			}
+
+			result.append("{\"kind\": \"t3\", \"data\": {")
+					.append("\"id\": \"p").append(i).append("\", ")
+					.append("\"name\": \"t3_p").append(i).append("\", ")
+					.append("\"subreddit\": \"androiddev\", ")
+					.append("\"title\": \"Post number ").append(i).append("\", ")
+					.append("\"num_comments\": ").append(i * 3).append(", ")
+					.append("\"score\": ").append(i * 10).append(", ")
+					.append("\"created_utc\": 1700000000.0, ")
+					.append("\"permalink\": \"/r/androiddev/comments/p").append(i)
+					.append("/post/\", ")
+					.append("\"selftext_html\": \"").append(selftext).append("\"}}");
+		}
+
+		return result.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int parseListing(final InputStream is) throws IOException {
+		return ((RedditThing.Listing)JsonUtils.INSTANCE.decodeRedditThingFromStream(is))
+				.getData()
+				.getChildren()
+				.size();
+	}
+
+	// Counts down the latch once the reader asks for data at or beyond the given position
+	private static final class PositionLatchInputStream extends FilterInputStream {
+
+		private final long mLatchPosition;
+		private final CountDownLatch mLatch;
+		private long mPosition;
+
+		PositionLatchInputStream(
+				final InputStream in,
+				final long latchPosition,
+				final CountDownLatch latch) {
+
+			super(in);
+			mLatchPosition = latchPosition;
+			mLatch = latch;
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			onRead();
+			final int result = super.read();
+
+			if(result >= 0) {
+				mPosition++;
+			}
+
+			return result;
+		}
+
+		@Override
+		public int read(final byte[] buf, final int off, final int len) throws IOException {
+
+			onRead();
+			final int result = super.read(buf, off, len);
+
+			if(result > 0) {
+				mPosition += result;
+			}
+
+			return result;
+		}
+
+		private void onRead() {
+			if(mPosition >= mLatchPosition) {
+				mLatch.countDown();
+			}
+		}
+	}
+
+	@Test
+	public void testParseWhileWriting() throws Exception {
+
+		final byte[] listing = listing();
+
+		// Hold back the end of the children array, so the listing can't be parsed without it
+		final int prefixLength = listing.length - "]}}".length();
+
+		final MemoryDataStream stream = new MemoryDataStream(64 * 1024);
+		final CountDownLatch prefixConsumed = new CountDownLatch(1);
+
+		final AtomicInteger parsedPosts = new AtomicInteger(-1);
+		final AtomicReference<Throwable> parseError = new AtomicReference<>();
+
+		final Thread parseThread = new Thread(() -> {
+			try {
+				parsedPosts.set(parseListing(new PositionLatchInputStream(
+						stream.getInputStream(),
+						prefixLength,
+						prefixConsumed)));
+
+			} catch(final Throwable t) {
+				parseError.set(t);
+			}
+		});
+
+		parseThread.start();
+
+		for(int pos = 0; pos < prefixLength; pos += 8192) {
+			stream.writeBytes(listing, pos, Math.min(prefixLength - pos, 8192));
+		}
+
+		// The parser consumes everything written so far, then waits for more
+		Assert.assertTrue(prefixConsumed.await(10, TimeUnit.SECONDS));
+		Assert.assertTrue(parseThread.isAlive());
+
+		stream.writeBytes(listing, prefixLength, listing.length - prefixLength);
+		stream.setComplete();
+
+		parseThread.join();
+
+		Assert.assertNull(parseError.get());
+		Assert.assertEquals(LISTING_POSTS, parsedPosts.get());
+	}
+
+	@Test
+	public void testFailedWhileReading() throws Exception {
+
+		final MemoryDataStream stream = new MemoryDataStream();
+		stream.writeBytes(new byte[] {'{'}, 0, 1);
+
+		final IOException failure = new IOException("Connection reset");
+		final CountDownLatch waitingForData = new CountDownLatch(1);
+		final AtomicReference<Throwable> readError = new AtomicReference<>();
+
+		final Thread readThread = new Thread(() -> {
+			try(InputStream is = new PositionLatchInputStream(
+					stream.getInputStream(),
+					1,
+					waitingForData)) {
+
+				final byte[] buf = new byte[16];
+
+				while(is.read(buf) >= 0) {
+					// Keep reading
+				}
+
+			} catch(final Throwable t) {
+				readError.set(t);
+			}
+		});
+
+		readThread.start();
+
+		Assert.assertTrue(waitingForData.await(10, TimeUnit.SECONDS));
+
+		stream.setFailed(failure);
+		readThread.join();
+
+		Assert.assertSame(failure, readError.get());
+	}
 }
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Test;
+import org.quantumbadger.redreader.cache.PrecacheScheduler;
+import org.quantumbadger.redreader.common.Priority;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrecacheSchedulerTest {
+
+	private static final int PRECACHE_PRIORITY = 500;
+
+	private static final int PAGE_SIZE = 25;
+	private static final int PAGES = 6;
+	private static final int VISIBLE_ITEMS = 6;
+
+	// The download pool's thread count, sharing a 4 MB/s connection
+	private static final int DOWNLOAD_THREADS = 5;
+	private static final long BYTES_PER_SECOND = 4 * 1024 * 1024;
+
+	private static final long STEP_MS = 10;
+
+	// {duration in ms, items per second}: reading, then flinging past a page or two
+	private static final int[][] SCROLL_SCRIPT = {
+			{10_000, 1},
+			{3_000, 15},
+			{8_000, 1},
+			{2_000, 20},
+			{10_000, 1},
+			{2_000, 15},
+			{10_000, 1}
+	};
+
+	private static final class Download {
+
+		final int position;
+		final long size;
+
+		long transferred = 0;
+
+		Download(final int position, final long size) {
+			this.position = position;
+			this.size = size;
+		}
+
+		boolean isComplete() {
+			return transferred >= size;
+		}
+	}
+
+	private static final class Result {
+		long bytes;
+		long wastedBytes;
+		int cancelled;
+		int notReadyWhenVisible;
+	}
+
+	// Scrolls through a listing as described by the script, downloading each item's image in
+	// the background as its page is loaded. Records the bytes spent on items the user had
+	// already scrolled past, or on downloads cancelled before they completed.
+	private static Result scroll(final boolean reprioritise) {
+
+		final Result result = new Result();
+		final PrecacheScheduler scheduler = new PrecacheScheduler();
+		final Random random = new Random(1234);
+
+		final ArrayList<Download> queued = new ArrayList<>();
+		final ArrayList<Download> active = new ArrayList<>();
+		final boolean[] seen = new boolean[PAGE_SIZE * PAGES];
+
+		long now = 0;
+		double position = 0;
+		int itemsLoaded = 0;
+
+		for(final int[] step : SCROLL_SCRIPT) {
+
+			final long end = now + step[0];
+
+			while(now < end) {
+
+				now += STEP_MS;
+
+				final int maxPosition = Math.max(0, itemsLoaded - VISIBLE_ITEMS);
+				position = Math.min(maxPosition, position + step[1] * STEP_MS / 1000.0);
+
+				final int firstVisible = (int)position;
+				final int lastVisible = firstVisible + VISIBLE_ITEMS - 1;
+
+				scheduler.onVisibleRangeChanged(firstVisible, lastVisible);
+
+				// The listing loads the next page when 20 items remain
+				if(itemsLoaded < PAGE_SIZE * PAGES && itemsLoaded - lastVisible < 20) {
+					for(int i = 0; i < PAGE_SIZE; i++) {
+						// Mostly images, with some videos
+						final long size = random.nextInt(5) == 0
+								? (2048 + random.nextInt(6144)) * 1024L
+								: (200 + random.nextInt(1300)) * 1024L;
+
+						queued.add(new Download(itemsLoaded + i, size));
+					}
+					itemsLoaded += PAGE_SIZE;
+				}
+
+				for(int i = firstVisible; i <= lastVisible && i < itemsLoaded; i++) {
+
+					if(!seen[i]) {
+						seen[i] = true;
+
+						for(final Download download : active) {
+							if(download.position == i) {
+								result.notReadyWhenVisible++;
+							}
+						}
+
+						for(final Download download : queued) {
+							if(download.position == i) {
+								result.notReadyWhenVisible++;
+							}
+						}
+					}
+				}
+
+				if(reprioritise) {
+					cancelScrolledPast(scheduler, queued, result);
+					cancelScrolledPast(scheduler, active, result);
+				}
+
+				// As in PrioritisedCachedThreadPool, priorities are compared on each dequeue
+				while(active.size() < DOWNLOAD_THREADS && !queued.isEmpty()) {
+
+					int best = 0;
+
+					for(int i = 1; i < queued.size(); i++) {
+						if(priorityOf(scheduler, queued.get(i), reprioritise)
+								.isHigherPriorityThan(
+										priorityOf(scheduler, queued.get(best), reprioritise))) {
+							best = i;
+						}
+					}
+
+					active.add(queued.remove(best));
+				}
+
+				if(!active.isEmpty()) {
+
+					final long bytesEach
+							= BYTES_PER_SECOND * STEP_MS / 1000 / active.size();
+
+					for(int i = active.size() - 1; i >= 0; i--) {
+
+						final Download download = active.get(i);
+						final long bytes
+								= Math.min(bytesEach, download.size - download.transferred);
+
+						download.transferred += bytes;
+						result.bytes += bytes;
+
+						if(scheduler.isScrolledPast(download.position)) {
+							result.wastedBytes += bytes;
+						}
+
+						if(download.isComplete()) {
+							active.remove(i);
+						}
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private static void cancelScrolledPast(
+			final PrecacheScheduler scheduler,
+			final ArrayList<Download> downloads,
+			final Result result) {
+
+		for(int i = downloads.size() - 1; i >= 0; i--) {
+			if(scheduler.isScrolledPast(downloads.get(i).position)) {
+
+				// Whatever was downloaded before cancelling is wasted too
+				result.wastedBytes += downloads.remove(i).transferred;
+				result.cancelled++;
+			}
+		}
+	}
+
+	private static Priority priorityOf(
+			final PrecacheScheduler scheduler,
+			final Download download,
+			final boolean reprioritise) {
+
+		final Priority base = new Priority(PRECACHE_PRIORITY, download.position);
+
+		return reprioritise ? scheduler.getPriority(base, download.position) : base;
+	}
+
+	@Test
+	public void testPriorityByDistance() {
+
+		final PrecacheScheduler scheduler = new PrecacheScheduler();
+		scheduler.onVisibleRangeChanged(20, 25);
+
+		final Priority base = new Priority(PRECACHE_PRIORITY);
+
+		assertEquals(new Priority(PRECACHE_PRIORITY, 0), scheduler.getPriority(base, 22));
+		assertEquals(new Priority(PRECACHE_PRIORITY, 3), scheduler.getPriority(base, 28));
+
+		// Items just below the viewport come before those just above it
+		assertTrue(scheduler.getPriority(base, 28)
+				.isHigherPriorityThan(scheduler.getPriority(base, 19)));
+
+		// The primary priority is unchanged
+		assertTrue(new Priority(PRECACHE_PRIORITY - 1, 100)
+				.isHigherPriorityThan(scheduler.getPriority(base, 21)));
+	}
+
+	@Test
+	public void testScrolledPast() {
+
+		final PrecacheScheduler scheduler = new PrecacheScheduler();
+
+		assertFalse(scheduler.isScrolledPast(0));
+
+		scheduler.onVisibleRangeChanged(20, 25);
+
+		assertFalse(scheduler.isScrolledPast(15));
+		assertTrue(scheduler.isScrolledPast(14));
+
+		scheduler.onVisibleRangeChanged(10, 15);
+
+		assertFalse(scheduler.isScrolledPast(14));
+	}
+
+	@Test
+	public void testVisibleRangeVersion() {
+
+		final PrecacheScheduler scheduler = new PrecacheScheduler();
+		final int initial = scheduler.getVisibleRangeVersion();
+
+		scheduler.onVisibleRangeChanged(0, 0);
+		assertEquals(initial, scheduler.getVisibleRangeVersion());
+
+		scheduler.onVisibleRangeChanged(20, 25);
+		assertTrue(scheduler.getVisibleRangeVersion() != initial);
+	}
+
+	@Test
+	public void testScriptedScroll() {
+
+		final Result fixed = scroll(false);
+		final Result reprioritised = scroll(true);
+
+		assertTrue(reprioritised.wastedBytes * 2 < fixed.wastedBytes);
+		assertTrue(reprioritised.notReadyWhenVisible < fixed.notReadyWhenVisible);
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.quantumbadger.redreader.common.datastream.SeekableFileInputStream;
+import org.quantumbadger.redreader.common.datastream.SeekableInputStream;
+import org.quantumbadger.redreader.common.datastream.SeekableMappedFileInputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+public class SeekableFileInputStreamTest {
+
+	private static File createFile(final byte[] data) throws IOException {
+
+		final File file = File.createTempFile("rr_test", ".bin");
+		file.deleteOnExit();
+
+		try(FileOutputStream os = new FileOutputStream(file)) {
+			os.write(data);
+		}
+
+		return file;
+	}
+
+	private static void checkRandomAccess(
+			final byte[] data,
+			final SeekableInputStream stream) throws IOException {
+
+		final Random random = new Random(2);
+
+		for(int i = 0; i < 2000; i++) {
+
+			final int position = (int)stream.getPosition();
+
+			switch(random.nextInt(4)) {
+
+				case 0: {
+					final int expected = position < data.length ? data[position] & 0xFF : -1;
+					Assert.assertEquals(expected, stream.read());
+					break;
+				}
+
+				case 1: {
+					final byte[] buf = new byte[1 + random.nextInt(40000)];
+					final int bytesRead = stream.read(buf, 0, buf.length);
+
+					for(int j = 0; j < bytesRead; j++) {
+						Assert.assertEquals(data[position + j], buf[j]);
+					}
+					break;
+				}
+
+				case 2:
+					stream.seek(random.nextInt(data.length));
+					Assert.assertEquals(data.length - stream.getPosition(), stream.available());
+					break;
+
+				default:
+					stream.skip(random.nextInt(100));
+					break;
+			}
+		}
+	}
+
+	@Test
+	public void testBuffered() throws IOException {
+
+		final byte[] data = new byte[100_000];
+		new Random(1).nextBytes(data);
+
+		try(SeekableInputStream stream = new SeekableFileInputStream(createFile(data))) {
+			checkRandomAccess(data, stream);
+		}
+	}
+
+	@Test
+	public void testMapped() throws IOException {
+
+		final byte[] data = new byte[100_000];
+		new Random(1).nextBytes(data);
+
+		try(SeekableInputStream stream = SeekableMappedFileInputStream.open(createFile(data))) {
+			Assert.assertTrue(stream instanceof SeekableMappedFileInputStream);
+			checkRandomAccess(data, stream);
+		}
+	}
+
+	@Test
+	public void testMappedClose() throws IOException {
+
+		final byte[] data = new byte[1000];
+		new Random(2).nextBytes(data);
+
+		final SeekableInputStream stream = SeekableMappedFileInputStream.open(createFile(data));
+		Assert.assertEquals(data[0] & 0xFF, stream.read());
+
+		stream.close();
+
+		try {
+			stream.read();
+			Assert.fail("Expected exception");
+		} catch(final IOException e) {
+			// Expected
+		}
+	}
+}
@@ -372,4 +372,36 @@ public class MarkdownTokenizerTest {
 				3
 		), -1);
 	}
+
+	@Test
+	public void testTokenizeReusesBuffersCorrectly() {
+
+		// Tokenizing a short paragraph after a long one must not pick up leftover tokens
+		final String[] corpus = {
+				"A long paragraph with **bold**, _italic_, ~~strike~~, ^caret, `code`, a"
+						+ " [link](https://example.com/a_b) and https://example.com/x_y,"
+						+ " r/redreader and /u/someone &amp; &#x2009;spaces.",
+				"a *b*",
+				"",
+				"www.example.com/test",
+				"a* *b*"
+		};
+
+		final int[][] forwards = new int[corpus.length][];
+
+		for(int i = 0; i < corpus.length; i++) {
+			forwards[i] = MarkdownTokenizer.tokenizeToArray(toCAS(corpus[i]));
+		}
+
+		for(int i = corpus.length - 1; i >= 0; i--) {
+			assertIAEquals(forwards[i], MarkdownTokenizer.tokenize(toCAS(corpus[i])));
+		}
+
+		assertIAEquals(
+				new int[] {
+						'a', ' ', MarkdownTokenizer.TOKEN_ASTERISK,
+						'b', MarkdownTokenizer.TOKEN_ASTERISK
+				},
+				MarkdownTokenizer.tokenize(toCAS("a *b*")));
+	}
 }
@@ -19,6 +19,7 @@ package org.quantumbadger.redreader.test.reddit
 import org.junit.Assert
 import org.junit.Test
 import org.quantumbadger.redreader.common.UriString
+import org.quantumbadger.redreader.image.AlbumInfo
 import org.quantumbadger.redreader.reddit.kthings.JsonUtils
 import org.quantumbadger.redreader.reddit.kthings.RedditThing
 
@@ -395,5 +396,7 @@ class ImageTests {
 		val post = JsonUtils.decodeRedditThingFromStream(json.byteInputStream())
 
 		Assert.assertEquals(UriString("https://www.reddit.com/gallery/13v4t0m"), (post as RedditThing.Post).data.findUrl())
+
+		Assert.assertEquals(2, AlbumInfo.parseRedditGallery(post.data)?.images?.size)
 	}
 }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.reddit;
+
+import org.junit.Test;
+import org.quantumbadger.redreader.io.WritableHashSet;
+import org.quantumbadger.redreader.reddit.PostFilter;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PostFilterTest {
+
+	private static PostFilter filter(final String rules, final String... subreddits) {
+		return PostFilter.compile(
+				WritableHashSet.listToEscapedString(Arrays.asList(subreddits)),
+				rules,
+				false);
+	}
+
+	private static boolean isHidden(
+			final PostFilter filter,
+			final String subreddit,
+			final String author,
+			final String domain,
+			final String flair,
+			final String title) {
+
+		return filter.isPostHidden(false, subreddit, author, domain, flair, title);
+	}
+
+	@Test
+	public void testNsfw() {
+
+		assertTrue(filter("").isPostHidden(true, null, null, null, null, null));
+		assertFalse(filter("").isPostHidden(false, null, null, null, null, null));
+
+		assertFalse(PostFilter.compile("", "", true)
+				.isPostHidden(true, null, null, null, null, null));
+	}
+
+	@Test
+	public void testSubreddits() {
+
+		final PostFilter filter = filter("", "/r/pics", "/r/Funny");
+
+		assertTrue(isHidden(filter, "pics", null, null, null, null));
+		assertTrue(isHidden(filter, "PICS", null, null, null, null));
+		assertTrue(isHidden(filter, "funny", null, null, null, null));
+		assertFalse(isHidden(filter, "aww", null, null, null, null));
+
+		// Null means the subreddit list doesn't apply to this listing
+		assertFalse(isHidden(filter, null, null, null, null, null));
+	}
+
+	@Test
+	public void testUsersDomainsAndFlair() {
+
+		final PostFilter filter = filter(
+				"user:Spammer\nuser:/u/other\ndomain:Example.com\nflair:Meme\n");
+
+		assertTrue(isHidden(filter, null, "spammer", null, null, null));
+		assertTrue(isHidden(filter, null, "Other", null, null, null));
+		assertFalse(isHidden(filter, null, "someone", null, null, null));
+
+		assertTrue(isHidden(filter, null, null, "example.com", null, null));
+		assertTrue(isHidden(filter, null, null, "i.example.com", null, null));
+		assertFalse(isHidden(filter, null, null, "notexample.com", null, null));
+		assertFalse(isHidden(filter, null, null, "example.co", null, null));
+
+		assertTrue(isHidden(filter, null, null, null, "meme ", null));
+		assertFalse(isHidden(filter, null, null, null, "Memes", null));
+	}
+
+	@Test
+	public void testTitles() {
+
+		final PostFilter filter = filter("spoiler\nbreaking news\nregex:^\\[\\d+\\]");
+
+		assertTrue(isHidden(filter, null, null, null, null, "Huge SPOILER inside"));
+		assertTrue(isHidden(filter, null, null, null, null, "spoiler"));
+		assertFalse(isHidden(filter, null, null, null, null, "No spoilers here"));
+
+		assertTrue(isHidden(filter, null, null, null, null, "BREAKING NEWS: something"));
+		assertFalse(isHidden(filter, null, null, null, null, "Breaking: news"));
+
+		assertTrue(isHidden(filter, null, null, null, null, "[123] A title"));
+		assertFalse(isHidden(filter, null, null, null, null, "A title [123]"));
+	}
+
+	@Test
+	public void testInvalidRegexIgnored() {
+
+		final PostFilter filter = filter("regex:(unclosed\nregex:valid");
+
+		assertTrue(isHidden(filter, null, null, null, null, "A VALID title"));
+		assertFalse(isHidden(filter, null, null, null, null, "(unclosed"));
+	}
+
+	@Test
+	public void testBackreferences() {
+
+		// Joining these into one alternation would point \1 at the first pattern's group
+		final PostFilter filter = filter("regex:(x)y\nregex:\\b(\\w)\\1\\b\nregex:\\Q\\1\\E");
+
+		assertTrue(isHidden(filter, null, null, null, null, "An aa title"));
+		assertFalse(isHidden(filter, null, null, null, null, "An ab title"));
+		assertTrue(isHidden(filter, null, null, null, null, "XY"));
+		assertTrue(isHidden(filter, null, null, null, null, "Quoted \\1"));
+	}
+
+	@Test
+	public void testUncombinablePatterns() {
+
+		// Each of these is valid alone, but swallows the rest of a joined alternation
+		final PostFilter filter = filter("regex:\\Qa+b\nregex:(?x)c d # comment\nregex:xyz");
+
+		assertTrue(isHidden(filter, null, null, null, null, "Title with a+b"));
+		assertFalse(isHidden(filter, null, null, null, null, "Title with aab"));
+		assertTrue(isHidden(filter, null, null, null, null, "Title with cd"));
+		assertTrue(isHidden(filter, null, null, null, null, "Title with xyz"));
+		assertFalse(isHidden(filter, null, null, null, null, "Title with comment"));
+	}
+}
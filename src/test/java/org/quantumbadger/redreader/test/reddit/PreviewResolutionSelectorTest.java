@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package org.quantumbadger.redreader.test.reddit;
+
+import org.junit.Test;
+import org.quantumbadger.redreader.common.UriString;
+import org.quantumbadger.redreader.http.BandwidthEstimator;
+import org.quantumbadger.redreader.reddit.prepared.PreviewResolutionSelector;
+import org.quantumbadger.redreader.reddit.prepared.RedditParsedPost.ImagePreviewDetails;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PreviewResolutionSelectorTest {
+
+	// The widths Reddit generates previews at
+	private static final int[] PREVIEW_WIDTHS = {108, 216, 320, 640, 960, 1080};
+
+	private static List<ImagePreviewDetails> resolutions(
+			final String urlPrefix,
+			final int sourceWidth,
+			final int sourceHeight) {
+
+		final ArrayList<ImagePreviewDetails> result = new ArrayList<>();
+
+		result.add(new ImagePreviewDetails(
+				new UriString(urlPrefix + "?w=" + sourceWidth + "&h=" + sourceHeight),
+				sourceWidth,
+				sourceHeight));
+
+		for(final int width : PREVIEW_WIDTHS) {
+
+			final int height = (int)((long)sourceHeight * width / sourceWidth);
+
+			result.add(new ImagePreviewDetails(
+					new UriString(urlPrefix + "?w=" + width + "&h=" + height),
+					width,
+					height));
+		}
+
+		return result;
+	}
+
+	private static List<ImagePreviewDetails> resolutions(
+			final int sourceWidth,
+			final int sourceHeight) {
+
+		return resolutions("https://preview.redd.it/a.jpg", sourceWidth, sourceHeight);
+	}
+
+	@Test
+	public void testNoEstimatePicksSmallestAdequate() {
+
+		final PreviewResolutionSelector.Selection selection
+				= PreviewResolutionSelector.select(resolutions(2000, 2500), 1000, 0, -1);
+
+		assertNotNull(selection);
+		assertEquals(1080, selection.initial.width);
+		assertNull(selection.upgrade);
+	}
+
+	@Test
+	public void testFastConnectionPicksSmallestAdequate() {
+
+		final PreviewResolutionSelector.Selection selection = PreviewResolutionSelector.select(
+				resolutions(2000, 2500),
+				600,
+				0,
+				10 * 1024 * 1024);
+
+		assertNotNull(selection);
+		assertEquals(640, selection.initial.width);
+		assertNull(selection.upgrade);
+	}
+
+	@Test
+	public void testSlowConnectionStartsSmaller() {
+
+		final PreviewResolutionSelector.Selection selection = PreviewResolutionSelector.select(
+				resolutions(2000, 2500),
+				1000,
+				0,
+				256 * 1024);
+
+		assertNotNull(selection);
+		assertEquals(640, selection.initial.width);
+		assertNotNull(selection.upgrade);
+		assertEquals(1080, selection.upgrade.width);
+	}
+
+	@Test
+	public void testVerySlowConnectionHasLowerLimit() {
+
+		final PreviewResolutionSelector.Selection selection = PreviewResolutionSelector.select(
+				resolutions(2000, 2500),
+				1000,
+				0,
+				1024);
+
+		assertNotNull(selection);
+
+		// 320 would be less than half of the view width
+		assertEquals(640, selection.initial.width);
+		assertNotNull(selection.upgrade);
+	}
+
+	@Test
+	public void testSmallImage() {
+
+		final PreviewResolutionSelector.Selection selection = PreviewResolutionSelector.select(
+				Collections.singletonList(new ImagePreviewDetails(
+						new UriString("https://preview.redd.it/a.jpg"),
+						300,
+						200)),
+				1000,
+				0,
+				1024);
+
+		assertNotNull(selection);
+		assertEquals(300, selection.initial.width);
+		assertNull(selection.upgrade);
+
+		assertNull(PreviewResolutionSelector.select(Collections.emptyList(), 1000, 0, -1));
+	}
+
+	@Test
+	public void testBandwidthEstimate() {
+
+		final BandwidthEstimator estimator = BandwidthEstimator.getInstance();
+
+		final long start = 1_000_000_000L;
+
+		// Too small to measure bandwidth
+		estimator.addSample(1024, 1000, start - 20 * 60 * 1000);
+		estimator.addSample(1024 * 1024, 1000, start);
+		assertEquals(1024 * 1024, estimator.getBytesPerSecond(start));
+
+		estimator.addSample(1024, 1000, start);
+		assertEquals(1024 * 1024, estimator.getBytesPerSecond(start));
+
+		estimator.addSample(64 * 1024, 1000, start + 1000);
+		assertEquals((1024 * 1024 * 3 + 64 * 1024) / 4, estimator.getBytesPerSecond(start));
+
+		// Estimates expire, as the connection may have changed
+		assertEquals(-1, estimator.getBytesPerSecond(start + 20 * 60 * 1000));
+	}
+
+	// Uses the same size estimate as the selector, rather than downloading anything
+	private static long estimateBytes(final ImagePreviewDetails resolution) {
+		return resolution.width * (long)resolution.height * 15 / 100;
+	}
+
+	@Test
+	public void testSlowConnectionListing() {
+
+		final int[][] sourceSizes = {{1080, 1350}, {1920, 1080}, {1200, 1200}};
+
+		// Before, previews were requested at the screen width, however wide the view
+		final int screenWidth = 1080;
+		final int viewWidth = 1000;
+
+		final long bytesPerSecond = 256 * 1024;
+
+		final int[] expectedInitialWidths = {640, 1080, 640};
+		final Integer[] expectedUpgradeWidths = {1080, null, 1080};
+
+		long fixedBytes = 0;
+		long initialBytes = 0;
+
+		for(int i = 0; i < sourceSizes.length; i++) {
+
+			final List<ImagePreviewDetails> resolutions
+					= resolutions(sourceSizes[i][0], sourceSizes[i][1]);
+
+			final PreviewResolutionSelector.Selection fixed
+					= PreviewResolutionSelector.select(resolutions, screenWidth, 0, -1);
+
+			final PreviewResolutionSelector.Selection adaptive = PreviewResolutionSelector.select(
+					resolutions,
+					viewWidth,
+					0,
+					bytesPerSecond);
+
+			assertNotNull(fixed);
+			assertNotNull(adaptive);
+
+			assertEquals(expectedInitialWidths[i], adaptive.initial.width);
+
+			if(expectedUpgradeWidths[i] == null) {
+				assertNull(adaptive.upgrade);
+			} else {
+				assertNotNull(adaptive.upgrade);
+				assertEquals((int)expectedUpgradeWidths[i], adaptive.upgrade.width);
+			}
+
+			assertTrue(PreviewResolutionSelector.estimateLoadTimeMs(
+					adaptive.initial,
+					bytesPerSecond) <= 500);
+
+			fixedBytes += estimateBytes(fixed.initial);
+			initialBytes += estimateBytes(adaptive.initial);
+		}
+
+		// Upgrades are only loaded on request, so this is all that's downloaded up front
+		assertTrue(initialBytes < fixedBytes);
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * This file is part of RedReader.
+ *
+ * RedReader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * RedReader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with RedReader.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package org.quantumbadger.redreader.test.reddit
+
+import org.junit.Assert
+import org.junit.Test
+import org.quantumbadger.redreader.reddit.kthings.JsonUtils
+import org.quantumbadger.redreader.reddit.kthings.RedditFieldEdited
+import org.quantumbadger.redreader.reddit.kthings.RedditFieldReplies
+import org.quantumbadger.redreader.reddit.kthings.RedditThing
+import org.quantumbadger.redreader.reddit.kthings.RedditThingResponse
+
+class ThingResponseTests {
+
+	private fun comment(id: String, edited: String, replies: String) = """
+		{
+			"kind": "t1",
+			"data": {
+				"id": "$id",
+				"name": "t1_$id",
+				"body": "Comment $id",
+				"all_awardings": [],
+				"edited": $edited,
+				"created_utc": 1700000000.0,
+				"replies": $replies
+			}
+		}
+	"""
+
+	private fun listing(vararg children: String) =
+		"""{"kind": "Listing", "data": {"after": null, "children": [${children.joinToString()}]}}"""
+
+	private val commentListing =
+		listing(comment("a", "false", listing(comment("b", "1700000123.0", "\"\""))))
+
+	private fun firstComment(listing: RedditThing) =
+		((listing as RedditThing.Listing).data.children[0].ok() as RedditThing.Comment).data
+
+	@Test
+	fun multipleResponse() {
+
+		val response = JsonUtils.decodeRedditThingResponseFromStream(
+			"\n  [$commentListing, $commentListing]".byteInputStream())
+
+		val things = (response as RedditThingResponse.Multiple).things
+		Assert.assertEquals(2, things.size)
+
+		val comment = firstComment(things[1])
+		Assert.assertEquals("a", comment.id)
+		Assert.assertEquals(RedditFieldEdited.Bool(false), comment.edited)
+
+		val reply = firstComment((comment.replies as RedditFieldReplies.Some).value)
+		Assert.assertEquals("b", reply.id)
+		Assert.assertEquals(
+			1700000123L,
+			(reply.edited as RedditFieldEdited.Timestamp).value.value.toUtcSecs())
+		Assert.assertEquals(RedditFieldReplies.None, reply.replies)
+	}
+
+	@Test
+	fun singleResponse() {
+
+		val response = JsonUtils.decodeRedditThingResponseFromStream(
+			commentListing.byteInputStream())
+
+		Assert.assertEquals("a", firstComment((response as RedditThingResponse.Single).thing).id)
+	}
+}